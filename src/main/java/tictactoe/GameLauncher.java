@@ -2,6 +2,7 @@ package tictactoe;
 
 import tictactoe.client.AIClient;
 import tictactoe.client.Client;
+import tictactoe.client.MctsClient;
 import tictactoe.client.PlayerClient;
 import tictactoe.server.Server;
 
@@ -88,15 +89,15 @@ public class GameLauncher {
         //- Server : Start 1 Server
         switch (netmode) {
             case Local -> { // 1 Server + 2 Client (Ask for human or AI)
-                boolean opponentIsHuman = false;
+                int opponent = 0;
                 boolean hasChosen = false;
                 do {
                     // Asking for humanity of opponent
                     System.out.print(Text.askHumanity());
                     try {
                         int valueEntered = Integer.parseInt(sysIn.readLine());
-                        if (valueEntered == 0 || valueEntered == 1) {
-                            opponentIsHuman = (valueEntered == 0);
+                        if (valueEntered >= 0 && valueEntered <= 2) {
+                            opponent = valueEntered;
                             hasChosen = true;
                         } else {
                             System.out.println(Text.error("s"));
@@ -118,10 +119,12 @@ public class GameLauncher {
                 TimeUnit.SECONDS.sleep(1);
                 // Starting second player based on user's choice
                 Client client_local_2;
-                if (opponentIsHuman) {
+                if (opponent == 0) {
                     client_local_2 = new PlayerClient();
-                } else {
+                } else if (opponent == 1) {
                     client_local_2 = new AIClient();
+                } else {
+                    client_local_2 = new MctsClient();
                 }
                 client_local_2.start();
             }
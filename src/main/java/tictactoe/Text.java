@@ -24,6 +24,7 @@ public class Text implements  Displayable{
             case "0" -> out += "Erreur sur la sélection des dimensions.";
             case "1" -> out += "Impossible de jouer ici - Cette case est déjà utilisée.";
             case "2" -> out += "Impossible de jouer ici - Cette case ne fait pas partie de la grille.";
+            case "3" -> out += "Sauvegarde illisible. Nouvelle partie.";
             default -> out += "Erreur inconnue - N°" + errorCode;
         }
         out += ANSI_RESET;
@@ -213,6 +214,7 @@ public class Text implements  Displayable{
                 "\nVeuillez choisir votre type d'adversaire :" +
                 "\n  0 - Humain" +
                 "\n  1 - Intelligence Artificielle" +
+                "\n  2 - Intelligence Artificielle (Monte-Carlo, grandes grilles)" +
                 "\nVotre choix : "
                 + ANSI_RESET;
     }
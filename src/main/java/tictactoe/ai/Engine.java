@@ -0,0 +1,61 @@
+package tictactoe.ai;
+
+import tictactoe.grid.Grid;
+import tictactoe.grid.exceptions.PositionInvalidException;
+import tictactoe.grid.exceptions.PositionUsedException;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * interface Engine
+ * Move search of an AI, independent of any client : a position and limits in, the best move with its score and
+ * statistics out. An engine only keeps what it learnt between two searches (tables, trees), so several engines
+ * can search at the same time in one process.
+ * @version 1
+ */
+public interface Engine {
+    /**
+     * Find the best move, the grid is left unchanged
+     * @param grid grid to play on, with at least one empty cell
+     * @param player player to move
+     * @param limits when to stop searching
+     * @return the best move found, its score and the statistics of the search
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     */
+    public SearchResult search(Grid grid, char player, SearchLimits limits) throws PositionInvalidException, PositionUsedException;
+
+    /**
+     * Think on the opponent's time until stopped, so that the next search is faster. The grid is left unchanged.
+     * Nothing by default.
+     * @param grid grid where the opponent is to move
+     * @param player searching player
+     * @param stop set by another thread to end the pondering
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     */
+    public default void ponder(Grid grid, char player, AtomicBoolean stop) throws PositionInvalidException, PositionUsedException {
+    }
+
+    /**
+     * Tell a listener of every following search, pondering excepted
+     * @param listener the listener, called by the searching thread
+     */
+    public void addListener(SearchListener listener);
+
+    /**
+     * Stop telling a listener of the searches
+     * @param listener a listener added before
+     */
+    public void removeListener(SearchListener listener);
+
+    /**
+     * Forget what was learnt, for a new game
+     */
+    public void clear();
+
+    /**
+     * Stop the threads of the engine, it can not search anymore
+     */
+    public void shutdown();
+}
@@ -0,0 +1,124 @@
+package tictactoe.ai;
+
+import tictactoe.grid.Grid;
+import tictactoe.grid.WinningLines;
+
+import java.util.Arrays;
+
+/**
+ * Class LineEvaluator
+ * Score of an unfinished position from the searching player's point of view. Every winning line still open to a
+ * single player counts for that player, more as it holds more of his stones; a line holding stones of both players
+ * is dead and counts for nobody.
+ * The stone counts of the lines and the score are updated when a stone is played or taken back, in
+ * O(lines through the cell), instead of scanning the grid at each leaf.
+ * @version 1
+ */
+final class LineEvaluator {
+    /**
+     * Biggest absolute score, strictly below {@link MinmaxSearch#WIN_SCORE} so a won game always scores higher
+     */
+    static final int MAX_SCORE = MinmaxSearch.WIN_SCORE - 1;
+
+    /**
+     * winning lines of the shape
+     */
+    private final WinningLines lines;
+
+    /**
+     * value of an open line by number of stones : 4^(stones-1) up to 4^9, 0 for an empty line
+     */
+    private final int[] weight;
+
+    /**
+     * stones of the searching player per line
+     */
+    private final int[] mine;
+
+    /**
+     * stones of the opponent per line
+     */
+    private final int[] theirs;
+
+    /**
+     * sum of the line values
+     */
+    private int score;
+
+    /**
+     * @param size size of the grid
+     * @param dimension dimension of the grid (2 or 3)
+     */
+    LineEvaluator(int size, int dimension) {
+        this.lines = WinningLines.of(size, dimension);
+        this.weight = new int[size + 1];
+        for (int stones = 1; stones <= size; stones++) {
+            this.weight[stones] = 1 << Math.min(2 * (stones - 1), 18);
+        }
+        this.mine = new int[this.lines.getLineCount()];
+        this.theirs = new int[this.lines.getLineCount()];
+    }
+
+    /**
+     * Count the stones of a grid, at the start of a search
+     * @param grid grid searched
+     * @param player searching player
+     */
+    void reset(Grid grid, char player) {
+        Arrays.fill(this.mine, 0);
+        Arrays.fill(this.theirs, 0);
+        this.score = 0;
+        char searching = Character.toUpperCase(player);
+        for (int cell = 0; cell < grid.getTotalSize(); cell++) {
+            char value = grid.getValue(cell);
+            if (value != '\0') this.play(cell, Character.toUpperCase(value) == searching);
+        }
+    }
+
+    /**
+     * @param line line index
+     * @return value of the line for the searching player
+     */
+    private int value(int line) {
+        if (this.theirs[line] == 0) return this.weight[this.mine[line]];
+        if (this.mine[line] == 0) return -this.weight[this.theirs[line]];
+        return 0;
+    }
+
+    /**
+     * A stone was placed
+     * @param cell cell of the stone
+     * @param mine true if it belongs to the searching player
+     */
+    void play(int cell, boolean mine) {
+        int[] count = mine ? this.mine : this.theirs;
+        for (int i = 0; i < this.lines.getLineCount(cell); i++) {
+            int line = this.lines.getLine(cell, i);
+            this.score -= this.value(line);
+            count[line]++;
+            this.score += this.value(line);
+        }
+    }
+
+    /**
+     * A stone was taken back
+     * @param cell cell of the stone
+     * @param mine true if it belonged to the searching player
+     */
+    void undo(int cell, boolean mine) {
+        int[] count = mine ? this.mine : this.theirs;
+        for (int i = 0; i < this.lines.getLineCount(cell); i++) {
+            int line = this.lines.getLine(cell, i);
+            this.score -= this.value(line);
+            count[line]--;
+            this.score += this.value(line);
+        }
+    }
+
+    /**
+     * @return score of the position, in [-MAX_SCORE, MAX_SCORE]
+     */
+    int getScore() {
+        return Math.max(-MAX_SCORE, Math.min(MAX_SCORE, this.score));
+    }
+}
@@ -0,0 +1,167 @@
+package tictactoe.ai;
+
+import java.util.Locale;
+
+/**
+ * Class MatchResult
+ * Games of a {@link Tournament} between two entrants on one grid shape, counted for the first entrant.
+ * The score of a game is 1 for a win, 0.5 for a draw and 0 for a loss; its confidence interval is the normal
+ * approximation of the mean score.
+ * @version 1
+ */
+public final class MatchResult {
+    /**
+     * Quantile of the normal law for a 95% confidence interval
+     */
+    static final double Z_95 = 1.96;
+
+    /**
+     * name of the first entrant
+     */
+    private final String first;
+
+    /**
+     * name of the second entrant
+     */
+    private final String second;
+
+    /**
+     * size of the grids played
+     */
+    private final int size;
+
+    /**
+     * dimension of the grids played
+     */
+    private final int dimension;
+
+    /**
+     * games won by the first entrant
+     */
+    private final int wins;
+
+    /**
+     * drawn games
+     */
+    private final int draws;
+
+    /**
+     * games lost by the first entrant
+     */
+    private final int losses;
+
+    /**
+     * @param first name of the first entrant
+     * @param second name of the second entrant
+     * @param size size of the grids played
+     * @param dimension dimension of the grids played
+     * @param wins games won by the first entrant
+     * @param draws drawn games
+     * @param losses games lost by the first entrant
+     */
+    public MatchResult(String first, String second, int size, int dimension, int wins, int draws, int losses) {
+        this.first = first;
+        this.second = second;
+        this.size = size;
+        this.dimension = dimension;
+        this.wins = wins;
+        this.draws = draws;
+        this.losses = losses;
+    }
+
+    /**
+     * @return name of the first entrant
+     */
+    public String getFirst() {
+        return this.first;
+    }
+
+    /**
+     * @return name of the second entrant
+     */
+    public String getSecond() {
+        return this.second;
+    }
+
+    /**
+     * @return size of the grids played
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * @return dimension of the grids played
+     */
+    public int getDimension() {
+        return this.dimension;
+    }
+
+    /**
+     * @return games won by the first entrant
+     */
+    public int getWins() {
+        return this.wins;
+    }
+
+    /**
+     * @return drawn games
+     */
+    public int getDraws() {
+        return this.draws;
+    }
+
+    /**
+     * @return games lost by the first entrant
+     */
+    public int getLosses() {
+        return this.losses;
+    }
+
+    /**
+     * @return number of games
+     */
+    public int getGames() {
+        return this.wins + this.draws + this.losses;
+    }
+
+    /**
+     * @return share of the games won by the first entrant
+     */
+    public double getWinRate() {
+        return this.getGames() == 0 ? 0 : (double) this.wins / this.getGames();
+    }
+
+    /**
+     * @return mean score of the first entrant, from 0 (every game lost) to 1 (every game won)
+     */
+    public double getScore() {
+        return this.getGames() == 0 ? 0 : (this.wins + 0.5 * this.draws) / this.getGames();
+    }
+
+    /**
+     * @return half width of the 95% confidence interval of the score
+     */
+    public double getScoreMargin() {
+        int games = this.getGames();
+        if (games == 0) return 0;
+        double score = this.getScore();
+        double variance = (this.wins + 0.25 * this.draws) / games - score * score;
+        return Z_95 * Math.sqrt(Math.max(0, variance) / games);
+    }
+
+    /**
+     * @return true when the 95% confidence interval of the score excludes 0.5 : one entrant is stronger
+     */
+    public boolean isSignificant() {
+        return Math.abs(this.getScore() - 0.5) > this.getScoreMargin();
+    }
+
+    @Override
+    public String toString() {
+        String shape = this.dimension == 2 ? this.size + "x" + this.size : this.size + "x" + this.size + "x" + this.size;
+        return String.format(Locale.ROOT, "%s vs %s on %s : +%d =%d -%d, score %.3f ± %.3f",
+                this.first, this.second, shape, this.wins, this.draws, this.losses,
+                this.getScore(), this.getScoreMargin());
+    }
+}
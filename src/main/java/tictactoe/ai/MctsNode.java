@@ -0,0 +1,194 @@
+package tictactoe.ai;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Class MctsNode
+ * Position of the tree of a {@link MctsSearch}, reached by one move from its parent.
+ * The children of a node, and their statistics, are only written while holding the lock of the node. The statistics
+ * are volatile so that a node reading its own visits sees the last value written under its parent's lock.
+ * @version 1
+ */
+final class MctsNode {
+    /**
+     * cell played to reach the node, -1 for a root built from a grid
+     */
+    final int move;
+
+    /**
+     * player who played the move, the other one is to move in the node
+     */
+    final char player;
+
+    /**
+     * hash of the grid in the node
+     */
+    final long hash;
+
+    /**
+     * true if the move won the game
+     */
+    final boolean won;
+
+    /**
+     * true if the move filled the grid
+     */
+    final boolean full;
+
+    /**
+     * index in the expansion order of the next cell to try as a child
+     */
+    int next;
+
+    /**
+     * children added so far, the first childCount ones are set
+     */
+    private MctsNode[] children;
+
+    /**
+     * number of children
+     */
+    private int childCount;
+
+    /**
+     * playouts through the node, plus the virtual losses of the playouts in progress
+     */
+    volatile int visits;
+
+    /**
+     * sum of the playout results for the player of the move : 1 won, 0.5 draw, 0 lost
+     */
+    volatile double wins;
+
+    /**
+     * @param move cell played to reach the node, -1 for a root
+     * @param player player who played the move
+     * @param hash hash of the grid in the node
+     * @param won true if the move won the game
+     * @param full true if the move filled the grid
+     */
+    MctsNode(int move, char player, long hash, boolean won, boolean full) {
+        this.move = move;
+        this.player = player;
+        this.hash = hash;
+        this.won = won;
+        this.full = full;
+        this.children = new MctsNode[4];
+    }
+
+    /**
+     * @return true if the game is over in the node
+     */
+    boolean isTerminal() {
+        return this.won || this.full;
+    }
+
+    /**
+     * @param winner winner of a playout, '\0' for a draw
+     * @return result of the playout for the player of the move
+     */
+    double result(char winner) {
+        if (winner == '\0') return 0.5;
+        return winner == this.player ? 1 : 0;
+    }
+
+    /**
+     * @return number of children
+     */
+    int getChildCount() {
+        return this.childCount;
+    }
+
+    /**
+     * @param i index of the child
+     * @return the child
+     */
+    MctsNode getChild(int i) {
+        return this.children[i];
+    }
+
+    /**
+     * Add a child, the lock of the node must be held
+     * @param child the new child
+     */
+    void add(MctsNode child) {
+        if (this.childCount == this.children.length) {
+            this.children = Arrays.copyOf(this.children, this.childCount * 2);
+        }
+        this.children[this.childCount++] = child;
+    }
+
+    /**
+     * Child with the best upper confidence bound, the lock of the node must be held and it must have a child
+     * @return the child to walk through
+     * @see <a href="https://en.wikipedia.org/wiki/Monte_Carlo_tree_search#Exploration_and_exploitation">UCT</a>
+     */
+    MctsNode select() {
+        double logVisits = Math.log(Math.max(1, this.visits));
+        MctsNode best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < this.childCount; i++) {
+            MctsNode child = this.children[i];
+            //a child always has a visit, real or virtual
+            int visits = child.visits;
+            double value = child.wins / visits + MctsSearch.EXPLORATION * Math.sqrt(logVisits / visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return the child with the most playouts, the best result between equal ones, null if none
+     */
+    MctsNode mostVisited() {
+        MctsNode best = null;
+        for (int i = 0; i < this.childCount; i++) {
+            MctsNode child = this.children[i];
+            if (best == null || child.visits > best.visits
+                    || (child.visits == best.visits && child.wins > best.wins)) {
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Look for a position in the node and its descendants, up to a depth
+     * @param hash hash of the grid looked for
+     * @param player player who played last in the position looked for
+     * @param depth maximum distance to the node
+     * @return the node of the position, null if not found
+     */
+    MctsNode find(long hash, char player, int depth) {
+        if (this.hash == hash && this.player == player) return this;
+        if (depth == 0) return null;
+        for (int i = 0; i < this.childCount; i++) {
+            MctsNode found = this.children[i].find(hash, player, depth - 1);
+            if (found != null) return found;
+        }
+        return null;
+    }
+
+    /**
+     * @return number of nodes of the tree below the node, the node included
+     */
+    int count() {
+        int count = 0;
+        //the tree can be as deep as the grid has cells
+        Deque<MctsNode> stack = new ArrayDeque<>();
+        stack.push(this);
+        while (!stack.isEmpty()) {
+            MctsNode node = stack.pop();
+            count++;
+            for (int i = 0; i < node.childCount; i++) {
+                stack.push(node.children[i]);
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,520 @@
+package tictactoe.ai;
+
+import tictactoe.grid.Grid;
+import tictactoe.grid.exceptions.PositionInvalidException;
+import tictactoe.grid.exceptions.PositionUsedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class MctsSearch
+ * Monte Carlo tree search under a time budget : the tree is walked down from the root by UCT until a node with a
+ * cell not tried yet, this cell is added to the tree, the game is finished by random moves and its result is
+ * backed up along the path. The move played is the most visited child of the root.
+ * A playout costs the same on any grid, so unlike {@link MinmaxSearch} the strength degrades slowly on big grids.
+ * Each thread walks the shared tree on its own grid copy ; a node walked through counts as lost until the playout
+ * result is backed up, so the other threads meanwhile explore other paths.
+ * The tree is kept between searches : when the new position is in it, its statistics are reused.
+ * A move winning at once, or the block of such a move of the opponent, is played without search.
+ * While the opponent thinks, {@link MctsSearch#ponder(Grid, char, AtomicBoolean)} grows the tree from its position.
+ * @version 1
+ * @see <a href="https://en.wikipedia.org/wiki/Monte_Carlo_tree_search">Monte Carlo tree search</a>
+ */
+public final class MctsSearch implements Engine {
+    /**
+     * Exploration constant of UCT
+     */
+    static final double EXPLORATION = Math.sqrt(2);
+
+    /**
+     * Visits without win added to a node while a playout goes through it
+     */
+    static final int VIRTUAL_LOSS = 3;
+
+    /**
+     * Maximum number of nodes of the tree, once reached the playouts start from the leaves without adding nodes
+     */
+    static final int MAX_NODES = 1 << 20;
+
+    /**
+     * Number of searching threads
+     */
+    private final int threads;
+
+    /**
+     * Threads of the parallel search, null when single-threaded
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Number of nodes of the tree
+     */
+    private final AtomicInteger nodeCount = new AtomicInteger();
+
+    /**
+     * Playouts of the last search, every thread included
+     */
+    private final AtomicLong playouts = new AtomicLong();
+
+    /**
+     * Seeds of the threads
+     */
+    private final SplittableRandom random;
+
+    /**
+     * Root of the tree, position of the last search
+     */
+    private MctsNode root;
+
+    /**
+     * Order in which the cells of a node are added as children, shuffled once per grid shape
+     */
+    private int[] order;
+
+    /**
+     * Size of the grids of the tree
+     */
+    private int size;
+
+    /**
+     * Dimension of the grids of the tree
+     */
+    private int dimension;
+
+    /**
+     * Player to move at the root, the searching player except when pondering
+     */
+    private char player;
+
+    /**
+     * Other player, who played the move leading to the root
+     */
+    private char opponent;
+
+    /**
+     * Playouts already done from the root when the last search started
+     */
+    private int reusedVisits;
+
+    /**
+     * Mean result of the move chosen by the last search
+     */
+    private double value;
+
+    /**
+     * Told of every search
+     */
+    private final List<SearchListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param threads number of searching threads
+     */
+    public MctsSearch(int threads) {
+        this(threads, new SplittableRandom());
+    }
+
+    /**
+     * On a single thread, the same seed and playout budgets give the same moves
+     * @param threads number of searching threads
+     * @param seed seed of the playouts
+     */
+    public MctsSearch(int threads, long seed) {
+        this(threads, new SplittableRandom(seed));
+    }
+
+    /**
+     * @param threads number of searching threads
+     * @param random seeds of the threads
+     */
+    private MctsSearch(int threads, SplittableRandom random) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Search needs at least 1 thread");
+        this.threads = threads;
+        this.random = random;
+        this.pool = threads > 1 ? new ForkJoinPool(threads) : null;
+    }
+
+    /**
+     * @return number of searching threads
+     */
+    public int getThreads() {
+        return this.threads;
+    }
+
+    /**
+     * @return playouts of the last search, every thread included
+     */
+    public long getPlayouts() {
+        return this.playouts.get();
+    }
+
+    /**
+     * @return number of nodes of the tree
+     */
+    public int getTreeSize() {
+        return this.nodeCount.get();
+    }
+
+    /**
+     * @return playouts reused from the previous searches by the last search
+     */
+    public int getReusedVisits() {
+        return this.reusedVisits;
+    }
+
+    /**
+     * @return mean result of the move chosen by the last search, from 0 (always lost) to 1 (always won),
+     * 1 for a move winning at once and 0.5 for a forced block as they are played without search
+     */
+    public double getValue() {
+        return this.value;
+    }
+
+    @Override
+    public void addListener(SearchListener listener) {
+        this.listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(SearchListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Forget the tree, for a new game
+     */
+    @Override
+    public void clear() {
+        this.root = null;
+        this.nodeCount.set(0);
+    }
+
+    /**
+     * Stop the threads of the parallel search
+     */
+    @Override
+    public void shutdown() {
+        if (this.pool != null) {
+            this.pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Find the best move, the grid is left unchanged
+     * @param grid grid to play on, with at least one empty cell
+     * @param player player to move
+     * @param moveMillis time budget in milliseconds
+     * @return the cell to play
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     */
+    public int search(Grid grid, char player, long moveMillis) throws PositionInvalidException, PositionUsedException {
+        return this.search(grid, player, SearchLimits.ofMillis(moveMillis)).getMove();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The score is the mean result of the move mapped from [0, 1] to [-{@link LineEvaluator#MAX_SCORE},
+     * {@link LineEvaluator#MAX_SCORE}], a move winning at once scores {@link MinmaxSearch#WIN_SCORE}.
+     */
+    @Override
+    public SearchResult search(Grid grid, char player, SearchLimits limits) throws PositionInvalidException, PositionUsedException {
+        long start = System.nanoTime();
+        this.setPlayer(player);
+        this.playouts.set(0);
+        int forced = this.forcedMove(grid);
+        if (forced >= 0) {
+            int score = this.value == 1 ? MinmaxSearch.WIN_SCORE : 0;
+            return this.report(new SearchResult(forced, score, 1, 0, System.nanoTime() - start));
+        }
+        this.prepareRoot(grid);
+        this.runThreads(grid, limits.getDeadline(start), limits.getThreadNodes(this.threads), new AtomicBoolean());
+        MctsNode best = this.root.mostVisited();
+        this.value = best.wins / best.visits;
+        int depth = 0;
+        for (MctsNode node = best; node != null; node = node.mostVisited()) {
+            depth++;
+        }
+        int score = (int) Math.round((2 * this.value - 1) * LineEvaluator.MAX_SCORE);
+        return this.report(new SearchResult(best.move, score, depth, this.playouts.get(), System.nanoTime() - start));
+    }
+
+    /**
+     * @param result result of a search
+     * @return the result, once told to the listeners
+     */
+    private SearchResult report(SearchResult result) {
+        for (SearchListener listener : this.listeners) {
+            listener.searchFinished(result);
+        }
+        return result;
+    }
+
+    /**
+     * Grow the tree on the opponent's time until stopped, from the position where the opponent is to move.
+     * The next search finds the position after the real reply in the tree. The grid is left unchanged.
+     * @param grid grid where the opponent is to move
+     * @param player searching player
+     * @param stop set by another thread to end the pondering
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     */
+    @Override
+    public void ponder(Grid grid, char player, AtomicBoolean stop) throws PositionInvalidException, PositionUsedException {
+        this.setPlayer(Character.toUpperCase(player) == 'X' ? 'O' : 'X');
+        this.playouts.set(0);
+        this.prepareRoot(grid);
+        this.runThreads(grid, Long.MAX_VALUE, Long.MAX_VALUE, stop);
+    }
+
+    /**
+     * @param player player to move at the root
+     */
+    private void setPlayer(char player) {
+        this.player = player;
+        this.opponent = Character.toUpperCase(player) == 'X' ? 'O' : 'X';
+    }
+
+    /**
+     * Set the root on the position of the grid, reusing the tree when the position is in it
+     * @param grid grid searched
+     */
+    private void prepareRoot(Grid grid) {
+        if (this.order == null || this.size != grid.getSize() || this.dimension != grid.getDimension()) {
+            this.size = grid.getSize();
+            this.dimension = grid.getDimension();
+            this.order = this.shuffle(grid.getTotalSize());
+            this.clear();
+        }
+        //the position is usually a grandchild of the last root : our move then the opponent's one,
+        //or a child when the last root was pondered
+        this.root = this.root == null ? null : this.root.find(grid.hash(), this.opponent, 2);
+        if (this.root == null) {
+            this.root = new MctsNode(-1, this.opponent, grid.hash(), false, false);
+            this.nodeCount.set(1);
+        } else {
+            this.nodeCount.set(this.root.count());
+        }
+        this.reusedVisits = this.root.visits;
+    }
+
+    /**
+     * Run playouts on every thread
+     * @param grid grid searched
+     * @param deadline time at which the search must stop, from System.nanoTime()
+     * @param maxPlayouts playouts after which each thread must stop
+     * @param stop set by another thread to stop the search before its deadline
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     */
+    private void runThreads(Grid grid, long deadline, long maxPlayouts, AtomicBoolean stop) throws PositionInvalidException, PositionUsedException {
+        if (this.pool == null) {
+            this.run(grid, deadline, maxPlayouts, stop, this.random.split());
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < this.threads; i++) {
+            //one task searches on the grid itself, which it restores while the calling thread waits
+            Grid own = i == 0 ? grid : grid.copy();
+            SplittableRandom random = this.random.split();
+            tasks.add(() -> {
+                this.run(own, deadline, maxPlayouts, stop, random);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : this.pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof PositionUsedException) throw (PositionUsedException) e.getCause();
+            if (e.getCause() instanceof PositionInvalidException) throw (PositionInvalidException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Look for a move winning at once, else for the only cell stopping the opponent from winning at once.
+     * Random playouts on a big grid rarely complete a line, these moves could be missed by the tree search.
+     * @param grid grid to play on
+     * @return the cell to play, -1 if no move is forced
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     */
+    private int forcedMove(Grid grid) throws PositionInvalidException, PositionUsedException {
+        int block = -1;
+        for (int cell = 0; cell < grid.getTotalSize(); cell++) {
+            if (grid.getValue(cell) != '\0') continue;
+            boolean won = grid.place(cell, this.player);
+            grid.unplace(cell);
+            if (won) {
+                this.value = 1;
+                return cell;
+            }
+            if (block < 0) {
+                boolean lost = grid.place(cell, this.opponent);
+                grid.unplace(cell);
+                if (lost) block = cell;
+            }
+        }
+        if (block >= 0) {
+            this.value = 0.5;
+        }
+        return block;
+    }
+
+    /**
+     * @param cells number of cells
+     * @return the cells in a random order
+     */
+    private int[] shuffle(int cells) {
+        int[] order = new int[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            int i = this.random.nextInt(cell + 1);
+            order[cell] = order[i];
+            order[i] = cell;
+        }
+        return order;
+    }
+
+    /**
+     * Run playouts until the deadline, the playout budget or the stop, at least one
+     * @param grid grid owned by the thread, in the position of the root
+     * @param deadline time at which the search must stop, from System.nanoTime()
+     * @param maxPlayouts playouts after which the thread must stop
+     * @param stop set by another thread to stop the search before its deadline
+     * @param random random generator owned by the thread
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     */
+    private void run(Grid grid, long deadline, long maxPlayouts, AtomicBoolean stop, SplittableRandom random) throws PositionInvalidException, PositionUsedException {
+        MctsNode[] path = new MctsNode[grid.getRemainingCells() + 1];
+        int[] empty = new int[grid.getTotalSize()];
+        int[] played = new int[grid.getRemainingCells()];
+        long playouts = 0;
+        do {
+            this.playout(grid, path, empty, played, random);
+            playouts++;
+        } while (playouts < maxPlayouts && System.nanoTime() < deadline && !stop.get());
+        this.playouts.addAndGet(playouts);
+    }
+
+    /**
+     * One walk down the tree, a random game from the reached node, then the back up of the result.
+     * The grid is restored at the end.
+     * @param grid grid owned by the thread, in the position of the root
+     * @param path buffer of the nodes walked through
+     * @param empty buffer of the empty cells
+     * @param played buffer of the random moves
+     * @param random random generator owned by the thread
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     */
+    private void playout(Grid grid, MctsNode[] path, int[] empty, int[] played, SplittableRandom random) throws PositionInvalidException, PositionUsedException {
+        MctsNode node = this.root;
+        path[0] = node;
+        int depth = 0;
+        boolean expanded = false;
+        //selection, until a node gets a new child
+        while (!expanded && !node.isTerminal()) {
+            MctsNode child;
+            synchronized (node) {
+                int move = this.nextUntried(node, grid);
+                if (move >= 0) {
+                    if (this.nodeCount.get() >= MAX_NODES) break;
+                    this.nodeCount.incrementAndGet();
+                    node.next++;
+                    char toMove = this.other(node.player);
+                    boolean won = grid.place(move, toMove);
+                    child = new MctsNode(move, toMove, grid.hash(), won, grid.getRemainingCells() == 0);
+                    node.add(child);
+                    expanded = true;
+                } else {
+                    child = node.select();
+                    grid.place(child.move, child.player);
+                }
+                child.visits += VIRTUAL_LOSS;
+            }
+            path[++depth] = child;
+            node = child;
+        }
+
+        //simulation
+        char winner = '\0';
+        int playedCount = 0;
+        if (node.won) {
+            winner = node.player;
+        } else if (!node.full) {
+            int count = 0;
+            for (int cell = 0; cell < grid.getTotalSize(); cell++) {
+                if (grid.getValue(cell) == '\0') empty[count++] = cell;
+            }
+            char toMove = this.other(node.player);
+            while (count > 0) {
+                int i = random.nextInt(count);
+                int cell = empty[i];
+                empty[i] = empty[--count];
+                played[playedCount++] = cell;
+                if (grid.place(cell, toMove)) {
+                    winner = toMove;
+                    break;
+                }
+                toMove = this.other(toMove);
+            }
+        }
+
+        //backup, the virtual loss becomes the real result
+        for (int i = depth; i > 0; i--) {
+            MctsNode child = path[i];
+            synchronized (path[i - 1]) {
+                child.visits += 1 - VIRTUAL_LOSS;
+                child.wins += child.result(winner);
+            }
+        }
+        synchronized (this.root) {
+            this.root.visits++;
+        }
+
+        for (int i = playedCount - 1; i >= 0; i--) {
+            grid.unplace(played[i]);
+        }
+        for (int i = depth; i > 0; i--) {
+            grid.unplace(path[i].move);
+        }
+    }
+
+    /**
+     * Next cell of a node not tried yet as a child, the lock of the node must be held
+     * @param node node in the position of the grid
+     * @param grid grid of the thread
+     * @return the cell, -1 if every empty cell is a child
+     */
+    private int nextUntried(MctsNode node, Grid grid) {
+        //cells used in the node stay used, skipping them for good is safe
+        while (node.next < this.order.length && grid.getValue(this.order[node.next]) != '\0') {
+            node.next++;
+        }
+        return node.next < this.order.length ? this.order[node.next] : -1;
+    }
+
+    /**
+     * @param player a player
+     * @return the other player
+     */
+    private char other(char player) {
+        return player == this.player ? this.opponent : this.player;
+    }
+}
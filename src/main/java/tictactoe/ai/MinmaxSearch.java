@@ -0,0 +1,428 @@
+package tictactoe.ai;
+
+import tictactoe.grid.Grid;
+import tictactoe.grid.exceptions.PositionInvalidException;
+import tictactoe.grid.exceptions.PositionUsedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class MinmaxSearch
+ * Iterative deepening alpha-beta search under a time budget : depth 1, 2, 3... are searched until the time runs out,
+ * the move played is the best one of the deepest completed iteration.
+ * With more than one thread, the first root move is searched alone then the other ones are shared between the
+ * threads of a ForkJoinPool, each with its own grid copy and the transposition table in common. A move only
+ * replaces the best one when it beats the value it was searched against, so the best value is the one of the
+ * single-threaded search.
+ * While the opponent thinks, {@link MinmaxSearch#ponder(Grid, char, AtomicBoolean)} searches its likely replies
+ * so the transposition table already holds the next position when it arrives.
+ * @version 1
+ * @see <a href="https://www.chessprogramming.org/Iterative_Deepening">Iterative deepening</a>
+ * @see <a href="https://www.chessprogramming.org/Young_Brothers_Wait_Concept">Young brothers wait</a>
+ */
+public final class MinmaxSearch implements Engine {
+    /**
+     * Score of a won game, a search returning it (or its opposite) does not need to go deeper.
+     * Unfinished positions score strictly between its opposite and it, see {@link LineEvaluator}
+     */
+    public static final int WIN_SCORE = 1 << 30;
+
+    /**
+     * Number of opponent replies searched while pondering
+     */
+    static final int PONDER_REPLIES = 3;
+
+    /**
+     * Time given to each reply in the first pondering round, doubled at each round
+     */
+    static final long PONDER_SLICE_MILLIS = 50;
+
+    /**
+     * Results of the positions already searched, shared by the threads
+     */
+    private final TranspositionTable table;
+
+    /**
+     * Number of searching threads
+     */
+    private final int threads;
+
+    /**
+     * Threads of the parallel search, null when single-threaded
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * One worker per thread, built for the shape of the last searched grid
+     */
+    private SearchWorker[] workers;
+
+    /**
+     * Size of the grids of the workers
+     */
+    private int size;
+
+    /**
+     * Dimension of the grids of the workers
+     */
+    private int dimension;
+
+    /**
+     * Value of the last search, from the searching player's point of view
+     */
+    private int score;
+
+    /**
+     * Depth of the last completed iteration
+     */
+    private int depth;
+
+    /**
+     * Best value of the root moves searched so far by the threads
+     */
+    private int sharedValue;
+
+    /**
+     * Index in the root order of the move of sharedValue
+     */
+    private int sharedIndex;
+
+    /**
+     * Best move of the last parallel iteration
+     */
+    private int parallelMove;
+
+    /**
+     * Told of every search
+     */
+    private final List<SearchListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param tableMegabytes memory budget of the transposition table
+     * @param threads number of searching threads
+     */
+    public MinmaxSearch(int tableMegabytes, int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Search needs at least 1 thread");
+        this.table = new TranspositionTable(tableMegabytes);
+        this.threads = threads;
+        this.pool = threads > 1 ? new ForkJoinPool(threads) : null;
+    }
+
+    /**
+     * @return number of searching threads
+     */
+    public int getThreads() {
+        return this.threads;
+    }
+
+    /**
+     * @return value of the last search : {@link MinmaxSearch#WIN_SCORE} won, minus it lost, in between the
+     * evaluation of the position reached
+     */
+    public int getScore() {
+        return this.score;
+    }
+
+    /**
+     * @return depth of the last completed iteration
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * @return nodes searched by the last search, every thread included
+     */
+    public long getNodes() {
+        long nodes = 0;
+        if (this.workers != null) {
+            for (SearchWorker worker : this.workers) {
+                nodes += worker.getNodes();
+            }
+        }
+        return nodes;
+    }
+
+    @Override
+    public void addListener(SearchListener listener) {
+        this.listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(SearchListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Forget every stored result, scores are stored from the point of view of the searching player
+     * so this is needed when it changes
+     */
+    @Override
+    public void clear() {
+        this.table.clear();
+        if (this.workers != null) {
+            for (SearchWorker worker : this.workers) {
+                worker.clear();
+            }
+        }
+    }
+
+    /**
+     * Stop the threads of the parallel search
+     */
+    @Override
+    public void shutdown() {
+        if (this.pool != null) {
+            this.pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Find the best move, the grid is left unchanged
+     * @param grid grid to play on, with at least one empty cell
+     * @param player player to move
+     * @param moveMillis time budget in milliseconds
+     * @return the cell to play
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     */
+    public int search(Grid grid, char player, long moveMillis) throws PositionInvalidException, PositionUsedException {
+        return this.search(grid, player, SearchLimits.ofMillis(moveMillis)).getMove();
+    }
+
+    @Override
+    public SearchResult search(Grid grid, char player, SearchLimits limits) throws PositionInvalidException, PositionUsedException {
+        long start = System.nanoTime();
+        int move = this.search(grid, player, limits.getDeadline(start), limits.getThreadNodes(this.threads), new AtomicBoolean());
+        long elapsed = System.nanoTime() - start;
+        long expanded = 0;
+        long cutoffs = 0;
+        long probes = 0;
+        long hits = 0;
+        for (SearchWorker worker : this.workers) {
+            expanded += worker.getExpanded();
+            cutoffs += worker.getCutoffs();
+            probes += worker.getProbes();
+            hits += worker.getHits();
+        }
+        return this.report(new SearchResult(move, this.score, this.depth, this.getNodes(), elapsed,
+                expanded, cutoffs, probes, hits));
+    }
+
+    /**
+     * @param result result of a search
+     * @return the result, once told to the listeners
+     */
+    private SearchResult report(SearchResult result) {
+        for (SearchListener listener : this.listeners) {
+            listener.searchFinished(result);
+        }
+        return result;
+    }
+
+    /**
+     * Search on the opponent's time until stopped : its likely replies are searched in turn for a time slice
+     * doubled at each round, the results stay in the transposition table. The grid is left unchanged.
+     * @param grid grid where the opponent is to move
+     * @param player searching player
+     * @param stop set by another thread to end the pondering
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     */
+    @Override
+    public void ponder(Grid grid, char player, AtomicBoolean stop) throws PositionInvalidException, PositionUsedException {
+        char opponent = Character.toUpperCase(player) == 'X' ? 'O' : 'X';
+        int[] replies = this.likelyReplies(grid, opponent);
+        for (long slice = PONDER_SLICE_MILLIS; !stop.get(); slice *= 2) {
+            boolean solved = true;
+            for (int reply : replies) {
+                if (stop.get()) return;
+                if (!grid.place(reply, opponent) && grid.getRemainingCells() > 0) {
+                    this.search(grid, player, System.nanoTime() + slice * 1_000_000, Long.MAX_VALUE, stop);
+                    solved &= Math.abs(this.score) == WIN_SCORE || this.depth == grid.getRemainingCells();
+                }
+                grid.unplace(reply);
+            }
+            //nothing left to learn on these replies
+            if (solved) return;
+        }
+    }
+
+    /**
+     * Replies the opponent most likely plays : the ones the table scores the lowest for the searching player,
+     * then the unknown ones
+     * @param grid grid where the opponent is to move
+     * @param opponent opponent of the searching player
+     * @return up to {@link MinmaxSearch#PONDER_REPLIES} cells
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     */
+    private int[] likelyReplies(Grid grid, char opponent) throws PositionInvalidException, PositionUsedException {
+        int cells = grid.getTotalSize();
+        int[] replies = new int[grid.getRemainingCells()];
+        long[] ranks = new long[replies.length];
+        int count = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (grid.getValue(cell) != '\0') continue;
+            grid.place(cell, opponent);
+            //the searching player is to move after the reply, its positions are stored under the plain hash
+            long entry = this.table.probe(grid.hash());
+            grid.unplace(cell);
+            long rank = entry == TranspositionTable.MISS ? Long.MAX_VALUE : TranspositionTable.getScore(entry);
+            //insertion sort, stable so unknown replies keep the cell order
+            int i = count++;
+            while (i > 0 && ranks[i - 1] > rank) {
+                ranks[i] = ranks[i - 1];
+                replies[i] = replies[i - 1];
+                i--;
+            }
+            ranks[i] = rank;
+            replies[i] = cell;
+        }
+        return Arrays.copyOf(replies, Math.min(count, PONDER_REPLIES));
+    }
+
+    /**
+     * Find the best move, the grid is left unchanged
+     * @param grid grid to play on, with at least one empty cell
+     * @param player player to move
+     * @param deadline time at which the search must stop, from System.nanoTime()
+     * @param maxNodes nodes after which each thread must stop
+     * @param stop set by another thread to stop the search before its deadline
+     * @return the cell to play
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     */
+    private int search(Grid grid, char player, long deadline, long maxNodes, AtomicBoolean stop) throws PositionInvalidException, PositionUsedException {
+        if (this.workers == null || this.size != grid.getSize() || this.dimension != grid.getDimension()) {
+            this.size = grid.getSize();
+            this.dimension = grid.getDimension();
+            this.workers = new SearchWorker[this.threads];
+            for (int i = 0; i < this.threads; i++) {
+                this.workers[i] = new SearchWorker(this.table, this.size, this.dimension);
+            }
+        }
+        this.table.newSearch();
+        //the calling thread searches on the grid itself, which it restores
+        this.workers[0].prepare(grid, player, deadline, maxNodes, stop);
+        for (int i = 1; i < this.threads; i++) {
+            this.workers[i].prepare(grid.copy(), player, deadline, maxNodes, stop);
+        }
+
+        int bestMove = -1;
+        this.depth = 0;
+        this.score = 0;
+        for (int depth = 1; depth <= grid.getRemainingCells(); depth++) {
+            int score;
+            int move;
+            if (this.pool == null || depth == 1) {
+                score = this.workers[0].searchRoot(depth);
+                move = this.workers[0].getBestMove();
+            } else {
+                score = this.searchParallel(depth);
+                move = this.parallelMove;
+            }
+            if (this.isStopped()) break;
+            //every move loses : the best one of the previous iteration loses the latest
+            if (score == -WIN_SCORE && bestMove >= 0) {
+                this.depth = depth;
+                this.score = score;
+                break;
+            }
+            bestMove = move;
+            this.depth = depth;
+            this.score = score;
+            //a won or lost game stays so deeper
+            if (Math.abs(score) == WIN_SCORE) break;
+        }
+        return bestMove;
+    }
+
+    /**
+     * @return true if a thread ran out of time during the last iteration
+     */
+    private boolean isStopped() {
+        for (SearchWorker worker : this.workers) {
+            if (worker.isStopped()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Search an iteration with every thread
+     * @param depth depth of the iteration
+     * @return value of the root, the best move being left in parallelMove
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     */
+    private int searchParallel(int depth) throws PositionInvalidException, PositionUsedException {
+        SearchWorker main = this.workers[0];
+        int[] moves = main.orderRootMoves(depth);
+        //the first move (the best of the previous iteration) gives the value the other moves have to beat
+        this.sharedValue = main.searchMove(moves[0], depth, Integer.MIN_VALUE);
+        this.sharedIndex = 0;
+        if (main.isStopped()) return 0;
+
+        AtomicInteger next = new AtomicInteger(1);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (SearchWorker worker : this.workers) {
+            tasks.add(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < moves.length) {
+                    int alpha = this.getSharedValue();
+                    int value = worker.searchMove(moves[i], depth, alpha);
+                    if (worker.isStopped()) break;
+                    //below alpha the value is only a bound
+                    if (value > alpha) this.offer(value, i);
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : this.pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof PositionUsedException) throw (PositionUsedException) e.getCause();
+            if (e.getCause() instanceof PositionInvalidException) throw (PositionInvalidException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+        this.parallelMove = moves[this.sharedIndex];
+        //an interrupted iteration is discarded by the caller, its value must not be stored as exact
+        if (this.isStopped()) return this.sharedValue;
+        main.storeRoot(depth, this.sharedValue, this.parallelMove);
+        return this.sharedValue;
+    }
+
+    /**
+     * @return best value of the root moves searched so far
+     */
+    private synchronized int getSharedValue() {
+        return this.sharedValue;
+    }
+
+    /**
+     * Propose an exact root move value, the first move in search order wins between equal values
+     * @param value value of the move
+     * @param index index of the move in the root order
+     */
+    private synchronized void offer(int value, int index) {
+        if (value > this.sharedValue || (value == this.sharedValue && index < this.sharedIndex)) {
+            this.sharedValue = value;
+            this.sharedIndex = index;
+        }
+    }
+}
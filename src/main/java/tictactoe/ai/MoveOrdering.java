@@ -0,0 +1,327 @@
+package tictactoe.ai;
+
+import tictactoe.grid.Grid;
+import tictactoe.grid.WinningLines;
+
+import java.util.Arrays;
+
+/**
+ * Class MoveOrdering
+ * Order in which a search tries the empty cells, so that alpha-beta cuts as early as possible :
+ * the transposition table move, then the two killer moves of the ply, then the other cells by history score,
+ * ties being broken by a static order (cells on the most winning lines first, then the closest to the center).
+ * The candidate buffers of a ply are allocated the first time a node of that ply lists its cells, then reused :
+ * the plies never reached by the iterative deepening cost nothing, and ordering a node allocates nothing after.
+ * @version 1
+ * @see <a href="https://www.chessprogramming.org/Move_Ordering">Move ordering</a>
+ */
+public final class MoveOrdering {
+    /**
+     * stage of a node : transposition table move to try
+     */
+    private static final int STAGE_TABLE = 0;
+
+    /**
+     * stage of a node : first killer to try
+     */
+    private static final int STAGE_KILLER_1 = 1;
+
+    /**
+     * stage of a node : second killer to try
+     */
+    private static final int STAGE_KILLER_2 = 2;
+
+    /**
+     * stage of a node : other cells to list
+     */
+    private static final int STAGE_GENERATE = 3;
+
+    /**
+     * stage of a node : other cells listed
+     */
+    private static final int STAGE_OTHERS = 4;
+
+    /**
+     * history scores are halved when one of them reaches this value
+     */
+    private static final int HISTORY_MAX = 1 << 24;
+
+    /**
+     * size of the grid
+     */
+    private final int size;
+
+    /**
+     * dimension of the grid
+     */
+    private final int dimension;
+
+    /**
+     * cells sorted by static interest
+     */
+    private final int[] staticOrder;
+
+    /**
+     * two killer moves per ply, -1 if none
+     */
+    private final int[][] killers;
+
+    /**
+     * history score per side (0 = searching player, 1 = opponent) and cell
+     */
+    private final int[][] history;
+
+    /**
+     * candidate moves per ply, null for a ply not reached yet
+     */
+    private final int[][] moves;
+
+    /**
+     * score of the candidate moves per ply, null for a ply not reached yet
+     */
+    private final int[][] scores;
+
+    /**
+     * per ply, index from which the candidates are already in order (every remaining score is 0)
+     */
+    private final int[] sortedFrom;
+
+    /**
+     * per ply, number of candidates listed
+     */
+    private final int[] count;
+
+    /**
+     * per ply, index of the next candidate
+     */
+    private final int[] index;
+
+    /**
+     * per ply, stage of the node
+     */
+    private final int[] stage;
+
+    /**
+     * per ply, side to move
+     */
+    private final int[] side;
+
+    /**
+     * per ply, move of the transposition table
+     */
+    private final int[] tableMove;
+
+    /**
+     * @param size size of the grid
+     * @param dimension dimension of the grid (2 or 3)
+     */
+    public MoveOrdering(int size, int dimension) {
+        this.size = size;
+        this.dimension = dimension;
+        WinningLines lines = WinningLines.of(size, dimension);
+        int cells = dimension == 2 ? size * size : size * size * size;
+
+        //insertion sort, done once per game
+        this.staticOrder = new int[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            int i = cell;
+            while (i > 0 && compareStatic(lines, cell, this.staticOrder[i - 1]) < 0) {
+                this.staticOrder[i] = this.staticOrder[i - 1];
+                i--;
+            }
+            this.staticOrder[i] = cell;
+        }
+
+        this.killers = new int[cells + 1][2];
+        this.history = new int[2][cells];
+        this.moves = new int[cells + 1][];
+        this.scores = new int[cells + 1][];
+        this.sortedFrom = new int[cells + 1];
+        this.count = new int[cells + 1];
+        this.index = new int[cells + 1];
+        this.stage = new int[cells + 1];
+        this.side = new int[cells + 1];
+        this.tableMove = new int[cells + 1];
+        this.clear();
+    }
+
+    /**
+     * @param lines winning lines of the shape
+     * @param a cell
+     * @param b cell
+     * @return negative if a should be tried before b
+     */
+    private int compareStatic(WinningLines lines, int a, int b) {
+        if (lines.getLineCount(a) != lines.getLineCount(b))
+            return lines.getLineCount(b) - lines.getLineCount(a);
+        if (distanceToCenter(a) != distanceToCenter(b))
+            return distanceToCenter(a) - distanceToCenter(b);
+        return a - b;
+    }
+
+    /**
+     * @param cell cell index
+     * @return squared distance to the center of the grid, doubled on each axis to stay an integer
+     */
+    private int distanceToCenter(int cell) {
+        int distance = 0;
+        for (int axis = 0; axis < this.dimension; axis++) {
+            int d = 2 * (cell % this.size) - (this.size - 1);
+            distance += d * d;
+            cell /= this.size;
+        }
+        return distance;
+    }
+
+    /**
+     * Forget killers and history, for a new game
+     */
+    public void clear() {
+        for (int[] killer : this.killers) {
+            killer[0] = -1;
+            killer[1] = -1;
+        }
+        for (int[] side : this.history) {
+            Arrays.fill(side, 0);
+        }
+    }
+
+    /**
+     * Start a new search : killers refer to other plies, old history counts less
+     */
+    public void newSearch() {
+        for (int[] killer : this.killers) {
+            killer[0] = -1;
+            killer[1] = -1;
+        }
+        for (int[] side : this.history) {
+            for (int cell = 0; cell < side.length; cell++) {
+                side[cell] >>= 2;
+            }
+        }
+    }
+
+    /**
+     * Start ordering the moves of a node
+     * @param ply distance to the root
+     * @param side 0 if the searching player is to move, 1 for the opponent
+     * @param tableMove move stored in the transposition table, -1 if none
+     */
+    public void start(int ply, int side, int tableMove) {
+        this.stage[ply] = STAGE_TABLE;
+        this.side[ply] = side;
+        this.tableMove[ply] = tableMove;
+    }
+
+    /**
+     * Next move to try. The cells are only listed and scored once the table move and the killers are tried,
+     * most nodes are cut before. A stage giving no move falls through to the next one.
+     * @param grid grid of the node
+     * @param ply distance to the root
+     * @return the next empty cell, -1 when every cell was returned
+     */
+    @SuppressWarnings("fallthrough")
+    public int next(Grid grid, int ply) {
+        int[] killer = this.killers[ply];
+        int tableMove = this.tableMove[ply];
+        switch (this.stage[ply]) {
+            case STAGE_TABLE:
+                this.stage[ply] = STAGE_KILLER_1;
+                if (tableMove >= 0 && grid.getValue(tableMove) == '\0') return tableMove;
+                //fall through
+            case STAGE_KILLER_1:
+                this.stage[ply] = STAGE_KILLER_2;
+                if (killer[0] >= 0 && killer[0] != tableMove && grid.getValue(killer[0]) == '\0') return killer[0];
+                //fall through
+            case STAGE_KILLER_2:
+                this.stage[ply] = STAGE_GENERATE;
+                if (killer[1] >= 0 && killer[1] != tableMove && grid.getValue(killer[1]) == '\0') return killer[1];
+                //fall through
+            case STAGE_GENERATE:
+                this.stage[ply] = STAGE_OTHERS;
+                this.generate(grid, ply);
+                //fall through
+            default:
+                return this.select(ply);
+        }
+    }
+
+    /**
+     * List and score the empty cells not tried yet
+     * @param grid grid of the node
+     * @param ply distance to the root
+     */
+    private void generate(Grid grid, int ply) {
+        if (this.moves[ply] == null) {
+            this.moves[ply] = new int[this.staticOrder.length];
+            this.scores[ply] = new int[this.staticOrder.length];
+        }
+        int[] moves = this.moves[ply];
+        int[] scores = this.scores[ply];
+        int[] killer = this.killers[ply];
+        int[] history = this.history[this.side[ply]];
+        int tableMove = this.tableMove[ply];
+        int count = 0;
+        int sortedFrom = -1;
+        for (int cell : this.staticOrder) {
+            if (grid.getValue(cell) != '\0' || cell == tableMove || cell == killer[0] || cell == killer[1]) continue;
+            moves[count] = cell;
+            scores[count] = history[cell];
+            if (scores[count] != 0) sortedFrom = count;
+            count++;
+        }
+        this.count[ply] = count;
+        this.index[ply] = 0;
+        //past the last scored cell, the static order is the final order
+        this.sortedFrom[ply] = sortedFrom + 1;
+    }
+
+    /**
+     * Selection sort step : move the best remaining candidate at the current index
+     * @param ply distance to the root
+     * @return the move to try, -1 if none left
+     */
+    private int select(int ply) {
+        int i = this.index[ply]++;
+        int count = this.count[ply];
+        int[] moves = this.moves[ply];
+        if (i >= count) return -1;
+        if (i >= this.sortedFrom[ply]) return moves[i];
+        int[] scores = this.scores[ply];
+        int best = i;
+        for (int j = i + 1; j < this.sortedFrom[ply]; j++) {
+            //strictly greater keeps the static order between equal scores
+            if (scores[j] > scores[best]) best = j;
+        }
+        int move = moves[best];
+        int score = scores[best];
+        //shift instead of swap so the remaining moves keep their static order
+        System.arraycopy(moves, i, moves, i + 1, best - i);
+        System.arraycopy(scores, i, scores, i + 1, best - i);
+        moves[i] = move;
+        scores[i] = score;
+        return move;
+    }
+
+    /**
+     * Record a move which caused a beta cut
+     * @param ply distance to the root
+     * @param side 0 if the searching player is to move, 1 for the opponent
+     * @param move the move
+     * @param depth remaining depth of the node
+     */
+    public void cutoff(int ply, int side, int move, int depth) {
+        int[] killer = this.killers[ply];
+        if (killer[0] != move) {
+            killer[1] = killer[0];
+            killer[0] = move;
+        }
+        int[] history = this.history[side];
+        history[move] += depth * depth;
+        if (history[move] >= HISTORY_MAX) {
+            for (int cell = 0; cell < history.length; cell++) {
+                history[cell] >>= 1;
+            }
+        }
+    }
+}
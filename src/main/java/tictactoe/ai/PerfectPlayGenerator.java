@@ -0,0 +1,249 @@
+package tictactoe.ai;
+
+import tictactoe.grid.Grid;
+import tictactoe.grid.Symmetry;
+import tictactoe.grid.exceptions.PositionInvalidException;
+import tictactoe.grid.exceptions.PositionUsedException;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class PerfectPlayGenerator
+ * Offline solver writing the {@link PerfectPlayTable} files of the small grids. Every position is solved by
+ * {@link MinmaxSearch} to the end of the game, the time budget is only a safety net. Symmetric positions are
+ * solved once, for their canonical position.
+ * On 3x3 every reachable position is solved. On 3x3x3 there are too many of them, but the first player wins
+ * quickly : for each player, only the positions reached while it follows the table are solved, against every reply.
+ * Run it once with the table directory as optional argument, the default being {@link PerfectPlayTable#getDirectory()}.
+ * @version 1
+ */
+public final class PerfectPlayGenerator {
+    /**
+     * Time budget of the solve of one position, never reached on the small grids
+     */
+    private static final long SOLVE_MILLIS = 60_000;
+
+    /**
+     * size of the grids solved
+     */
+    private final int size;
+
+    /**
+     * dimension of the grids solved
+     */
+    private final int dimension;
+
+    /**
+     * true to solve every reachable position, false for the ones of a player following the table
+     */
+    private final boolean everyPosition;
+
+    /**
+     * solver of the positions
+     */
+    private final MinmaxSearch search;
+
+    /**
+     * best move on the canonical position, by canonical position key
+     */
+    private final Map<Long, Byte> moves = new HashMap<>();
+
+    /**
+     * @param size size of the grids solved
+     * @param dimension dimension of the grids solved
+     * @param everyPosition true to solve every reachable position, false for the ones of a player following
+     *                      the table
+     */
+    public PerfectPlayGenerator(int size, int dimension, boolean everyPosition) {
+        if ((dimension == 2 ? size * size : size * size * size) > 32)
+            throw new IllegalArgumentException("Perfect play tables hold grids of 32 cells at most");
+        this.size = size;
+        this.dimension = dimension;
+        this.everyPosition = everyPosition;
+        this.search = new MinmaxSearch(64, 1);
+    }
+
+    /**
+     * @return number of positions solved
+     */
+    public int getCount() {
+        return this.moves.size();
+    }
+
+    /**
+     * Solve the positions
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     */
+    public void generate() throws PositionInvalidException, PositionUsedException {
+        Grid grid = Grid.create(this.size, this.dimension);
+        if (!this.everyPosition) {
+            this.search.clear();
+            this.follow(grid, 'X', 'X', new HashSet<>());
+            this.search.clear();
+            this.follow(grid, 'X', 'O', new HashSet<>());
+            return;
+        }
+        List<Long> xPositions = new ArrayList<>();
+        List<Long> oPositions = new ArrayList<>();
+        this.collect(grid, 'X', new HashSet<>(), xPositions, oPositions);
+        //the grids built from the keys are the canonical positions, the moves found are on them.
+        //the transposition table holds scores of one player, it is cleared between the two
+        this.search.clear();
+        for (long key : xPositions) {
+            this.moves.put(key, (byte) this.solve(this.fromKey(key), 'X'));
+        }
+        this.search.clear();
+        for (long key : oPositions) {
+            this.moves.put(key, (byte) this.solve(this.fromKey(key), 'O'));
+        }
+    }
+
+    /**
+     * List the canonical keys of the unfinished positions reachable from a grid
+     * @param grid grid, restored on return
+     * @param player player to move
+     * @param seen keys of the positions already listed
+     * @param xPositions positions where X is to move
+     * @param oPositions positions where O is to move
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     */
+    private void collect(Grid grid, char player, Set<Long> seen, List<Long> xPositions, List<Long> oPositions) throws PositionInvalidException, PositionUsedException {
+        long key = PerfectPlayTable.key(grid, Symmetry.canonical(grid));
+        if (!seen.add(key)) return;
+        (player == 'X' ? xPositions : oPositions).add(key);
+        for (int cell = 0; cell < grid.getTotalSize(); cell++) {
+            if (grid.getValue(cell) != '\0') continue;
+            boolean won = grid.place(cell, player);
+            if (!won && grid.getRemainingCells() > 0) {
+                this.collect(grid, player == 'X' ? 'O' : 'X', seen, xPositions, oPositions);
+            }
+            grid.unplace(cell);
+        }
+    }
+
+    /**
+     * Solve the positions of a player playing the table moves, against every reply
+     * @param grid grid, restored on return
+     * @param toMove player to move
+     * @param side player following the table
+     * @param seen keys of the positions already visited
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     */
+    private void follow(Grid grid, char toMove, char side, Set<Long> seen) throws PositionInvalidException, PositionUsedException {
+        Symmetry symmetry = Symmetry.canonical(grid);
+        long key = PerfectPlayTable.key(grid, symmetry);
+        if (!seen.add(key)) return;
+        char other = toMove == 'X' ? 'O' : 'X';
+        if (toMove == side) {
+            int move = this.solve(grid, side);
+            this.moves.put(key, (byte) symmetry.apply(move));
+            if (!grid.place(move, side) && grid.getRemainingCells() > 0) {
+                this.follow(grid, other, side, seen);
+            }
+            grid.unplace(move);
+            return;
+        }
+        for (int reply = 0; reply < grid.getTotalSize(); reply++) {
+            if (grid.getValue(reply) != '\0') continue;
+            if (!grid.place(reply, toMove) && grid.getRemainingCells() > 0) {
+                this.follow(grid, other, side, seen);
+            }
+            grid.unplace(reply);
+        }
+    }
+
+    /**
+     * @param grid unfinished position
+     * @param player player to move
+     * @return the best move, found by a search to the end of the game
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     */
+    private int solve(Grid grid, char player) throws PositionInvalidException, PositionUsedException {
+        int move = this.search.search(grid, player, SOLVE_MILLIS);
+        //the search stops early only on a won or lost game, or when out of time
+        if (this.search.getDepth() < grid.getRemainingCells() && Math.abs(this.search.getScore()) != MinmaxSearch.WIN_SCORE)
+            throw new IllegalStateException("Position not solved in time : " + PerfectPlayTable.key(grid));
+        return move;
+    }
+
+    /**
+     * @param key key of a position, see {@link PerfectPlayTable#key(Grid, Symmetry)}
+     * @return a grid holding the position
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     */
+    private Grid fromKey(long key) throws PositionInvalidException, PositionUsedException {
+        Grid grid = Grid.create(this.size, this.dimension);
+        int cells = grid.getTotalSize();
+        for (int cell = 0; cell < cells; cell++) {
+            if ((key >>> cell & 1) != 0) grid.place(cell, 'X');
+            else if ((key >>> (cells + cell) & 1) != 0) grid.place(cell, 'O');
+        }
+        return grid;
+    }
+
+    /**
+     * Write the table file
+     * @param file file to write
+     * @throws IOException
+     */
+    public void write(Path file) throws IOException {
+        long[] keys = new long[this.moves.size()];
+        int i = 0;
+        for (long key : this.moves.keySet()) {
+            keys[i++] = key;
+        }
+        Arrays.sort(keys);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(PerfectPlayTable.MAGIC);
+            out.writeInt(PerfectPlayTable.VERSION);
+            out.writeInt(this.size);
+            out.writeInt(this.dimension);
+            out.writeInt(keys.length);
+            for (long key : keys) {
+                out.writeLong(key);
+            }
+            for (long key : keys) {
+                out.writeByte(this.moves.get(key));
+            }
+        }
+    }
+
+    /**
+     * Write the tables of 3x3 and 3x3x3
+     * @param args optional directory of the tables
+     * @throws Exception
+     */
+    public static void main(String[] args) throws Exception {
+        Path directory = args.length > 0 ? Paths.get(args[0]) : PerfectPlayTable.getDirectory();
+        Files.createDirectories(directory);
+        PerfectPlayGenerator[] generators = {
+                new PerfectPlayGenerator(3, 2, true),
+                new PerfectPlayGenerator(3, 3, false)
+        };
+        for (PerfectPlayGenerator generator : generators) {
+            long start = System.currentTimeMillis();
+            generator.generate();
+            Path file = directory.resolve(PerfectPlayTable.getFileName(generator.size, generator.dimension));
+            generator.write(file);
+            System.out.println(file + " : " + generator.getCount() + " positions in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package tictactoe.ai;
+
+import tictactoe.grid.Grid;
+import tictactoe.grid.Symmetry;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class PerfectPlayTable
+ * Best move of the solved positions of a small grid, read from a file written by {@link PerfectPlayGenerator}.
+ * The file is memory-mapped : a lookup is a binary search on the sorted keys, no search and nothing loaded.
+ * A position is stored once for all its symmetric ones, by the key of its canonical position (see {@link Symmetry})
+ * with the move on that position.
+ * File layout (big-endian) : magic, version, size, dimension, count as ints, then the count keys sorted as longs,
+ * then the count moves as bytes.
+ * @version 1
+ */
+public final class PerfectPlayTable {
+    /**
+     * First int of a table file
+     */
+    static final int MAGIC = 0x54545450;
+
+    /**
+     * Version of the file layout
+     */
+    static final int VERSION = 2;
+
+    /**
+     * Bytes before the keys
+     */
+    static final int HEADER_BYTES = 20;
+
+    /**
+     * Tables already opened, empty when there is no file for the shape
+     */
+    private static final Map<Integer, Optional<PerfectPlayTable>> TABLES = new ConcurrentHashMap<>();
+
+    /**
+     * size of the grids of the table
+     */
+    private final int size;
+
+    /**
+     * dimension of the grids of the table
+     */
+    private final int dimension;
+
+    /**
+     * number of positions
+     */
+    private final int count;
+
+    /**
+     * content of the file
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * Map a table file
+     * @param file the table file
+     * @throws IOException if the file can not be read or is not a table
+     */
+    public PerfectPlayTable(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            //the mapping stays valid once the channel is closed
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (this.buffer.capacity() < HEADER_BYTES || this.buffer.getInt(0) != MAGIC || this.buffer.getInt(4) != VERSION)
+            throw new IOException("Not a perfect play table : " + file);
+        this.size = this.buffer.getInt(8);
+        this.dimension = this.buffer.getInt(12);
+        this.count = this.buffer.getInt(16);
+        if (this.buffer.capacity() != HEADER_BYTES + 9L * this.count)
+            throw new IOException("Truncated perfect play table : " + file);
+    }
+
+    /**
+     * @return directory of the table files, the one of the saved games
+     */
+    public static Path getDirectory() {
+        if (System.getProperty("os.name").toUpperCase().contains("WIN")) {
+            return Paths.get(System.getenv("APPDATA"), "TicTacToe");
+        }
+        return Paths.get(System.getenv("HOME"), ".tictactoe");
+    }
+
+    /**
+     * @param size size of the grid
+     * @param dimension dimension of the grid (2 or 3)
+     * @return name of the table file of the shape
+     */
+    public static String getFileName(int size, int dimension) {
+        return "perfect-" + size + "-" + dimension + ".bin";
+    }
+
+    /**
+     * Table of a shape, from the table directory. The result is kept, the file is only looked for once.
+     * @param size size of the grid
+     * @param dimension dimension of the grid (2 or 3)
+     * @return the table, null if there is no readable table file for the shape
+     */
+    public static PerfectPlayTable of(int size, int dimension) {
+        return TABLES.computeIfAbsent(size * 4 + dimension, shape -> {
+            Path file = getDirectory().resolve(getFileName(size, dimension));
+            if (!Files.isRegularFile(file)) return Optional.empty();
+            try {
+                PerfectPlayTable table = new PerfectPlayTable(file);
+                if (table.size != size || table.dimension != dimension) return Optional.empty();
+                return Optional.of(table);
+            } catch (IOException e) {
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+
+    /**
+     * Key of a position : bit c set for a stone of X on cell c, bit cells + c for a stone of O
+     * @param grid a grid with at most 32 cells
+     * @return the key of its position
+     */
+    public static long key(Grid grid) {
+        int cells = grid.getTotalSize();
+        long key = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            char value = Character.toUpperCase(grid.getValue(cell));
+            if (value == 'X') key |= 1L << cell;
+            else if (value == 'O') key |= 1L << (cells + cell);
+        }
+        return key;
+    }
+
+    /**
+     * Key of the image of a position
+     * @param grid a grid with at most 32 cells
+     * @param symmetry transform of the grid
+     * @return the key of the transformed position
+     */
+    public static long key(Grid grid, Symmetry symmetry) {
+        int cells = grid.getTotalSize();
+        long key = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            char value = Character.toUpperCase(grid.getValue(cell));
+            if (value == 'X') key |= 1L << symmetry.apply(cell);
+            else if (value == 'O') key |= 1L << (cells + symmetry.apply(cell));
+        }
+        return key;
+    }
+
+    /**
+     * @param grid grid of a game started by X
+     * @return player to move, X when both players have as many stones
+     */
+    static char toMove(Grid grid) {
+        long key = key(grid);
+        int cells = grid.getTotalSize();
+        int x = Long.bitCount(key & ((1L << cells) - 1));
+        int o = Long.bitCount(key >>> cells);
+        return x == o ? 'X' : 'O';
+    }
+
+    /**
+     * @return number of positions of the table
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Best move of a position
+     * @param grid grid of the shape of the table
+     * @param player player to move
+     * @return the cell to play, -1 if the position is not in the table
+     */
+    public int getMove(Grid grid, char player) {
+        if (grid.getSize() != this.size || grid.getDimension() != this.dimension) return -1;
+        //a table position implies who is to move
+        if (toMove(grid) != Character.toUpperCase(player)) return -1;
+        Symmetry symmetry = Symmetry.canonical(grid);
+        int i = this.indexOf(key(grid, symmetry));
+        return i < 0 ? -1 : symmetry.revert(this.buffer.get(HEADER_BYTES + 8 * this.count + i));
+    }
+
+    /**
+     * @param key key of a position
+     * @return index of the key, -1 if not found
+     */
+    private int indexOf(long key) {
+        int low = 0;
+        int high = this.count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long value = this.buffer.getLong(HEADER_BYTES + 8 * middle);
+            if (value < key) low = middle + 1;
+            else if (value > key) high = middle - 1;
+            else return middle;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,69 @@
+package tictactoe.ai;
+
+/**
+ * Class SearchLimits
+ * When an {@link Engine} has to stop searching : a time budget and, for reproducible runs, a node budget.
+ * The search stops at the first limit reached.
+ * @version 1
+ */
+public final class SearchLimits {
+    /**
+     * time budget in milliseconds
+     */
+    private final long moveMillis;
+
+    /**
+     * node budget, every thread included, 0 for none
+     */
+    private final long maxNodes;
+
+    /**
+     * @param moveMillis time budget in milliseconds
+     * @param maxNodes node budget, every thread included, 0 for none. Nodes are the searched positions for
+     *                 {@link MinmaxSearch} and the playouts for {@link MctsSearch}
+     */
+    public SearchLimits(long moveMillis, long maxNodes) {
+        if (moveMillis < 0 || maxNodes < 0)
+            throw new IllegalArgumentException("Search limits can not be negative");
+        this.moveMillis = moveMillis;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * @param moveMillis time budget in milliseconds
+     * @return limits with only a time budget
+     */
+    public static SearchLimits ofMillis(long moveMillis) {
+        return new SearchLimits(moveMillis, 0);
+    }
+
+    /**
+     * @return time budget in milliseconds
+     */
+    public long getMoveMillis() {
+        return this.moveMillis;
+    }
+
+    /**
+     * @return node budget, 0 for none
+     */
+    public long getMaxNodes() {
+        return this.maxNodes;
+    }
+
+    /**
+     * @param threads number of searching threads
+     * @return node budget of each thread, Long.MAX_VALUE for none
+     */
+    long getThreadNodes(int threads) {
+        return this.maxNodes == 0 ? Long.MAX_VALUE : Math.max(1, this.maxNodes / threads);
+    }
+
+    /**
+     * @param start start of the search, from System.nanoTime()
+     * @return time at which the search must stop, from System.nanoTime()
+     */
+    long getDeadline(long start) {
+        return start + this.moveMillis * 1_000_000;
+    }
+}
@@ -0,0 +1,16 @@
+package tictactoe.ai;
+
+/**
+ * interface SearchListener
+ * Told of every search of an {@link Engine} it is added to, see {@link Engine#addListener(SearchListener)}.
+ * It is called by the searching thread once the move is found, so it must return quickly.
+ * @version 1
+ */
+@FunctionalInterface
+public interface SearchListener {
+    /**
+     * A search is over
+     * @param result the move found with the statistics of the search
+     */
+    public void searchFinished(SearchResult result);
+}
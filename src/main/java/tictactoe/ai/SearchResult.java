@@ -0,0 +1,183 @@
+package tictactoe.ai;
+
+/**
+ * Class SearchResult
+ * Outcome of the search of a move by an {@link Engine}, with the statistics telling how it was found
+ * @version 1
+ */
+public final class SearchResult {
+    /**
+     * cell to play
+     */
+    private final int move;
+
+    /**
+     * score of the move for the searching player
+     */
+    private final int score;
+
+    /**
+     * depth reached
+     */
+    private final int depth;
+
+    /**
+     * nodes searched, every thread included
+     */
+    private final long nodes;
+
+    /**
+     * duration of the search in nanoseconds
+     */
+    private final long elapsedNanos;
+
+    /**
+     * nodes whose moves were searched, the other ones being leaves or answered by the table
+     */
+    private final long expandedNodes;
+
+    /**
+     * expanded nodes left before their last move by a beta cutoff
+     */
+    private final long cutoffs;
+
+    /**
+     * transposition table lookups
+     */
+    private final long tableProbes;
+
+    /**
+     * transposition table lookups finding the position
+     */
+    private final long tableHits;
+
+    /**
+     * @param move cell to play
+     * @param score score of the move for the searching player
+     * @param depth depth reached
+     * @param nodes nodes searched, every thread included
+     * @param elapsedNanos duration of the search in nanoseconds
+     */
+    public SearchResult(int move, int score, int depth, long nodes, long elapsedNanos) {
+        this(move, score, depth, nodes, elapsedNanos, 0, 0, 0, 0);
+    }
+
+    /**
+     * @param move cell to play
+     * @param score score of the move for the searching player
+     * @param depth depth reached
+     * @param nodes nodes searched, every thread included
+     * @param elapsedNanos duration of the search in nanoseconds
+     * @param expandedNodes nodes whose moves were searched
+     * @param cutoffs expanded nodes left by a beta cutoff
+     * @param tableProbes transposition table lookups
+     * @param tableHits transposition table lookups finding the position
+     */
+    public SearchResult(int move, int score, int depth, long nodes, long elapsedNanos,
+                        long expandedNodes, long cutoffs, long tableProbes, long tableHits) {
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+        this.expandedNodes = expandedNodes;
+        this.cutoffs = cutoffs;
+        this.tableProbes = tableProbes;
+        this.tableHits = tableHits;
+    }
+
+    /**
+     * @return cell to play
+     */
+    public int getMove() {
+        return this.move;
+    }
+
+    /**
+     * @return score of the move for the searching player : {@link MinmaxSearch#WIN_SCORE} won, minus it lost,
+     * 0 balanced
+     */
+    public int getScore() {
+        return this.score;
+    }
+
+    /**
+     * @return depth reached : last completed iteration of {@link MinmaxSearch}, length of the most visited line
+     * of {@link MctsSearch}
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * @return nodes searched, positions for {@link MinmaxSearch} and playouts for {@link MctsSearch}
+     */
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * @return duration of the search in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    /**
+     * @return nodes whose moves were searched, 0 for engines without cutoffs
+     */
+    public long getExpandedNodes() {
+        return this.expandedNodes;
+    }
+
+    /**
+     * @return expanded nodes left by a beta cutoff
+     */
+    public long getCutoffs() {
+        return this.cutoffs;
+    }
+
+    /**
+     * @return transposition table lookups, 0 for engines without table
+     */
+    public long getTableProbes() {
+        return this.tableProbes;
+    }
+
+    /**
+     * @return transposition table lookups finding the position
+     */
+    public long getTableHits() {
+        return this.tableHits;
+    }
+
+    /**
+     * @return nodes searched per second
+     */
+    public double getNodesPerSecond() {
+        return this.elapsedNanos == 0 ? 0 : this.nodes * 1e9 / this.elapsedNanos;
+    }
+
+    /**
+     * @return share of the expanded nodes left by a beta cutoff, from 0 to 1
+     */
+    public double getCutoffRate() {
+        return this.expandedNodes == 0 ? 0 : (double) this.cutoffs / this.expandedNodes;
+    }
+
+    /**
+     * @return share of the transposition table lookups finding the position, from 0 to 1
+     */
+    public double getTableHitRate() {
+        return this.tableProbes == 0 ? 0 : (double) this.tableHits / this.tableProbes;
+    }
+
+    /**
+     * @return effective branching factor : the number of moves per node a uniform tree of the depth reached
+     * would have to hold the nodes searched
+     * @see <a href="https://www.chessprogramming.org/Branching_Factor">Branching factor</a>
+     */
+    public double getBranchingFactor() {
+        return this.depth == 0 ? 0 : Math.pow(this.nodes, 1.0 / this.depth);
+    }
+}
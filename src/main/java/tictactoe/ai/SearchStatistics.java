@@ -0,0 +1,191 @@
+package tictactoe.ai;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Class SearchStatistics
+ * Listener summing the statistics of the searches of an engine, readable from the code or, once registered,
+ * through JMX under the name "tictactoe:type=SearchStatistics,name=..."
+ * @version 1
+ */
+public final class SearchStatistics implements SearchListener, SearchStatisticsMXBean {
+    /**
+     * Domain of the JMX names
+     */
+    static final String JMX_DOMAIN = "tictactoe";
+
+    /**
+     * number of searches
+     */
+    private long searches;
+
+    /**
+     * nodes of every search
+     */
+    private long nodes;
+
+    /**
+     * duration of every search in nanoseconds
+     */
+    private long elapsedNanos;
+
+    /**
+     * expanded nodes of every search
+     */
+    private long expandedNodes;
+
+    /**
+     * cutoffs of every search
+     */
+    private long cutoffs;
+
+    /**
+     * table lookups of every search
+     */
+    private long tableProbes;
+
+    /**
+     * table lookups finding the position in every search
+     */
+    private long tableHits;
+
+    /**
+     * last search, null if none
+     */
+    private SearchResult last;
+
+    /**
+     * name under which it is registered, null if it is not
+     */
+    private ObjectName name;
+
+    @Override
+    public synchronized void searchFinished(SearchResult result) {
+        this.searches++;
+        this.nodes += result.getNodes();
+        this.elapsedNanos += result.getElapsedNanos();
+        this.expandedNodes += result.getExpandedNodes();
+        this.cutoffs += result.getCutoffs();
+        this.tableProbes += result.getTableProbes();
+        this.tableHits += result.getTableHits();
+        this.last = result;
+    }
+
+    /**
+     * @return last search, null if none
+     */
+    public synchronized SearchResult getLast() {
+        return this.last;
+    }
+
+    @Override
+    public synchronized long getSearches() {
+        return this.searches;
+    }
+
+    @Override
+    public synchronized long getTotalNodes() {
+        return this.nodes;
+    }
+
+    @Override
+    public synchronized double getAverageNodesPerSecond() {
+        return this.elapsedNanos == 0 ? 0 : this.nodes * 1e9 / this.elapsedNanos;
+    }
+
+    @Override
+    public synchronized double getAverageCutoffRate() {
+        return this.expandedNodes == 0 ? 0 : (double) this.cutoffs / this.expandedNodes;
+    }
+
+    @Override
+    public synchronized double getAverageTableHitRate() {
+        return this.tableProbes == 0 ? 0 : (double) this.tableHits / this.tableProbes;
+    }
+
+    @Override
+    public synchronized int getLastMove() {
+        return this.last == null ? -1 : this.last.getMove();
+    }
+
+    @Override
+    public synchronized long getLastNodes() {
+        return this.last == null ? 0 : this.last.getNodes();
+    }
+
+    @Override
+    public synchronized double getLastNodesPerSecond() {
+        return this.last == null ? 0 : this.last.getNodesPerSecond();
+    }
+
+    @Override
+    public synchronized int getLastDepth() {
+        return this.last == null ? 0 : this.last.getDepth();
+    }
+
+    @Override
+    public synchronized double getLastMillis() {
+        return this.last == null ? 0 : this.last.getElapsedNanos() / 1e6;
+    }
+
+    @Override
+    public synchronized double getLastCutoffRate() {
+        return this.last == null ? 0 : this.last.getCutoffRate();
+    }
+
+    @Override
+    public synchronized double getLastTableHitRate() {
+        return this.last == null ? 0 : this.last.getTableHitRate();
+    }
+
+    @Override
+    public synchronized double getLastBranchingFactor() {
+        return this.last == null ? 0 : this.last.getBranchingFactor();
+    }
+
+    @Override
+    public synchronized void reset() {
+        this.searches = 0;
+        this.nodes = 0;
+        this.elapsedNanos = 0;
+        this.expandedNodes = 0;
+        this.cutoffs = 0;
+        this.tableProbes = 0;
+        this.tableHits = 0;
+        this.last = null;
+    }
+
+    /**
+     * Show the statistics through JMX
+     * @param name value of the name key, unique among the registered statistics
+     * @throws JMException if the name is invalid or already used
+     */
+    public synchronized void register(String name) throws JMException {
+        if (this.name != null)
+            throw new IllegalStateException("Statistics already registered as " + this.name);
+        ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=SearchStatistics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        this.name = objectName;
+    }
+
+    /**
+     * Stop showing the statistics through JMX, nothing if they are not registered
+     * @throws JMException
+     */
+    public synchronized void unregister() throws JMException {
+        if (this.name == null) return;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(this.name)) server.unregisterMBean(this.name);
+        this.name = null;
+    }
+
+    /**
+     * @return name under which the statistics are registered, null if they are not
+     */
+    public synchronized ObjectName getName() {
+        return this.name;
+    }
+}
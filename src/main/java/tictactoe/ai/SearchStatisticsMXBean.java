@@ -0,0 +1,78 @@
+package tictactoe.ai;
+
+/**
+ * interface SearchStatisticsMXBean
+ * Management view of a {@link SearchStatistics}, as shown by JConsole or VisualVM
+ * @version 1
+ */
+public interface SearchStatisticsMXBean {
+    /**
+     * @return number of searches
+     */
+    public long getSearches();
+
+    /**
+     * @return nodes searched by every search
+     */
+    public long getTotalNodes();
+
+    /**
+     * @return nodes searched per second over every search
+     */
+    public double getAverageNodesPerSecond();
+
+    /**
+     * @return share of the expanded nodes left by a beta cutoff over every search
+     */
+    public double getAverageCutoffRate();
+
+    /**
+     * @return share of the transposition table lookups finding the position over every search
+     */
+    public double getAverageTableHitRate();
+
+    /**
+     * @return cell played after the last search, -1 if none
+     */
+    public int getLastMove();
+
+    /**
+     * @return nodes searched by the last search
+     */
+    public long getLastNodes();
+
+    /**
+     * @return nodes searched per second by the last search
+     */
+    public double getLastNodesPerSecond();
+
+    /**
+     * @return depth reached by the last search
+     */
+    public int getLastDepth();
+
+    /**
+     * @return duration of the last search in milliseconds
+     */
+    public double getLastMillis();
+
+    /**
+     * @return share of the expanded nodes left by a beta cutoff in the last search
+     */
+    public double getLastCutoffRate();
+
+    /**
+     * @return share of the transposition table lookups finding the position in the last search
+     */
+    public double getLastTableHitRate();
+
+    /**
+     * @return effective branching factor of the last search
+     */
+    public double getLastBranchingFactor();
+
+    /**
+     * Forget every search
+     */
+    public void reset();
+}
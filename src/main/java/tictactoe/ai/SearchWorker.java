@@ -0,0 +1,363 @@
+package tictactoe.ai;
+
+import tictactoe.grid.Grid;
+import tictactoe.grid.exceptions.PositionInvalidException;
+import tictactoe.grid.exceptions.PositionUsedException;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * Class SearchWorker
+ * Alpha-beta minmax run by one thread on its own grid. Workers of a {@link MinmaxSearch} only share the
+ * transposition table.
+ * @version 1
+ */
+final class SearchWorker {
+    /**
+     * Number of nodes searched between two checks of the clock
+     */
+    private static final int CLOCK_CHECK_NODES = 1024;
+
+    /**
+     * Random key xored to the grid hash when the opponent is to move
+     */
+    private static final long OPPONENT_TO_MOVE = 0x6A09E667F3BCC909L;
+
+    /**
+     * Results of the positions already searched, shared by every worker
+     */
+    private final TranspositionTable table;
+
+    /**
+     * Order in which the cells are tried, own to the worker
+     */
+    private final MoveOrdering ordering;
+
+    /**
+     * Evaluation of the positions at the depth cutoff, own to the worker
+     */
+    private final LineEvaluator evaluator;
+
+    /**
+     * Grid searched, own to the worker
+     */
+    private Grid grid;
+
+    /**
+     * Searching player
+     */
+    private char player;
+
+    /**
+     * Opponent of the searching player
+     */
+    private char opponent;
+
+    /**
+     * Depth of the current iteration
+     */
+    private int rootDepth;
+
+    /**
+     * Nodes searched since the start of the move search
+     */
+    private long nodes;
+
+    /**
+     * Node count at which the clock is checked next, the leaves never check it
+     */
+    private long nextCheck;
+
+    /**
+     * Nodes whose moves were searched since the start of the move search
+     */
+    private long expanded;
+
+    /**
+     * Expanded nodes left by a beta cutoff since the start of the move search
+     */
+    private long cutoffs;
+
+    /**
+     * Transposition table lookups since the start of the move search
+     */
+    private long probes;
+
+    /**
+     * Transposition table lookups finding the position since the start of the move search
+     */
+    private long hits;
+
+    /**
+     * Time at which the search must stop, from System.nanoTime()
+     */
+    private long deadline;
+
+    /**
+     * Nodes after which the search must stop
+     */
+    private long maxNodes;
+
+    /**
+     * Set by another thread to stop the search before its deadline
+     */
+    private AtomicBoolean stop;
+
+    /**
+     * True when the current iteration ran out of time, its results are then thrown away
+     */
+    private boolean stopped;
+
+    /**
+     * Best move found by the last call to {@link SearchWorker#searchRoot(int)}
+     */
+    private int bestMove;
+
+    /**
+     * @param table shared transposition table
+     * @param size size of the grids searched
+     * @param dimension dimension of the grids searched
+     */
+    SearchWorker(TranspositionTable table, int size, int dimension) {
+        this.table = table;
+        this.ordering = new MoveOrdering(size, dimension);
+        this.evaluator = new LineEvaluator(size, dimension);
+    }
+
+    /**
+     * Start a new move search
+     * @param grid grid owned by this worker
+     * @param player searching player
+     * @param deadline time at which the search must stop, from System.nanoTime()
+     * @param maxNodes nodes after which the search must stop
+     * @param stop set by another thread to stop the search before its deadline
+     */
+    void prepare(Grid grid, char player, long deadline, long maxNodes, AtomicBoolean stop) {
+        this.grid = grid;
+        this.player = player;
+        this.opponent = Character.toUpperCase(player) == 'X' ? 'O' : 'X';
+        this.deadline = deadline;
+        this.maxNodes = maxNodes;
+        this.stop = stop;
+        this.nodes = 0;
+        this.nextCheck = CLOCK_CHECK_NODES;
+        this.expanded = 0;
+        this.cutoffs = 0;
+        this.probes = 0;
+        this.hits = 0;
+        this.stopped = false;
+        this.ordering.newSearch();
+        this.evaluator.reset(grid, player);
+    }
+
+    /**
+     * Forget killers and history, for a new game
+     */
+    void clear() {
+        this.ordering.clear();
+    }
+
+    /**
+     * @return true if the last iteration ran out of time
+     */
+    boolean isStopped() {
+        return this.stopped;
+    }
+
+    /**
+     * @return nodes searched since {@link SearchWorker#prepare(Grid, char, long, long, AtomicBoolean)}
+     */
+    long getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * @return nodes whose moves were searched since the start of the move search
+     */
+    long getExpanded() {
+        return this.expanded;
+    }
+
+    /**
+     * @return expanded nodes left by a beta cutoff since the start of the move search
+     */
+    long getCutoffs() {
+        return this.cutoffs;
+    }
+
+    /**
+     * @return transposition table lookups since the start of the move search
+     */
+    long getProbes() {
+        return this.probes;
+    }
+
+    /**
+     * @return transposition table lookups finding the position since the start of the move search
+     */
+    long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * @return best move of the last root search
+     */
+    int getBestMove() {
+        return this.bestMove;
+    }
+
+    /**
+     * Search every move of the root
+     * @param depth depth of the iteration
+     * @return value of the root
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     */
+    int searchRoot(int depth) throws PositionInvalidException, PositionUsedException {
+        this.rootDepth = depth;
+        return this.minmax(depth, true, false, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Search a single move of the root
+     * @param move the root move
+     * @param depth depth of the iteration
+     * @param alpha value the move has to beat, the result is only an upper bound when it does not
+     * @return value of the move
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     */
+    int searchMove(int move, int depth, int alpha) throws PositionInvalidException, PositionUsedException {
+        this.rootDepth = depth;
+        boolean win = this.grid.place(move, this.player);
+        this.evaluator.play(move, true);
+        int result = this.minmax(depth - 1, false, win, alpha, Integer.MAX_VALUE);
+        this.grid.unplace(move);
+        this.evaluator.undo(move, true);
+        return result;
+    }
+
+    /**
+     * @param depth depth of the iteration
+     * @return the moves of the root in the order they would be searched
+     */
+    int[] orderRootMoves(int depth) {
+        this.rootDepth = depth;
+        long entry = this.table.probe(this.grid.hash());
+        this.ordering.start(0, 0, entry == TranspositionTable.MISS ? -1 : TranspositionTable.getMove(entry));
+        int[] moves = new int[this.grid.getRemainingCells()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = this.ordering.next(this.grid, 0);
+        }
+        return moves;
+    }
+
+    /**
+     * Store the result of a root searched move by move
+     * @param depth depth of the iteration
+     * @param score value of the root
+     * @param move best move
+     */
+    void storeRoot(int depth, int score, int move) {
+        this.table.store(this.grid.hash(), depth, TranspositionTable.EXACT, score, move);
+    }
+
+    /**
+     * Minmax algorithm to choose the best (if the AI is not too stupid) move
+     * Positions already searched deep enough are answered by the transposition table, the cells are tried in the
+     * order given by {@link MoveOrdering}.
+     * @param depth the current depth
+     * @param maximizing if maximizing is true we chose the best move for the AI else the best move for his opponent
+     * @param win return if last move is winner or not
+     * @param alpha Alpha–beta pruning to improve performances
+     * @param beta Alpha–beta pruning to improve performances
+     * @return a value representing the move (0 = draw, +-WIN_SCORE = won or lost, in between the evaluation
+     * of the positions at the depth cutoff)
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     * @see <a href="https://en.wikipedia.org/wiki/Minimax">MinMax algorithm</a>
+     * @see <a href="https://en.wikipedia.org/wiki/Alpha%E2%80%93beta_pruning">Alpha–beta pruning</a>
+     * @see <a href="https://en.wikipedia.org/wiki/Transposition_table">Transposition table</a>
+     */
+    private int minmax(int depth, boolean maximizing, boolean win, int alpha, int beta) throws PositionInvalidException, PositionUsedException {
+        //the leaves are counted too, they are most of the tree
+        this.nodes++;
+        if (win){
+            return maximizing ? -MinmaxSearch.WIN_SCORE : MinmaxSearch.WIN_SCORE;
+        }
+        if (grid.getRemainingCells() == 0) {
+            return 0;
+        }
+        if (depth == 0) {
+            return this.evaluator.getScore();
+        }
+        //the first iteration is never stopped so there is always a move to play
+        if (this.nodes >= this.nextCheck && this.rootDepth > 1) {
+            this.nextCheck = this.nodes + CLOCK_CHECK_NODES;
+            if (System.nanoTime() > this.deadline || this.nodes >= this.maxNodes || this.stop.get()) {
+                this.stopped = true;
+            }
+        }
+        if (this.stopped) {
+            return 0;
+        }
+        boolean root = depth == this.rootDepth;
+        long key = maximizing ? this.grid.hash() : this.grid.hash() ^ OPPONENT_TO_MOVE;
+        long entry = this.table.probe(key);
+        this.probes++;
+        int tableMove = -1;
+        if (entry != TranspositionTable.MISS) {
+            this.hits++;
+            tableMove = TranspositionTable.getMove(entry);
+            //the root always searches to pick its move
+            if (!root && TranspositionTable.getDepth(entry) >= depth) {
+                int score = TranspositionTable.getScore(entry);
+                int bound = TranspositionTable.getBound(entry);
+                if (bound == TranspositionTable.EXACT) return score;
+                if (bound == TranspositionTable.LOWER) alpha = max(alpha, score);
+                else beta = min(beta, score);
+                if (alpha >= beta) return score;
+            }
+        }
+        int alphaOrigin = alpha;
+        int betaOrigin = beta;
+        char player = maximizing ? this.player : this.opponent;
+        int val = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        int bestMove = -1;
+        int ply = this.rootDepth - depth;
+        int side = maximizing ? 0 : 1;
+        this.ordering.start(ply, side, tableMove);
+        this.expanded++;
+        int x;
+        while ((x = this.ordering.next(this.grid, ply)) >= 0) {
+            boolean won = this.grid.place(x, player);
+            this.evaluator.play(x, maximizing);
+            int result = minmax(depth - 1, !maximizing, won, alpha, beta);
+            this.grid.unplace(x);
+            this.evaluator.undo(x, maximizing);
+            if (this.stopped) return 0;
+            if (maximizing ? result > val : result < val) {
+                val = result;
+                bestMove = x;
+            }
+            if (maximizing) alpha = max(alpha, val);
+            else beta = min(beta, val);
+            if (alpha >= beta) {
+                this.cutoffs++;
+                this.ordering.cutoff(ply, side, x, depth);
+                break;
+            }
+        }
+        if (root) {
+            this.bestMove = bestMove;
+        }
+        int bound = val <= alphaOrigin ? TranspositionTable.UPPER
+                : val >= betaOrigin ? TranspositionTable.LOWER
+                : TranspositionTable.EXACT;
+        this.table.store(key, depth, bound, val, bestMove);
+        return val;
+    }
+}
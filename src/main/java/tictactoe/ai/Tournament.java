@@ -0,0 +1,217 @@
+package tictactoe.ai;
+
+import tictactoe.grid.Grid;
+import tictactoe.grid.exceptions.PositionInvalidException;
+import tictactoe.grid.exceptions.PositionUsedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+/**
+ * Class Tournament
+ * Headless self-play : the entrants play each other on every shape, in process, without server nor console.
+ * Games are played in parallel, each with new engines from the entrant suppliers. A game starts with a few random
+ * moves so that deterministic engines do not replay the same game; each opening is played twice, the entrants
+ * swapping sides. Engines built from the seed of their game replay the same games when the node budget, not the
+ * time, ends their searches and they search on a single thread : the threads of a parallel search share its table
+ * or tree in an order that changes from run to run.
+ * @version 1
+ */
+public final class Tournament {
+    /**
+     * Limits of the search of every move
+     */
+    private final SearchLimits limits;
+
+    /**
+     * Random moves played before the engines take over
+     */
+    private final int openingMoves;
+
+    /**
+     * Seed of the openings, the same seed gives the same openings
+     */
+    private final long seed;
+
+    /**
+     * Names of the entrants
+     */
+    private final List<String> names = new ArrayList<>();
+
+    /**
+     * Engine builders of the entrants, given a seed drawn from the seed of the game
+     */
+    private final List<LongFunction<Engine>> engines = new ArrayList<>();
+
+    /**
+     * Shapes played, as {size, dimension}
+     */
+    private final List<int[]> shapes = new ArrayList<>();
+
+    /**
+     * @param limits limits of the search of every move
+     * @param openingMoves random moves played before the engines take over
+     * @param seed seed of the openings and of the engines
+     */
+    public Tournament(SearchLimits limits, int openingMoves, long seed) {
+        if (openingMoves < 0)
+            throw new IllegalArgumentException("Opening moves can not be negative");
+        this.limits = limits;
+        this.openingMoves = openingMoves;
+        this.seed = seed;
+    }
+
+    /**
+     * @param name name of the entrant in the results
+     * @param engine builder of a new engine of the entrant, called once per game
+     */
+    public void addEntrant(String name, Supplier<Engine> engine) {
+        this.addEntrant(name, seed -> engine.get());
+    }
+
+    /**
+     * @param name name of the entrant in the results
+     * @param engine builder of a new engine of the entrant, called once per game with a seed drawn from the
+     * seed of the tournament
+     */
+    public void addEntrant(String name, LongFunction<Engine> engine) {
+        this.names.add(name);
+        this.engines.add(engine);
+    }
+
+    /**
+     * @param size size of the grid
+     * @param dimension dimension of the grid (2 or 3)
+     */
+    public void addShape(int size, int dimension) {
+        if (size < 1 || (dimension != 2 && dimension != 3))
+            throw new IllegalArgumentException("Grid format invalid !");
+        this.shapes.add(new int[]{size, dimension});
+    }
+
+    /**
+     * Play on every core
+     * @param openings openings played by each pair of entrants on each shape, each one twice
+     * @return see {@link Tournament#play(int, int)}
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     */
+    public List<MatchResult> play(int openings) throws PositionInvalidException, PositionUsedException {
+        return this.play(openings, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Play every pair of entrants on every shape
+     * @param openings openings played by each pair of entrants on each shape, each one twice
+     * @param threads number of games played at the same time
+     * @return one result per pair of entrants and shape, for the entrant added first, in the order of the pairs
+     * then of the shapes
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     */
+    public List<MatchResult> play(int openings, int threads) throws PositionInvalidException, PositionUsedException {
+        if (this.names.size() < 2 || this.shapes.isEmpty())
+            throw new IllegalStateException("A tournament needs two entrants and a shape");
+        if (threads < 1)
+            throw new IllegalArgumentException("Tournament needs at least 1 thread");
+        List<int[]> matches = new ArrayList<>();
+        List<List<Future<Character>>> games = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int first = 0; first < this.names.size(); first++) {
+                for (int second = first + 1; second < this.names.size(); second++) {
+                    for (int[] shape : this.shapes) {
+                        matches.add(new int[]{first, second, shape[0], shape[1]});
+                        List<Future<Character>> futures = new ArrayList<>();
+                        for (int opening = 0; opening < openings; opening++) {
+                            //the same opening for every pair and shape, with first then second as X
+                            long openingSeed = this.seed + opening;
+                            futures.add(executor.submit(this.game(first, second, shape, openingSeed)));
+                            futures.add(executor.submit(this.game(second, first, shape, openingSeed)));
+                        }
+                        games.add(futures);
+                    }
+                }
+            }
+            List<MatchResult> results = new ArrayList<>();
+            for (int i = 0; i < matches.size(); i++) {
+                int[] match = matches.get(i);
+                int wins = 0;
+                int draws = 0;
+                int losses = 0;
+                List<Future<Character>> futures = games.get(i);
+                for (int game = 0; game < futures.size(); game++) {
+                    char winner = futures.get(game).get();
+                    //even games have the first entrant as X
+                    char first = game % 2 == 0 ? 'X' : 'O';
+                    if (winner == '\0') draws++;
+                    else if (winner == first) wins++;
+                    else losses++;
+                }
+                results.add(new MatchResult(this.names.get(match[0]), this.names.get(match[1]), match[2], match[3],
+                        wins, draws, losses));
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof PositionUsedException) throw (PositionUsedException) e.getCause();
+            if (e.getCause() instanceof PositionInvalidException) throw (PositionInvalidException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @param x index of the entrant playing X
+     * @param o index of the entrant playing O
+     * @param shape {size, dimension} of the grid
+     * @param openingSeed seed of the opening moves and of the engines
+     * @return a game giving the winner, '\0' for a draw
+     */
+    private Callable<Character> game(int x, int o, int[] shape, long openingSeed) {
+        return () -> {
+            Grid grid = Grid.create(shape[0], shape[1]);
+            SplittableRandom random = new SplittableRandom(openingSeed);
+            char player = 'X';
+            for (int move = 0; move < this.openingMoves; move++) {
+                //an opening leaves the game open : only the cells not winning at once are drawn
+                int[] cells = new int[grid.getRemainingCells()];
+                int count = 0;
+                for (int cell = 0; cell < grid.getTotalSize(); cell++) {
+                    if (grid.getValue(cell) != '\0') continue;
+                    boolean won = grid.place(cell, player);
+                    grid.unplace(cell);
+                    if (!won) cells[count++] = cell;
+                }
+                if (count <= 1) break;
+                grid.place(cells[random.nextInt(count)], player);
+                player = player == 'X' ? 'O' : 'X';
+            }
+            Engine xEngine = this.engines.get(x).apply(random.nextLong());
+            Engine oEngine = this.engines.get(o).apply(random.nextLong());
+            try {
+                while (grid.getRemainingCells() > 0) {
+                    Engine engine = player == 'X' ? xEngine : oEngine;
+                    int move = engine.search(grid, player, this.limits).getMove();
+                    if (grid.place(move, player)) return player;
+                    player = player == 'X' ? 'O' : 'X';
+                }
+                return '\0';
+            } finally {
+                xEngine.shutdown();
+                oEngine.shutdown();
+            }
+        };
+    }
+}
@@ -0,0 +1,163 @@
+package tictactoe.ai;
+
+import java.util.Arrays;
+
+/**
+ * Class TranspositionTable
+ * Fixed size cache of search results indexed by position hash, see {@link tictactoe.grid.Grid#hash()}.
+ * An entry is two longs : a packed value holding the score, the best move, the depth, the bound and the search
+ * generation, and the key xored with that value. Nothing is allocated after construction.
+ * The table can be shared by several searching threads without locks : an entry half written by another thread
+ * fails the key check and is read as a miss.
+ * When two positions share a slot, the new result replaces the old one if it was searched at least as deep
+ * or if the old one comes from a previous search.
+ * @version 1
+ */
+public final class TranspositionTable {
+    /**
+     * the score is the exact value of the position
+     */
+    public static final int EXACT = 1;
+
+    /**
+     * the score is a lower bound (the search failed high)
+     */
+    public static final int LOWER = 2;
+
+    /**
+     * the score is an upper bound (the search failed low)
+     */
+    public static final int UPPER = 3;
+
+    /**
+     * returned by probe when the position is not stored
+     */
+    public static final long MISS = 0;
+
+    /**
+     * bytes used by an entry
+     */
+    static final int ENTRY_BYTES = 16;
+
+    /**
+     * keys of the entries, xored with their value
+     */
+    private final long[] keys;
+
+    /**
+     * packed values : bound bits 0-1, generation bits 2-7, depth bits 8-15, move+1 bits 16-31, score bits 32-63
+     */
+    private final long[] values;
+
+    /**
+     * keys.length - 1, the length being a power of 2
+     */
+    private final int mask;
+
+    /**
+     * generation of the current search, used to age the entries
+     */
+    private int generation;
+
+    /**
+     * @param megabytes memory budget, the table uses the biggest power of 2 entries fitting in it (at least 1024)
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1)
+            throw new IllegalArgumentException("Transposition table needs at least 1 MB");
+        long entries = Long.highestOneBit(Math.min(((long) megabytes << 20) / ENTRY_BYTES, 1 << 30));
+        entries = Math.max(entries, 1024);
+        this.keys = new long[(int) entries];
+        this.values = new long[(int) entries];
+        this.mask = (int) entries - 1;
+    }
+
+    /**
+     * @return number of entries
+     */
+    public int getCapacity() {
+        return this.keys.length;
+    }
+
+    /**
+     * Start a new search : entries of the previous searches can now be replaced by shallower ones
+     */
+    public void newSearch() {
+        this.generation = (this.generation + 1) & 0x3F;
+    }
+
+    /**
+     * Forget every entry
+     */
+    public void clear() {
+        Arrays.fill(this.keys, 0);
+        Arrays.fill(this.values, MISS);
+    }
+
+    /**
+     * @param key position hash
+     * @return the packed entry, or {@link TranspositionTable#MISS}
+     */
+    public long probe(long key) {
+        int index = (int) key & this.mask;
+        long value = this.values[index];
+        return value != MISS && (this.keys[index] ^ value) == key ? value : MISS;
+    }
+
+    /**
+     * Store a search result
+     * @param key position hash
+     * @param depth remaining depth searched, [0,255]
+     * @param bound {@link TranspositionTable#EXACT}, {@link TranspositionTable#LOWER} or {@link TranspositionTable#UPPER}
+     * @param score score of the position
+     * @param move best move found, -1 if none
+     */
+    public void store(long key, int depth, int bound, int score, int move) {
+        int index = (int) key & this.mask;
+        long old = this.values[index];
+        if (old != MISS && (this.keys[index] ^ old) != key
+                && ((old >>> 2) & 0x3F) == this.generation && getDepth(old) > depth) {
+            //keep the deeper result of the current search
+            return;
+        }
+        long value = (long) score << 32
+                | (long) ((move + 1) & 0xFFFF) << 16
+                | (long) (depth & 0xFF) << 8
+                | (long) this.generation << 2
+                | bound;
+        this.keys[index] = key ^ value;
+        this.values[index] = value;
+    }
+
+    /**
+     * @param entry packed entry
+     * @return stored score
+     */
+    public static int getScore(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    /**
+     * @param entry packed entry
+     * @return stored best move, -1 if none
+     */
+    public static int getMove(long entry) {
+        return (int) ((entry >>> 16) & 0xFFFF) - 1;
+    }
+
+    /**
+     * @param entry packed entry
+     * @return stored depth
+     */
+    public static int getDepth(long entry) {
+        return (int) ((entry >>> 8) & 0xFF);
+    }
+
+    /**
+     * @param entry packed entry
+     * @return stored bound
+     */
+    public static int getBound(long entry) {
+        return (int) (entry & 0x3);
+    }
+}
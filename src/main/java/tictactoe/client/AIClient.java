@@ -2,34 +2,200 @@ package tictactoe.client;
 
 
 import com.google.gson.Gson;
+import tictactoe.ai.Engine;
+import tictactoe.ai.MinmaxSearch;
+import tictactoe.ai.PerfectPlayTable;
+import tictactoe.ai.SearchLimits;
+import tictactoe.ai.SearchListener;
+import tictactoe.ai.SearchResult;
+import tictactoe.ai.SearchStatistics;
 import tictactoe.network.NetworkMessage;
 import tictactoe.network.ProtocolAction;
 import tictactoe.Text;
-import tictactoe.grid.Grid2D;
-import tictactoe.grid.Grid3D;
+import tictactoe.grid.Grid;
 import tictactoe.grid.exceptions.PositionInvalidException;
 import tictactoe.grid.exceptions.PositionUsedException;
 
-import static java.lang.Math.max;
-import static java.lang.Math.min;
+import javax.management.JMException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class AIClient extends Client{
 
     /**
-     * Max depth use by min max
+     * Time given to the search of a move when none is given, in milliseconds
      */
-    static final int MINMAX_MAX_DEPTH = 6;
+    static final long DEFAULT_MOVE_MILLIS = 1000;
 
     /**
-     * Store the next play by the minmax algo
+     * Memory used by the transposition table when none is given
      */
-    private int nextPlay;
+    static final int DEFAULT_TABLE_MEGABYTES = 8;
+
+    /**
+     * System property which, set to true, shows the search statistics of every AI through JMX
+     */
+    static final String JMX_PROPERTY = "tictactoe.jmx";
+
+    /**
+     * Number of AI clients created, to give each one its JMX name
+     */
+    private static final AtomicInteger COUNT = new AtomicInteger();
+
+    /**
+     * Search of the moves
+     */
+    private final Engine engine;
+
+    /**
+     * Time given to the search of a move, in milliseconds
+     */
+    private final long moveMillis;
+
+    /**
+     * Result of the last search, null if none
+     */
+    private SearchResult lastResult;
+
+    /**
+     * True when the AI played and the opponent is to move, the time to ponder
+     */
+    private boolean opponentToMove;
+
+    /**
+     * Thread pondering while the opponent thinks, null if none
+     */
+    private Thread ponderThread;
+
+    /**
+     * Set to end the pondering
+     */
+    private AtomicBoolean ponderStop;
+
+    /**
+     * Statistics of the searches, shown through JMX when {@link AIClient#JMX_PROPERTY} is set
+     */
+    private final SearchStatistics statistics = new SearchStatistics();
 
     /**
      *Creates a new AI client
      */
     public AIClient() {
+        this(DEFAULT_TABLE_MEGABYTES, DEFAULT_MOVE_MILLIS);
+    }
+
+    /**
+     * Creates a new AI client
+     * @param tableMegabytes memory budget of the transposition table
+     */
+    public AIClient(int tableMegabytes) {
+        this(tableMegabytes, DEFAULT_MOVE_MILLIS);
+    }
+
+    /**
+     * Creates a new AI client
+     * @param tableMegabytes memory budget of the transposition table
+     * @param moveMillis time given to the search of a move, in milliseconds
+     */
+    public AIClient(int tableMegabytes, long moveMillis) {
+        this(tableMegabytes, moveMillis, 1);
+    }
+
+    /**
+     * Creates a new AI client searching with minmax
+     * @param tableMegabytes memory budget of the transposition table
+     * @param moveMillis time given to the search of a move, in milliseconds
+     * @param threads number of threads searching the moves
+     */
+    public AIClient(int tableMegabytes, long moveMillis, int threads) {
+        this(new MinmaxSearch(tableMegabytes, threads), moveMillis);
+    }
+
+    /**
+     * Creates a new AI client
+     * @param engine search of the moves
+     * @param moveMillis time given to the search of a move, in milliseconds
+     */
+    public AIClient(Engine engine, long moveMillis) {
         super("127.0.0.1", 9876);
+        this.engine = engine;
+        this.moveMillis = moveMillis;
+        this.engine.addListener(this.statistics);
+        if (Boolean.getBoolean(JMX_PROPERTY)) {
+            try {
+                this.statistics.register(this.getClass().getSimpleName() + "-" + COUNT.incrementAndGet());
+            } catch (JMException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * @return result of the last search, null if the last move came from the perfect play table
+     */
+    public SearchResult getLastResult() {
+        return this.lastResult;
+    }
+
+    /**
+     * @return statistics of every search of this AI
+     */
+    public SearchStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    /**
+     * Tell a listener of every following search of this AI, the moves of the perfect play table excepted
+     * @param listener the listener, called by the searching thread
+     */
+    public void addSearchListener(SearchListener listener) {
+        this.engine.addListener(listener);
+    }
+
+    /**
+     * Stop telling a listener of the searches
+     * @param listener a listener added before
+     */
+    public void removeSearchListener(SearchListener listener) {
+        this.engine.removeListener(listener);
+    }
+
+    /**
+     * Ponder in a background thread while waiting for the opponent's move, on a grid of the AI only
+     */
+    @Override
+    protected void startPondering() {
+        if (!this.opponentToMove) return;
+        //the small grids are answered by their table
+        if (PerfectPlayTable.of(this.grid.getSize(), this.grid.getDimension()) != null) return;
+        AtomicBoolean stop = new AtomicBoolean();
+        Grid grid = this.grid;
+        char player = this.role.charAt(0);
+        this.ponderStop = stop;
+        this.ponderThread = new Thread(() -> {
+            try {
+                this.engine.ponder(grid, player, stop);
+            } catch (PositionInvalidException | PositionUsedException e) {
+                e.printStackTrace();
+            }
+        }, "ponder");
+        this.ponderThread.setDaemon(true);
+        this.ponderThread.start();
+    }
+
+    /**
+     * Stop the pondering and wait for it, the grid is then restored
+     */
+    @Override
+    protected void stopPondering() {
+        if (this.ponderThread == null) return;
+        this.ponderStop.set(true);
+        try {
+            this.ponderThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.ponderThread = null;
     }
 
     /**
@@ -68,16 +234,17 @@ public class AIClient extends Client{
     @Override
     public NetworkMessage startGame(String role, String nextPlayer, String dimension, String size, String serializedGrid) {
         this.role = role;
+        this.opponentToMove = false;
+        //scores are stored from the point of view of this role
+        this.engine.clear();
         if(serializedGrid != null) {
             isSavedGame = true;
 
             //Deserialize the json string
             Gson gson = new Gson();
-            if(dimension.equals("3")) this.grid = gson.fromJson(serializedGrid, Grid3D.class);
-            else this.grid = gson.fromJson(serializedGrid, Grid2D.class);
+            this.grid = gson.fromJson(serializedGrid, Grid.getImplementation(Integer.parseInt(size), Integer.parseInt(dimension)));
         }
-        else if(dimension.equals("3")) this.grid = new Grid3D(Integer.parseInt(size));
-        else this.grid = new Grid2D(Integer.parseInt(size));
+        else this.grid = Grid.create(Integer.parseInt(size), Integer.parseInt(dimension));
 
         if (nextPlayer.equals(this.role)){
             return play(null);
@@ -93,6 +260,7 @@ public class AIClient extends Client{
      */
     @Override
     public NetworkMessage play(String posOpponent) {
+        this.opponentToMove = false;
         if(posOpponent!=null){
             char opponentRole;
             if(role.equals("X")) opponentRole = 'O';
@@ -105,77 +273,32 @@ public class AIClient extends Client{
         }
         System.out.println(Text.iaPlay(this.role));
 
+        int nextPlay = 0;
         try {
-            this.minmax(MINMAX_MAX_DEPTH,true,false,Integer.MIN_VALUE,Integer.MAX_VALUE);
+            //the small grids are solved offline, when their table was generated
+            PerfectPlayTable table = PerfectPlayTable.of(this.grid.getSize(), this.grid.getDimension());
+            int known = table == null ? -1 : table.getMove(this.grid, this.role.charAt(0));
+            this.lastResult = known >= 0 ? null
+                    : this.engine.search(this.grid, this.role.charAt(0), SearchLimits.ofMillis(this.moveMillis));
+            nextPlay = known >= 0 ? known : this.lastResult.getMove();
         }
         catch (Exception e){
             e.printStackTrace();
         }
         String[] param = new String[2];
-        if(grid instanceof Grid2D){
-            param[0]= this.nextPlay+1+"";
+        if(grid.getDimension() == 2){
+            param[0]= nextPlay+1+"";
         }
         else{
             //65 = A in ASCII code
-            char z = (char)((this.nextPlay)/(this.grid.getSize()*this.grid.getSize())+65);
-            String pos = this.nextPlay%(this.grid.getSize()*this.grid.getSize()) + 1 + "";
+            char z = (char)((nextPlay)/(this.grid.getSize()*this.grid.getSize())+65);
+            String pos = nextPlay%(this.grid.getSize()*this.grid.getSize()) + 1 + "";
             param[0]= z + pos;
         }
         param[1]=role;
         return new NetworkMessage(ProtocolAction.Place,param);
     }
 
-    /**
-     * Minmax algorithm to choose the best (if the AI is not too stupid) move
-     * @param depth the current depth
-     * @param maximizing if maximizing is true we chose the best move for the AI else the best move for his opponent
-     * @param win return if last move is winner or not
-     * @param alpha Alpha–beta pruning to improve performances
-     * @param beta Alpha–beta pruning to improve performances
-     * @return a value representing the move (0 = nothing |draw, < 0 = losing, >0 = winning)
-     * @throws PositionInvalidException
-     * @throws PositionUsedException
-     * @see <a href="https://en.wikipedia.org/wiki/Minimax">MinMax algorithm</a>
-     * @see <a href="https://en.wikipedia.org/wiki/Alpha%E2%80%93beta_pruning">Alpha–beta pruning</a>
-     */
-    private int minmax(int depth, boolean maximizing,boolean win, int alpha, int beta) throws PositionInvalidException, PositionUsedException {
-        if (win){
-            return maximizing ? -10 : 10;
-        }
-        if (depth == 0 || grid.getRemainingCells() == 0) {
-            return 0;
-        }
-        int val;
-        if (maximizing) {
-            val = Integer.MIN_VALUE;
-            for (int x = 0; x < this.grid.getTotalSize(); x++) {
-                if (this.grid.getValue(x) != '\0') continue;
-                int iteration = minmax(depth - 1, false, this.grid.place(x, this.role.charAt(0)),alpha,beta);
-                this.grid.setValue(x, '\0');
-                if (iteration >= val) {
-                    if (depth == MINMAX_MAX_DEPTH) {
-                        this.nextPlay = x;
-                    }
-                    val = iteration;
-                }
-                if (val > beta) return val;
-                alpha = max(alpha, val);
-            }
-
-        } else {
-            val = Integer.MAX_VALUE;
-            for (int x = 0; x < this.grid.getTotalSize(); x++) {
-                if (this.grid.getValue(x) != '\0') continue;
-                int result=  minmax(depth - 1, true,this.grid.place(x, this.role.charAt(0) == 'X' ? 'O' : 'X'),alpha,beta);
-                if(result < val)val=result;
-                this.grid.setValue(x,'\0');
-                if (val < alpha)  return val;
-                beta = min(beta, val);
-            }
-        }
-        return val;
-    }
-
     /**
      * Function which asks at a first time if the player confirm that he want to place his pawn in this place
      * @return a protocol action if the player answer "Oui" to the question
@@ -193,7 +316,7 @@ public class AIClient extends Client{
     @Override
     public NetworkMessage validate(String position) {
         try {
-            grid.place(position, role.charAt(0));
+            this.opponentToMove = !grid.place(position, role.charAt(0)) && grid.getRemainingCells() > 0;
         } catch (PositionUsedException | PositionInvalidException e) {
             throw new RuntimeException(e);
         }
@@ -209,6 +332,7 @@ public class AIClient extends Client{
      */
     @Override
     public NetworkMessage endGame(String position, char role, char isDraw) {
+        this.opponentToMove = false;
         return new NetworkMessage(ProtocolAction.WaitMessage);
     }
 
@@ -226,5 +350,13 @@ public class AIClient extends Client{
      * Function which show only the endgame message
      */
     @Override
-    public void quit() {}
+    public void quit() {
+        stopPondering();
+        this.engine.shutdown();
+        try {
+            this.statistics.unregister();
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
 }
@@ -77,12 +77,14 @@ public abstract class Client extends Thread{
         while (isRunning) {
             // Get the message from the server
             NetworkMessage networkMessage;
+            startPondering();
             try {
                 networkMessage = server.read();
             } catch (Exception e) {
                 e.getStackTrace();
                 networkMessage = new NetworkMessage(ProtocolAction.NONE);
             }
+            stopPondering();
 
 
             // The message to send back
@@ -148,6 +150,20 @@ public abstract class Client extends Thread{
         this.server = new CustomSocket(new Socket(this.serverIP, this.port), true);
     }
 
+    /**
+     * Called before waiting for a server message : a client can use the wait to think in the background.
+     * Nothing by default.
+     */
+    protected void startPondering() {
+    }
+
+    /**
+     * Called when a server message arrived, before it is handled : the background thinking started by
+     * {@link Client#startPondering()} must be over on return. Nothing by default.
+     */
+    protected void stopPondering() {
+    }
+
     public abstract NetworkMessage selectDimensions();
     public abstract NetworkMessage resumeGame(String[] saveList);
     public abstract NetworkMessage startGame(String role, String nextPlayer, String dimension, String size, String serializedGrid);
@@ -0,0 +1,36 @@
+package tictactoe.client;
+
+import tictactoe.ai.MctsSearch;
+
+/**
+ * Class MctsClient
+ * AI client choosing its moves by Monte Carlo tree search, it keeps the same time per move on any grid size
+ * where the minmax search of {@link AIClient} does not go deep enough on big grids.
+ * @version 1
+ */
+public class MctsClient extends AIClient {
+
+    /**
+     * Creates a new MCTS AI client
+     */
+    public MctsClient() {
+        this(DEFAULT_MOVE_MILLIS);
+    }
+
+    /**
+     * Creates a new MCTS AI client
+     * @param moveMillis time given to the search of a move, in milliseconds
+     */
+    public MctsClient(long moveMillis) {
+        this(moveMillis, 1);
+    }
+
+    /**
+     * Creates a new MCTS AI client
+     * @param moveMillis time given to the search of a move, in milliseconds
+     * @param threads number of threads searching the moves
+     */
+    public MctsClient(long moveMillis, int threads) {
+        super(new MctsSearch(threads), moveMillis);
+    }
+}
@@ -4,8 +4,7 @@ import com.google.gson.Gson;
 import tictactoe.network.NetworkMessage;
 import tictactoe.network.ProtocolAction;
 import tictactoe.Text;
-import tictactoe.grid.Grid2D;
-import tictactoe.grid.Grid3D;
+import tictactoe.grid.Grid;
 import tictactoe.grid.exceptions.PositionInvalidException;
 import tictactoe.grid.exceptions.PositionUsedException;
 
@@ -119,11 +118,9 @@ public class PlayerClient extends Client{
 
             //Deserialize the json string
             Gson gson = new Gson();
-            if(dimension.equals("3")) this.grid = gson.fromJson(serializedGrid, Grid3D.class);
-            else this.grid = gson.fromJson(serializedGrid, Grid2D.class);
+            this.grid = gson.fromJson(serializedGrid, Grid.getImplementation(Integer.parseInt(size), Integer.parseInt(dimension)));
         }
-        else if(dimension.equals("3")) this.grid = new Grid3D(Integer.parseInt(size));
-        else this.grid = new Grid2D(Integer.parseInt(size));
+        else this.grid = Grid.create(Integer.parseInt(size), Integer.parseInt(dimension));
 
         if (nextPlayer.equals(this.role)){
             return play(null);
@@ -160,7 +157,7 @@ public class PlayerClient extends Client{
         boolean isEntered = false;
         while(!isEntered){
             try {
-                System.out.println(Text.askPlay(grid.getClass() == Grid3D.class));
+                System.out.println(Text.askPlay(grid.getDimension() == 3));
                 position = sysIn.readLine();
                 lastPosition = position;
                 isEntered = true;
@@ -0,0 +1,334 @@
+package tictactoe.grid;
+
+import tictactoe.grid.exceptions.PositionInvalidException;
+import tictactoe.grid.exceptions.PositionUsedException;
+
+import java.io.Serializable;
+
+/**
+ * Class BitGrid2D
+ * 2D grid of at most 8x8 cells where the stones of each player are stored as the bits of a long.
+ * Cell x,y is the bit x+y*size. Only 'X' and 'O' (in any case) can be placed, they are read back in upper case.
+ * @version 1
+ */
+public class BitGrid2D implements Grid, Serializable {
+    /**
+     * biggest size that fits in a long
+     */
+    public static final int MAX_SIZE = 8;
+
+    /**
+     * masks of the lines passing through each cell, indexed by [size][cell]
+     */
+    private static final long[][][] CELL_LINES = new long[MAX_SIZE+1][][];
+
+    /**
+     * zobrist keys, indexed by size
+     */
+    private static final ZobristKeys[] KEYS = new ZobristKeys[MAX_SIZE+1];
+
+    static {
+        for (int size = 1; size <= MAX_SIZE; size++) {
+            CELL_LINES[size] = WinningLines.of(size, 2).getCellMasks();
+            KEYS[size] = ZobristKeys.of(size, 2);
+        }
+    }
+
+    /**
+     * size of the grid
+     */
+    private final int size;
+
+    /**
+     * cells used by X
+     */
+    private long xStones;
+
+    /**
+     * cells used by O
+     */
+    private long oStones;
+
+    /**
+     * winning cells of the last place
+     */
+    private long winner;
+
+    /**
+     * zobrist hash of the stones, rebuilt lazily after a deserialization
+     */
+    private transient long hash;
+
+    /**
+     * true when hash matches the stones
+     */
+    private transient boolean hashValid;
+
+    /**
+     * @param size size of the grid, between 1 and {@link BitGrid2D#MAX_SIZE}
+     */
+    public BitGrid2D(int size) {
+        if (size < 1 || size > MAX_SIZE)
+            throw new IllegalArgumentException("Grid size must be between 1 and " + MAX_SIZE);
+        this.size = size;
+        this.hashValid = true;
+    }
+
+    /**
+     * @return grid's size
+     */
+    @Override
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * @return grid's total size
+     */
+    @Override
+    public int getTotalSize() {
+        return this.size * this.size;
+    }
+
+    /**
+     * @return grid's dimension
+     */
+    @Override
+    public int getDimension() {
+        return 2;
+    }
+
+    /**
+     * @return count remaining cell
+     */
+    @Override
+    public int getRemainingCells() {
+        return this.size * this.size - Long.bitCount(this.xStones | this.oStones);
+    }
+
+    /**
+     * @param x x position
+     * @param y y position
+     * @return cell's value
+     */
+    public char getValue(int x, int y) {
+        return getValue(x + y * this.size);
+    }
+
+    /**
+     * @param position [0,n*n[
+     * @return cell's value
+     */
+    @Override
+    public char getValue(int position) {
+        long bit = 1L << position;
+        if ((this.xStones & bit) != 0) return 'X';
+        if ((this.oStones & bit) != 0) return 'O';
+        return '\0';
+    }
+
+    /**
+     * set cell value
+     * @param position [0,n*n[
+     * @param value 'X', 'O' or '\0' to empty the cell
+     */
+    @Override
+    public void setValue(int position, char value) {
+        long bit = 1L << position;
+        char previous = getValue(position);
+        this.xStones &= ~bit;
+        this.oStones &= ~bit;
+        if (value != '\0') {
+            if (isX(value)) this.xStones |= bit;
+            else this.oStones |= bit;
+        }
+        updateHash(position, previous, value);
+    }
+
+    /**
+     * undo a place : empty the cell and forget the winning cells of the last place
+     * @param position [0,n*n[
+     */
+    @Override
+    public void unplace(int position) {
+        updateHash(position, getValue(position), '\0');
+        long bit = ~(1L << position);
+        this.xStones &= bit;
+        this.oStones &= bit;
+        this.winner = 0;
+    }
+
+    /**
+     * @param x x position
+     * @param y y position
+     * @return true if cell is a winning cell
+     */
+    public boolean getCellStatus(int x, int y) {
+        return getCellStatus(x + y * this.size);
+    }
+
+    /**
+     * @param position [0,n*n[
+     * @return true if cell is a winning cell
+     */
+    @Override
+    public boolean getCellStatus(int position) {
+        return (this.winner & (1L << position)) != 0;
+    }
+
+    /**
+     * @return zobrist hash of the stones
+     */
+    @Override
+    public long hash() {
+        if (!this.hashValid) {
+            this.hash = KEYS[this.size].hash(this);
+            this.hashValid = true;
+        }
+        return this.hash;
+    }
+
+    /**
+     * @return an independent copy of the grid
+     */
+    @Override
+    public BitGrid2D copy() {
+        BitGrid2D copy = new BitGrid2D(this.size);
+        copy.xStones = this.xStones;
+        copy.oStones = this.oStones;
+        copy.winner = this.winner;
+        copy.hash = this.hash;
+        copy.hashValid = this.hashValid;
+        return copy;
+    }
+
+    /**
+     * keep the hash up to date when a cell changes
+     * @param position cell index
+     * @param previous old value of the cell
+     * @param value new value of the cell
+     */
+    private void updateHash(int position, char previous, char value) {
+        if (!this.hashValid) return;
+        if (previous != '\0') this.hash ^= KEYS[this.size].get(position, previous);
+        if (value != '\0') this.hash ^= KEYS[this.size].get(position, value);
+    }
+
+    /**
+     * @param player player charactere
+     * @return true if the player is X, false if it is O
+     */
+    private static boolean isX(char player) {
+        if (player == 'X' || player == 'x') return true;
+        if (player == 'O' || player == 'o') return false;
+        throw new IllegalArgumentException("Unknown player " + player);
+    }
+
+    /**
+     * place a player cell
+     * @param position the case number
+     * @param player player charactere
+     * @return true if the player won
+     * @throws PositionUsedException
+     * @throws PositionInvalidException
+     */
+    @Override
+    public boolean place(String position, char player) throws PositionUsedException, PositionInvalidException {
+        int[] positionArray = Grid2D.getPosition(position, this.size);
+        return this.place(positionArray[0] + positionArray[1] * this.size, player);
+    }
+
+    /**
+     * place a player cell
+     * @param position the case number
+     * @param player player charactere
+     * @return true if the player won
+     * @throws PositionUsedException
+     * @throws PositionInvalidException
+     */
+    @Override
+    public boolean place(int position, char player) throws PositionUsedException, PositionInvalidException {
+        if (position < 0 || position >= this.size * this.size)
+            throw new PositionInvalidException();
+        long bit = 1L << position;
+        if (((this.xStones | this.oStones) & bit) != 0)
+            throw new PositionUsedException();
+
+        long stones;
+        if (isX(player)) stones = this.xStones |= bit;
+        else stones = this.oStones |= bit;
+        updateHash(position, '\0', player);
+
+        this.winner = 0;
+        for (long line : CELL_LINES[this.size][position]) {
+            if ((stones & line) == line) {
+                this.winner |= line;
+            }
+        }
+        return this.winner != 0;
+    }
+
+    /**
+     * @param position the case number
+     * @return true if the cell is used
+     * @throws PositionInvalidException
+     */
+    @Override
+    public boolean isCellUsed(String position) throws PositionInvalidException {
+        int[] positionArray = Grid2D.getPosition(position, this.size);
+        return ((this.xStones | this.oStones) & (1L << (positionArray[0] + positionArray[1] * this.size))) != 0;
+    }
+
+    /**
+     * @return lines representing the grid
+     */
+    public String[] getGridAsStrings() {
+        return Grid2D.getLayerAsStrings(this, 0, -1, -1, '\0');
+    }
+
+    /**
+     * @param position string position ex "1"
+     * @param player player character
+     * @return lines representing the grid with the selection
+     */
+    public String[] getGridAsStrings(String position, char player) {
+        try {
+            int[] positionArray = Grid2D.getPosition(position, this.size);
+            return Grid2D.getLayerAsStrings(this, 0, positionArray[0], positionArray[1], player);
+        } catch (Exception e) {
+            //If selection not valid return default grid
+            return getGridAsStrings();
+        }
+    }
+
+    /**
+     * Print 2D grid
+     */
+    @Override
+    public void display() {
+        for (String ligne : this.getGridAsStrings()) {
+            System.out.println(ligne);
+        }
+    }
+
+    /**
+     * Print 2D grid
+     */
+    @Override
+    public void display(String position, char player) {
+        for (String ligne : this.getGridAsStrings(position, player)) {
+            System.out.println(ligne);
+        }
+    }
+
+    /**
+     * 2d Grid as string
+     */
+    public String toString() {
+        String result = "";
+        for (String ligne : this.getGridAsStrings()) {
+            result += ligne + '\n';
+        }
+        return result;
+    }
+}
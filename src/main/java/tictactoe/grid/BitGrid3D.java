@@ -0,0 +1,338 @@
+package tictactoe.grid;
+
+import tictactoe.grid.exceptions.PositionInvalidException;
+import tictactoe.grid.exceptions.PositionUsedException;
+
+import java.io.Serializable;
+
+/**
+ * Class BitGrid3D
+ * 3D grid of at most 4x4x4 cells where the stones of each player are stored as the bits of a long.
+ * Cell x,y,z is the bit x+y*size+z*size*size. Only 'X' and 'O' (in any case) can be placed, they are read back in upper case.
+ * Every winning line (76 for the 4x4x4 cube) is checked against a precomputed mask table.
+ * @version 1
+ */
+public class BitGrid3D implements Grid, Serializable {
+    /**
+     * biggest size that fits in a long
+     */
+    public static final int MAX_SIZE = 4;
+
+    /**
+     * masks of the winning lines passing through each cell, indexed by [size][cell]
+     */
+    private static final long[][][] CELL_LINES = new long[MAX_SIZE+1][][];
+
+    /**
+     * zobrist keys, indexed by size
+     */
+    private static final ZobristKeys[] KEYS = new ZobristKeys[MAX_SIZE+1];
+
+    static {
+        for (int size = 1; size <= MAX_SIZE; size++) {
+            CELL_LINES[size] = WinningLines.of(size, 3).getCellMasks();
+            KEYS[size] = ZobristKeys.of(size, 3);
+        }
+    }
+
+    /**
+     * size of the grid
+     */
+    private final int size;
+
+    /**
+     * cells used by X
+     */
+    private long xStones;
+
+    /**
+     * cells used by O
+     */
+    private long oStones;
+
+    /**
+     * winning cells of the last place
+     */
+    private long winner;
+
+    /**
+     * zobrist hash of the stones, rebuilt lazily after a deserialization
+     */
+    private transient long hash;
+
+    /**
+     * true when hash matches the stones
+     */
+    private transient boolean hashValid;
+
+    /**
+     * @param size size of the grid, between 1 and {@link BitGrid3D#MAX_SIZE}
+     */
+    public BitGrid3D(int size) {
+        if (size < 1 || size > MAX_SIZE)
+            throw new IllegalArgumentException("Grid size must be between 1 and " + MAX_SIZE);
+        this.size = size;
+        this.hashValid = true;
+    }
+
+    /**
+     * @return size of the grid
+     */
+    @Override
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * @return grid's total size
+     */
+    @Override
+    public int getTotalSize() {
+        return this.size * this.size * this.size;
+    }
+
+    /**
+     * @return grid's dimension
+     */
+    @Override
+    public int getDimension() {
+        return 3;
+    }
+
+    /**
+     * @return count remaining cell
+     */
+    @Override
+    public int getRemainingCells() {
+        return this.size * this.size * this.size - Long.bitCount(this.xStones | this.oStones);
+    }
+
+    /**
+     * @param x x position
+     * @param y y position
+     * @param z z position
+     * @return cell's value
+     */
+    public char getValue(int x, int y, int z) {
+        return getValue(x + y * this.size + z * this.size * this.size);
+    }
+
+    /**
+     * @param position [0,n*n*n[
+     * @return cell's value
+     */
+    @Override
+    public char getValue(int position) {
+        long bit = 1L << position;
+        if ((this.xStones & bit) != 0) return 'X';
+        if ((this.oStones & bit) != 0) return 'O';
+        return '\0';
+    }
+
+    /**
+     * set cell value
+     * @param position [0,n*n*n[
+     * @param value 'X', 'O' or '\0' to empty the cell
+     */
+    @Override
+    public void setValue(int position, char value) {
+        long bit = 1L << position;
+        char previous = getValue(position);
+        this.xStones &= ~bit;
+        this.oStones &= ~bit;
+        if (value != '\0') {
+            if (isX(value)) this.xStones |= bit;
+            else this.oStones |= bit;
+        }
+        updateHash(position, previous, value);
+    }
+
+    /**
+     * undo a place : empty the cell and forget the winning cells of the last place
+     * @param position [0,n*n*n[
+     */
+    @Override
+    public void unplace(int position) {
+        updateHash(position, getValue(position), '\0');
+        long bit = ~(1L << position);
+        this.xStones &= bit;
+        this.oStones &= bit;
+        this.winner = 0;
+    }
+
+    /**
+     * @param x x position
+     * @param y y position
+     * @param z z position
+     * @return true if cell is a winning cell
+     */
+    public boolean getCellStatus(int x, int y, int z) {
+        return getCellStatus(x + y * this.size + z * this.size * this.size);
+    }
+
+    /**
+     * @param position [0,n*n*n[
+     * @return true if cell is a winning cell
+     */
+    @Override
+    public boolean getCellStatus(int position) {
+        return (this.winner & (1L << position)) != 0;
+    }
+
+    /**
+     * @return zobrist hash of the stones
+     */
+    @Override
+    public long hash() {
+        if (!this.hashValid) {
+            this.hash = KEYS[this.size].hash(this);
+            this.hashValid = true;
+        }
+        return this.hash;
+    }
+
+    /**
+     * @return an independent copy of the grid
+     */
+    @Override
+    public BitGrid3D copy() {
+        BitGrid3D copy = new BitGrid3D(this.size);
+        copy.xStones = this.xStones;
+        copy.oStones = this.oStones;
+        copy.winner = this.winner;
+        copy.hash = this.hash;
+        copy.hashValid = this.hashValid;
+        return copy;
+    }
+
+    /**
+     * keep the hash up to date when a cell changes
+     * @param position cell index
+     * @param previous old value of the cell
+     * @param value new value of the cell
+     */
+    private void updateHash(int position, char previous, char value) {
+        if (!this.hashValid) return;
+        if (previous != '\0') this.hash ^= KEYS[this.size].get(position, previous);
+        if (value != '\0') this.hash ^= KEYS[this.size].get(position, value);
+    }
+
+    /**
+     * @param player player charactere
+     * @return true if the player is X, false if it is O
+     */
+    private static boolean isX(char player) {
+        if (player == 'X' || player == 'x') return true;
+        if (player == 'O' || player == 'o') return false;
+        throw new IllegalArgumentException("Unknown player " + player);
+    }
+
+    /**
+     * place a player cell
+     * @param position the cell position as [A-Z]\d
+     * @param player player charactere
+     * @return true if the player won
+     * @throws PositionInvalidException
+     * @throws PositionUsedException
+     */
+    @Override
+    public boolean place(String position, char player) throws PositionInvalidException, PositionUsedException {
+        int[] positionArray = Grid3D.getPosition(position, this.size);
+        return this.place(positionArray[0] + positionArray[1] * this.size + positionArray[2] * this.size * this.size, player);
+    }
+
+    /**
+     * place a player cell
+     * @param position the case number
+     * @param player player charactere
+     * @return true if the player won
+     * @throws PositionUsedException
+     * @throws PositionInvalidException
+     */
+    @Override
+    public boolean place(int position, char player) throws PositionUsedException, PositionInvalidException {
+        if (position < 0 || position >= this.size * this.size * this.size)
+            throw new PositionInvalidException();
+        long bit = 1L << position;
+        if (((this.xStones | this.oStones) & bit) != 0)
+            throw new PositionUsedException();
+
+        long stones;
+        if (isX(player)) stones = this.xStones |= bit;
+        else stones = this.oStones |= bit;
+        updateHash(position, '\0', player);
+
+        this.winner = 0;
+        for (long line : CELL_LINES[this.size][position]) {
+            if ((stones & line) == line) {
+                this.winner |= line;
+            }
+        }
+        return this.winner != 0;
+    }
+
+    /**
+     * @param position the case number
+     * @return true if the cell is used
+     * @throws PositionInvalidException
+     */
+    @Override
+    public boolean isCellUsed(String position) throws PositionInvalidException {
+        int[] positionArray = Grid3D.getPosition(position, this.size);
+        long bit = 1L << (positionArray[0] + positionArray[1] * this.size + positionArray[2] * this.size * this.size);
+        return ((this.xStones | this.oStones) & bit) != 0;
+    }
+
+    /**
+     * @return lines representing the grid
+     */
+    public String[] getGridAsStrings() {
+        return Grid3D.getCubeAsStrings(this, -1, -1, -1, '\0');
+    }
+
+    /**
+     * @param position string position ex "A1"
+     * @param player player character
+     * @return lines representing the grid with the selection
+     */
+    public String[] getGridAsStrings(String position, char player) {
+        try {
+            int[] positionArray = Grid3D.getPosition(position, this.size);
+            return Grid3D.getCubeAsStrings(this, positionArray[0], positionArray[1], positionArray[2], player);
+        } catch (Exception e) {
+            //If selection not valid return default grid
+            return getGridAsStrings();
+        }
+    }
+
+    /**
+     * Print 3D grid
+     */
+    @Override
+    public void display() {
+        for (String ligne : this.getGridAsStrings()) {
+            System.out.println(ligne);
+        }
+    }
+
+    /**
+     * Print 3D grid
+     */
+    @Override
+    public void display(String position, char player) {
+        for (String ligne : this.getGridAsStrings(position, player)) {
+            System.out.println(ligne);
+        }
+    }
+
+    /**
+     * 3d Grid as string
+     */
+    public String toString() {
+        String result = "";
+        for (String ligne : this.getGridAsStrings()) {
+            result += ligne + '\n';
+        }
+        return result;
+    }
+}
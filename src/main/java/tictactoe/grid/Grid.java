@@ -10,6 +10,11 @@ import tictactoe.grid.exceptions.PositionUsedException;
  * @version 1
  */
 public interface Grid extends Displayable {
+    /**
+     * Most cells of a grid, a larger one would take the memory of every game of a server
+     */
+    int MAX_CELLS = 1 << 16;
+
     /**
      * place a player cell
      * @param position the case number
@@ -48,6 +53,11 @@ public interface Grid extends Displayable {
      */
     public int getTotalSize();
 
+    /**
+     * @return dimension of the grid (2 or 3)
+     */
+    public int getDimension();
+
     /**
      * @param position [0,n^x[ x=dimension of the grid
      * @return cell's value
@@ -61,6 +71,30 @@ public interface Grid extends Displayable {
      */
     public void setValue(int position, char value);
 
+    /**
+     * undo a place : empty the cell and forget the winning cells of the last place
+     * @param position [0,n^x[ x=dimension of the grid
+     */
+    public void unplace(int position);
+
+    /**
+     * @param position [0,n^x[ x=dimension of the grid
+     * @return true if cell is a winning cell
+     */
+    public boolean getCellStatus(int position);
+
+    /**
+     * Zobrist hash of the cells, see {@link ZobristKeys}. It is kept up to date by place, setValue and unplace,
+     * two grids of the same shape holding the same stones have the same hash.
+     * @return hash of the position
+     */
+    public long hash();
+
+    /**
+     * @return an independent grid of the same class holding the same cells, winning cells and hash
+     */
+    public Grid copy();
+
     /**
      * @return count remaining cell
      */
@@ -76,4 +110,59 @@ public interface Grid extends Displayable {
      */
     public void display(String position,char player);
 
+    /**
+     * Create the fastest grid implementation available for the given shape
+     * @param size size of the grid
+     * @param dimension dimension of the grid (2 or 3)
+     * @return an empty grid
+     * @throws IllegalArgumentException if the dimension is not supported or the grid has more than
+     * {@link Grid#MAX_CELLS} cells
+     */
+    static Grid create(int size, int dimension) {
+        long cells = dimension == 3 ? (long) size * size * size : (long) size * size;
+        if (size < 1 || cells > MAX_CELLS) {
+            throw new IllegalArgumentException("Grid size invalid !");
+        }
+        if (dimension == 2) {
+            return size <= BitGrid2D.MAX_SIZE ? new BitGrid2D(size) : new Grid2D(size, true);
+        }
+        if (dimension == 3) {
+            return size <= BitGrid3D.MAX_SIZE ? new BitGrid3D(size) : new Grid3D(size);
+        }
+        throw new IllegalArgumentException("Grid format invalid !");
+    }
+
+    /**
+     * Class of the grid built by {@link Grid#create(int, int)}, used to deserialize a grid of the given shape
+     * @param size size of the grid
+     * @param dimension dimension of the grid (2 or 3)
+     * @return the grid class
+     */
+    static Class<? extends Grid> getImplementation(int size, int dimension) {
+        if (dimension == 2) {
+            return size <= BitGrid2D.MAX_SIZE ? BitGrid2D.class : Grid2D.class;
+        }
+        if (dimension == 3) {
+            return size <= BitGrid3D.MAX_SIZE ? BitGrid3D.class : Grid3D.class;
+        }
+        throw new IllegalArgumentException("Grid format invalid !");
+    }
+
+    /**
+     * Copy the cells of a grid into the implementation built by {@link Grid#create(int, int)} for its shape
+     * @param grid grid to convert
+     * @return the grid itself if it already uses the right implementation, else a copy
+     */
+    static Grid convert(Grid grid) {
+        if (grid.getClass() == getImplementation(grid.getSize(), grid.getDimension())) {
+            return grid;
+        }
+        Grid converted = create(grid.getSize(), grid.getDimension());
+        for (int position = 0; position < grid.getTotalSize(); position++) {
+            if (grid.getValue(position) != '\0') {
+                converted.setValue(position, grid.getValue(position));
+            }
+        }
+        return converted;
+    }
 }
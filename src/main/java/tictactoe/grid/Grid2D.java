@@ -17,9 +17,14 @@ public class Grid2D implements Grid, Serializable {
     private final char[][] grid;
 
     /**
-     * grid of winning cells
+     * lines completed by the last place : rows [0,n[, columns [n,2n[, diagonal 2n, anti-diagonal 2n+1
      */
-    private boolean[][] gridWinner;
+    private int[] winningLines;
+
+    /**
+     * number of lines used in winningLines
+     */
+    private int winningLineCount;
 
     /**
      * size of the grid
@@ -31,14 +36,115 @@ public class Grid2D implements Grid, Serializable {
      */
     private int remainingCells;
 
+    /**
+     * true if the grid keeps a stone count per line, so a win is found without scanning the lines
+     */
+    private final boolean lineCounters;
+
+    /**
+     * X stones count per line : rows [0,n[, columns [n,2n[, diagonal 2n, anti-diagonal 2n+1
+     */
+    private transient int[] xCount;
+
+    /**
+     * O stones count per line, same indexes as xCount
+     */
+    private transient int[] oCount;
+
+    /**
+     * zobrist hash of the cells, rebuilt lazily after a deserialization
+     */
+    private transient long hash;
+
+    /**
+     * true when hash matches the cells
+     */
+    private transient boolean hashValid;
+
+    /**
+     * zobrist keys of this shape, not serialized
+     */
+    private transient ZobristKeys keys;
+
     /**
      * @param size size of the grid
      */
     public Grid2D(int size) {
+        this(size, false);
+    }
+
+    /**
+     * @param size size of the grid
+     * @param lineCounters true to keep a stone count per line, only 'X' and 'O' (in any case) can then be placed
+     */
+    public Grid2D(int size, boolean lineCounters) {
         this.size = size;
         this.grid = new char[size][size];
-        this.gridWinner = new boolean[size][size];
         this.remainingCells = size*size;
+        this.lineCounters = lineCounters;
+        this.hashValid = true;
+    }
+
+    /**
+     * @return true if the grid keeps a stone count per line
+     */
+    public boolean hasLineCounters() {
+        return this.lineCounters;
+    }
+
+    /**
+     * Counters are not serialized, rebuild them from the cells if needed
+     */
+    private void initCounters() {
+        if (this.xCount != null) return;
+        this.xCount = new int[2*this.size+2];
+        this.oCount = new int[2*this.size+2];
+        for (int x = 0; x < this.size; x++) {
+            for (int y = 0; y < this.size; y++) {
+                if (this.grid[x][y] != '\0') updateCounters(x, y, this.grid[x][y], 1);
+            }
+        }
+    }
+
+    /**
+     * Add a stone to (or remove it from) the counters of the lines passing through a cell
+     * @param x x position
+     * @param y y position
+     * @param player player charactere
+     * @param delta 1 when the stone is added, -1 when removed
+     * @return the highest count of the player among these lines
+     */
+    private int updateCounters(int x, int y, char player, int delta) {
+        int[] count = getCounters(player);
+        int max = count[y] += delta;
+        max = Math.max(max, count[this.size+x] += delta);
+        if (x == y) max = Math.max(max, count[2*this.size] += delta);
+        if (x + y == this.size-1) max = Math.max(max, count[2*this.size+1] += delta);
+        return max;
+    }
+
+    /**
+     * @param player player charactere
+     * @return stone count of the player per line
+     */
+    private int[] getCounters(char player) {
+        if (player == 'X' || player == 'x') return this.xCount;
+        if (player == 'O' || player == 'o') return this.oCount;
+        throw new IllegalArgumentException("Unknown player " + player);
+    }
+
+    /**
+     * Record the lines of a cell the player has completed, as told by the counters
+     * @param x x position
+     * @param y y position
+     * @param player player charactere
+     */
+    private void addFullLines(int x, int y, char player) {
+        int[] count = getCounters(player);
+        if (count[this.size+x] == this.size) addWinningLine(this.size+x);
+        if (count[y] == this.size) addWinningLine(y);
+        if (x == y && count[2*this.size] == this.size) addWinningLine(2*this.size);
+        if (x + y == this.size-1 && count[2*this.size+1] == this.size) addWinningLine(2*this.size+1);
     }
 
     /**
@@ -77,12 +183,27 @@ public class Grid2D implements Grid, Serializable {
      * @return lines representing the grid with the selection
      */
     public String[] getGridAsStrings(int selectedX, int selectedY,char player){
-        String[] out = new String[this.size];
+        return getLayerAsStrings(this, 0, selectedX, selectedY, player);
+    }
+
+    /**
+     * Draw one layer (size*size cells) of any grid
+     * @param grid grid to draw
+     * @param layer index of the layer, always 0 for a 2D grid
+     * @param selectedX selected cell's x axe
+     * @param selectedY selected cell's y axe
+     * @param player player character
+     * @return lines representing the layer with the selection
+     */
+    static String[] getLayerAsStrings(Grid grid, int layer, int selectedX, int selectedY, char player){
+        int size = grid.getSize();
+        int offset = layer*size*size;
+        String[] out = new String[size];
         //number of character needed for the biggest number
-        int log = (int)Math.log10(this.size*this.size)+1;
-        for(int y = 0; y < this.size; y++){
+        int log = (int)Math.log10(size*size)+1;
+        for(int y = 0; y < size; y++){
             out[y] = "|";
-            for(int x = 0; x < this.size; x++){
+            for(int x = 0; x < size; x++){
 
                 if(selectedX == x && selectedY == y){
                     out[y] += ANSI_RED + ">" +  String.format("%1$" + log + "s", player) + "<"+ ANSI_RESET;
@@ -93,30 +214,31 @@ public class Grid2D implements Grid, Serializable {
                     out[y] += " ";
                 }
 
-                if(this.grid[x][y] == '\0'){
+                char value = grid.getValue(offset+x+y*size);
+                if(value == '\0'){
                     //complete smaller number to be as long as the biggest number
-                    out[y] += String.format("%1$" + log + "s", x+y*this.size+1);
+                    out[y] += String.format("%1$" + log + "s", x+y*size+1);
                 }
-                else if(gridWinner[x][y]){
+                else if(grid.getCellStatus(offset+x+y*size)){
                     out[y] +=
                             //Add color green to display
                             ANSI_GREEN
                             //complete smaller number to be as long as the biggest number
-                            + String.format("%1$" + log + "s", this.grid[x][y])
+                            + String.format("%1$" + log + "s", value)
                             //end color
                             + ANSI_RESET;
                 }
                 else {
                     out[y] += //Add color yellow to x player and blue to o player
-                            (this.grid[x][y] == 'X' ? ANSI_YELLOW : ANSI_BLUE)
+                            (value == 'X' ? ANSI_YELLOW : ANSI_BLUE)
                                     //complete smaller number to be as long as the biggest number
-                                    + String.format("%1$" + log + "s", this.grid[x][y])
+                                    + String.format("%1$" + log + "s", value)
                                     //end color
                                     + ANSI_RESET;
 
                 }
             }
-            if (!(selectedX == this.size-1 && selectedY == y)) {
+            if (!(selectedX == size-1 && selectedY == y)) {
                 out[y] += " ";
             }
             out[y] += "|";
@@ -140,6 +262,14 @@ public class Grid2D implements Grid, Serializable {
         return this.size * this.size;
     }
 
+    /**
+     * @return grid's dimension
+     */
+    @Override
+    public int getDimension() {
+        return 2;
+    }
+
     /**
      * @param x x position
      * @param y y position
@@ -166,6 +296,16 @@ public class Grid2D implements Grid, Serializable {
         this.setValue(position%this.size,position /this.size,value);
     }
 
+    /**
+     * undo a place : empty the cell and forget the winning cells of the last place
+     * @param position [0,n*n[
+     */
+    @Override
+    public void unplace(int position){
+        this.setValue(position%this.size,position /this.size,'\0');
+        this.winningLineCount = 0;
+    }
+
     /**
      * set cell value
      * @param x x position
@@ -173,12 +313,18 @@ public class Grid2D implements Grid, Serializable {
      * @param value value to be set
      */
     public void setValue(int x, int y, char value){
+        if(this.lineCounters){
+            initCounters();
+            if(grid[x][y] != '\0') updateCounters(x, y, grid[x][y], -1);
+            if(value != '\0') updateCounters(x, y, value, 1);
+        }
         if(grid[x][y] == '\0' && value != '\0' ){
             this.remainingCells--;
         }
         else if(grid[x][y] != '\0' && value == '\0'){
             this.remainingCells++;
         }
+        updateHash(x+y*this.size, grid[x][y], value);
         grid[x][y] = value;
     }
 
@@ -188,7 +334,87 @@ public class Grid2D implements Grid, Serializable {
      * @return true if cell is a winning cell
      */
     public boolean getCellStatus(int x, int y) {
-        return gridWinner[x][y];
+        for (int i = 0; i < this.winningLineCount; i++) {
+            int line = this.winningLines[i];
+            if (line < this.size ? line == y
+                    : line < 2*this.size ? line-this.size == x
+                    : line == 2*this.size ? x == y
+                    : x+y == this.size-1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param position [0,n*n[
+     * @return true if cell is a winning cell
+     */
+    public boolean getCellStatus(int position) {
+        return getCellStatus(position%this.size, position/this.size);
+    }
+
+    /**
+     * @return zobrist hash of the cells
+     */
+    @Override
+    public long hash() {
+        if (!this.hashValid) {
+            this.hash = this.getKeys().hash(this);
+            this.hashValid = true;
+        }
+        return this.hash;
+    }
+
+    /**
+     * @return an independent copy of the grid, its line counters are rebuilt when first needed
+     */
+    @Override
+    public Grid2D copy() {
+        Grid2D copy = new Grid2D(this.size, this.lineCounters);
+        for (int x = 0; x < this.size; x++) {
+            System.arraycopy(this.grid[x], 0, copy.grid[x], 0, this.size);
+        }
+        copy.remainingCells = this.remainingCells;
+        copy.winningLines = this.winningLines == null ? null : this.winningLines.clone();
+        copy.winningLineCount = this.winningLineCount;
+        copy.hash = this.hash;
+        copy.hashValid = this.hashValid;
+        return copy;
+    }
+
+    /**
+     * keep the hash up to date when a cell changes
+     * @param position cell index
+     * @param previous old value of the cell
+     * @param value new value of the cell
+     */
+    private void updateHash(int position, char previous, char value) {
+        if (!this.hashValid) return;
+        if (previous != '\0') this.hash ^= this.getKeys().get(position, previous);
+        if (value != '\0') this.hash ^= this.getKeys().get(position, value);
+    }
+
+    /**
+     * @return zobrist keys of this shape, shared by every grid of the same size
+     */
+    private ZobristKeys getKeys() {
+        if (this.keys == null) {
+            this.keys = ZobristKeys.of(this.size, 2);
+        }
+        return this.keys;
+    }
+
+    /**
+     * Record a completed line, the storage is only allocated on the first win
+     * @param line line identifier
+     */
+    private void addWinningLine(int line){
+        if(this.winningLines == null){
+            //at most a row, a column and the 2 diagonals are completed at once
+            this.winningLines = new int[4];
+        }
+        this.winningLines[this.winningLineCount++] = line;
     }
 
 
@@ -205,9 +431,7 @@ public class Grid2D implements Grid, Serializable {
             }
         }
         if(win){
-            for (int y = 0; y < this.size; y++) {
-                gridWinner[x][y] = true;
-            }
+            addWinningLine(this.size+x);
         }
         return win;
     }
@@ -226,9 +450,7 @@ public class Grid2D implements Grid, Serializable {
         }
         //on stocke les coups gagnants
         if(win){
-            for (int x = 0; x < this.size; x++) {
-                gridWinner[x][y] = true;
-            }
+            addWinningLine(y);
         }
         return win;
     }
@@ -246,9 +468,7 @@ public class Grid2D implements Grid, Serializable {
             }
         }
         if(winDiag1) {
-            for (int i = 0; i < this.size; i++) {
-                gridWinner[i][i] = true;
-            }
+            addWinningLine(2*this.size);
         }
         boolean winDiag2 = true;
         for (int i = 0; i < this.size; i++) {
@@ -258,22 +478,11 @@ public class Grid2D implements Grid, Serializable {
             }
         }
         if(winDiag2){
-            for (int i = 0; i < this.size; i++) {
-                gridWinner[i][this.size-1-i] = true;
-            }
+            addWinningLine(2*this.size+1);
         }
         return winDiag1 || winDiag2;
     }
 
-    /**
-     * Set cell as winning cell
-     * @param x x position
-     * @param y y position
-     */
-    public void setCellWinner(int x, int y){
-        this.gridWinner[x][y] = true;
-    }
-
     /**
      * place a player cell
      * @param position the case number
@@ -312,7 +521,17 @@ public class Grid2D implements Grid, Serializable {
         //check if cell is not already used
         if (this.grid[x][y] != '\0')
             throw new PositionUsedException();
-        this.gridWinner = new boolean[this.size][this.size];
+        this.winningLineCount = 0;
+        updateHash(x+y*this.size, '\0', player);
+        if (this.lineCounters) {
+            initCounters();
+            //a line of this cell is full when its counter reaches the size
+            boolean win = updateCounters(x, y, player, 1) == this.size;
+            this.grid[x][y] = player;
+            this.remainingCells--;
+            if (win) addFullLines(x, y, player);
+            return win;
+        }
         this.grid[x][y] = player;
         this.remainingCells--;
         return checkColumn(x,player) | checkRow(y,player) | checkDiagonals(player);
@@ -7,31 +7,91 @@ import java.io.Serializable;
 
 /**
  * Class grid3D
+ * Cells are stored in one flat array, cell x,y,z being at x+y*size+z*size*size.
  * @author Halvick Thomas
- * @version 2
+ * @version 3
  */
 public class Grid3D implements Grid, Serializable {
 
     /**
-     * 3d grid
+     * 3d grid, one byte per cell holding the player character or 0
      */
-    private Grid2D[] grid;
+    private final byte[] cells;
+
+    /**
+     * lines completed by the last place, as indexes of {@link WinningLines}
+     */
+    private int[] winningLines;
+
+    /**
+     * number of lines used in winningLines
+     */
+    private int winningLineCount;
 
     /**
      * size of the grid
      */
     private int size;
 
+    /**
+     * Remaining cell to be played
+     */
+    private int remainingCells;
+
+    /**
+     * winning lines of this shape, not serialized
+     */
+    private transient WinningLines lines;
+
+    /**
+     * zobrist hash of the cells, rebuilt lazily after a deserialization
+     */
+    private transient long hash;
+
+    /**
+     * true when hash matches the cells
+     */
+    private transient boolean hashValid;
+
+    /**
+     * zobrist keys of this shape, not serialized
+     */
+    private transient ZobristKeys keys;
+
 
     /**
      * @param size size of the grid
      */
     public Grid3D(int size) {
         this.size = size;
-        this.grid = new Grid2D[size];
-        for (int i = 0; i < size; i++) {
-            this.grid[i] = new Grid2D(size);
+        this.cells = new byte[size*size*size];
+        this.remainingCells = size*size*size;
+        this.hashValid = true;
+    }
+
+    /**
+     * Rebuild a grid saved with the layered layout of version 2, one {@link Grid2D} per z
+     * @param layers layers of the saved grid, layer z holding the cells x,y,z
+     * @return the grid in the flat layout
+     * @throws IllegalArgumentException if a layer is missing or is not of the grid size
+     */
+    public static Grid3D fromLayers(Grid2D[] layers) {
+        int size = layers.length;
+        Grid3D grid = new Grid3D(size);
+        for (int z = 0; z < size; z++) {
+            if (layers[z] == null || layers[z].getSize() != size) {
+                throw new IllegalArgumentException("Layer " + z + " invalid");
+            }
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    char value = layers[z].getValue(x, y);
+                    if (value != '\0') {
+                        grid.setValue(x + y*size + z*size*size, value);
+                    }
+                }
+            }
         }
+        return grid;
     }
 
     /**
@@ -50,16 +110,20 @@ public class Grid3D implements Grid, Serializable {
         return this.size * this.size* this.size;
     }
 
+    /**
+     * @return grid's dimension
+     */
+    @Override
+    public int getDimension() {
+        return 3;
+    }
+
     /**
      * @return count remaining cell
      */
     @Override
     public int getRemainingCells() {
-        int sum  = 0;
-        for (Grid grid:this.grid) {
-            sum+= grid.getRemainingCells();
-        }
-        return  sum;
+        return this.remainingCells;
     }
 
     /**
@@ -93,56 +157,50 @@ public class Grid3D implements Grid, Serializable {
      * @return lines representing the grid with the selection
      */
     public String[] getGridAsStrings(int selectedX, int selectedY, int selectedZ,char player){
-        String[] out = new String[this.size+1];
+        return getCubeAsStrings(this, selectedX, selectedY, selectedZ, player);
+    }
+
+    /**
+     * Draw the layers of any 3D grid side by side
+     * @param grid grid to draw
+     * @param selectedX selected cell's x axe
+     * @param selectedY selected cell's y axe
+     * @param selectedZ selected cell's z axe
+     * @param player player character
+     * @return lines representing the grid with the selection
+     */
+    static String[] getCubeAsStrings(Grid grid, int selectedX, int selectedY, int selectedZ, char player){
+        int size = grid.getSize();
+        String[] out = new String[size+1];
         for(int i = 0; i < out.length;i++){
             out[i] = "";
         }
-        for(int z = 0; z < this.size; z++){
+        for(int z = 0; z < size; z++){
             String[] out2D;
 
             //If z axe is selected
             if(selectedZ == z){
-                out2D = this.grid[z].getGridAsStrings(selectedX,selectedY,player);
+                out2D = Grid2D.getLayerAsStrings(grid, z, selectedX, selectedY, player);
             }
             else{
-                out2D = this.grid[z].getGridAsStrings();
+                out2D = Grid2D.getLayerAsStrings(grid, z, -1, -1, '\0');
             }
 
-            for(int i = 0; i < this.size;i++){
+            for(int i = 0; i < size;i++){
                 out[i+1] += (out[i+1] != "" ? "\t" : "") + out2D[i];
             }
         }
         //number of caracter needed for the bigest number
-        int log = (int)Math.log10(this.size*this.size)+1;
+        int log = (int)Math.log10(size*size)+1;
         //Size of one grid = size * log + space (= size + 1)
         //midle is Size/2
-        String space = " ".repeat(((log*this.size+this.size+1)/2));
-        for(int i = 0; i < this.size;i++){
+        String space = " ".repeat(((log*size+size+1)/2));
+        for(int i = 0; i < size;i++){
             out[0] += (out[0] != "" ? "\t" : "") +space +"("+(char)(i+65)+")"+ space;
         }
         return out;
     }
 
-    /**
-     * @param player player charactere to check
-     * @return true if at least one of z axes is completed
-     */
-    private boolean checkDepth(int x,int y,char player) {
-        boolean win = true;
-        for (int z = 0; z < this.size; z++) {
-            if (grid[z].getValue(x, y) != player) {
-                win = false;
-                break;
-            }
-        }
-        if (win) {
-            for (int z = 0; z < this.size; z++) {
-                grid[z].setCellWinner(x, y);
-            }
-        }
-        return win;
-    }
-
     /**
      * @param x x position
      * @param y y position
@@ -150,7 +208,7 @@ public class Grid3D implements Grid, Serializable {
      * @return cell's value
      */
     public char getValue(int x, int y,int z) {
-        return grid[z].getValue(x,y);
+        return getValue(x+y*this.size+z*this.size*this.size);
     }
 
     /**
@@ -158,7 +216,7 @@ public class Grid3D implements Grid, Serializable {
      * @return cell's value
      */
     public char getValue(int position) {
-        return grid[position /(this.size*this.size)].getValue(position%this.size,(position /this.size)%this.size);
+        return (char)(this.cells[position] & 0xFF);
     }
 
     /**
@@ -167,7 +225,28 @@ public class Grid3D implements Grid, Serializable {
      * @param value value to be set
      */
     public void setValue(int position, char value){
-        grid[position /(this.size*this.size)].setValue(position%this.size,(position /this.size)%this.size,value);
+        if(this.cells[position] == 0 && value != '\0'){
+            this.remainingCells--;
+        }
+        else if(this.cells[position] != 0 && value == '\0'){
+            this.remainingCells++;
+        }
+        updateHash(position, this.getValue(position), value);
+        this.cells[position] = (byte) value;
+    }
+
+    /**
+     * undo a place : empty the cell and forget the winning cells of the last place
+     * @param position [0,n*n*n[
+     */
+    @Override
+    public void unplace(int position){
+        if(this.cells[position] != 0){
+            updateHash(position, this.getValue(position), '\0');
+            this.cells[position] = 0;
+            this.remainingCells++;
+        }
+        this.winningLineCount = 0;
     }
 
     /**
@@ -177,156 +256,80 @@ public class Grid3D implements Grid, Serializable {
      * @return true if cell is a winning cell
      */
     public boolean getCellStatus(int x, int y,int z) {
-        return grid[z].getCellStatus(x,y);
+        return getCellStatus(x+y*this.size+z*this.size*this.size);
     }
 
     /**
-     * @param player player charactere to check
-     * @return true if one of the X diagonals parallel to the Y axis is completed
+     * @param position [0,n*n*n[
+     * @return true if cell is a winning cell
      */
-    private boolean checkCrossX(char player){
-        boolean win = false;
-        for (int y = 0; y < this.size; y++) {
-            boolean diagonalWin = true;
-            for (int i = 0; i < this.size; i++) {
-                if(grid[i].getValue(i, y) != player){
-                    diagonalWin=false;
-                    break;
-                }
-            }
-            if(diagonalWin){
-                win=true;
-                for (int i = 0; i < this.size; i++) {
-                    this.grid[i].setCellWinner(i,y);
-                }
-            }
-        }
-
-        for (int y = 0; y < this.size; y++) {
-            boolean diagonalWin = true;
-            for (int i = this.size-1; i >= 0; i--) {
-                if(grid[i].getValue(i, y) != player){
-                    diagonalWin=false;
-                    break;
-                }
-            }
-            if(diagonalWin){
-                win=true;
-                for (int i = this.size-1; i >= 0; i--) {
-                    this.grid[i].setCellWinner(i,y);
-                }
+    public boolean getCellStatus(int position) {
+        WinningLines lines = this.getLines();
+        for (int i = 0; i < this.winningLineCount; i++) {
+            for (int j = 0; j < this.size; j++) {
+                if (lines.getCell(this.winningLines[i], j) == position) return true;
             }
         }
-
-        return win;
+        return false;
     }
 
     /**
-     * @param player player charactere to check
-     * @return true if one of the Y diagonals parallel to the X axis is completed
+     * @return zobrist hash of the cells
      */
-    private boolean checkCrossY(char player){
-        boolean win = false;
-        for (int x = 0; x < this.size; x++) {
-            boolean diagonalWin = true;
-            for (int i = 0; i < this.size; i++) {
-                if(grid[i].getValue(x, i) != player){
-                    diagonalWin=false;
-                    break;
-                }
-            }
-            if(diagonalWin){
-                win=true;
-                for (int i = 0; i < this.size; i++) {
-                    this.grid[i].setCellWinner(x,i);
-                }
-            }
-        }
-
-        for (int x = 0; x < this.size; x++) {
-            boolean diagonalWin = true;
-            for (int i = this.size-1; i >=0 ; i--) {
-                if(grid[i].getValue(x, i) != player){
-                    diagonalWin=false;
-                    break;
-                }
-            }
-            if(diagonalWin){
-                win=true;
-                for (int i = this.size-1; i >=0 ; i--) {
-                    this.grid[i].setCellWinner(x,i);
-
-                }
-            }
+    @Override
+    public long hash() {
+        if (!this.hashValid) {
+            this.hash = this.getKeys().hash(this);
+            this.hashValid = true;
         }
-        return win;
+        return this.hash;
     }
 
     /**
-     * @param player player charactere to check
-     * @return true if one of the diagonals between 2 of the 8 corners is completed
+     * @return an independent copy of the grid
      */
-    private boolean checkDiagonals(char player) {
-        boolean win = false;
-
-        boolean diagonalWin = true;
-        for (int i = 0; i < this.size; i++) {
-            if(grid[i].getValue(i, i) != player){
-                diagonalWin = false;
-                break;
-            }
-        }
-        if(diagonalWin){
-            win=true;
-            for (int i = 0; i < this.size; i++) {
-                this.grid[i].setCellWinner(i,i);
-            }
-        }
-
-        diagonalWin = true;
-        for (int i = this.size-1; i >= 0 ; i--) {
-            if(grid[this.size-1-i].getValue(i, i) != player){
-                diagonalWin = false;
-                break;
-            }
-        }
-        if(diagonalWin){
-            win=true;
-            for (int i = this.size-1; i >= 0 ; i--) {
-                this.grid[this.size-1-i].setCellWinner(i,i);
-            }
-        }
+    @Override
+    public Grid3D copy() {
+        Grid3D copy = new Grid3D(this.size);
+        System.arraycopy(this.cells, 0, copy.cells, 0, this.cells.length);
+        copy.remainingCells = this.remainingCells;
+        copy.winningLines = this.winningLines == null ? null : this.winningLines.clone();
+        copy.winningLineCount = this.winningLineCount;
+        copy.hash = this.hash;
+        copy.hashValid = this.hashValid;
+        return copy;
+    }
 
-        diagonalWin = true;
-        for (int i = 0; i < this.size; i++) {
-            if(grid[i].getValue(i, this.size-1-i) != player){
-                diagonalWin = false;
-                break;
-            }
-        }
-        if(diagonalWin){
-            win=true;
-            for (int i = 0; i < this.size; i++) {
-                this.grid[i].setCellWinner(i,this.size-1-i);
-            }
-        }
+    /**
+     * keep the hash up to date when a cell changes
+     * @param position cell index
+     * @param previous old value of the cell
+     * @param value new value of the cell
+     */
+    private void updateHash(int position, char previous, char value) {
+        if (!this.hashValid) return;
+        if (previous != '\0') this.hash ^= this.getKeys().get(position, previous);
+        if (value != '\0') this.hash ^= this.getKeys().get(position, value);
+    }
 
-        diagonalWin = true;
-        for (int i = 0; i < this.size; i++) {
-            if(grid[i].getValue(this.size-1-i,i ) != player){
-                diagonalWin = false;
-                break;
-            }
+    /**
+     * @return zobrist keys of this shape, shared by every grid of the same size
+     */
+    private ZobristKeys getKeys() {
+        if (this.keys == null) {
+            this.keys = ZobristKeys.of(this.size, 3);
         }
-        if(diagonalWin){
-            win=true;
-            for (int i = 0; i < this.size; i++) {
-                this.grid[i].setCellWinner(this.size-1-i,i);
+        return this.keys;
+    }
 
-            }
+    /**
+     * @return winning lines of this shape, shared by every grid of the same size
+     */
+    private WinningLines getLines() {
+        if (this.lines == null) {
+            this.lines = WinningLines.of(this.size, 3);
         }
-
-        return win;
+        return this.lines;
     }
 
     /**
@@ -339,8 +342,7 @@ public class Grid3D implements Grid, Serializable {
      */
     public boolean place(String position, char player) throws PositionInvalidException, PositionUsedException {
         int[] positionArray = getPosition(position,this.size);
-        boolean win2D = this.grid[positionArray[2]].place(positionArray[0],positionArray[1],player);
-        return  win2D | checkDepth(positionArray[0],positionArray[1],player) | checkCrossX(player) |  checkCrossY(player) | checkDiagonals(player);
+        return this.place(positionArray[0]+positionArray[1]*this.size+positionArray[2]*this.size*this.size, player);
     }
 
     /**
@@ -352,10 +354,36 @@ public class Grid3D implements Grid, Serializable {
      * @throws PositionInvalidException
      */
     public boolean place(int position, char player) throws PositionUsedException,PositionInvalidException {
-        int x = position%this.size;
-        int y = (position/this.size)%this.size;
-        boolean win2D = this.grid[position/(this.size*this.size)].place(x,y,player);
-        return  win2D | checkDepth(x,y,player) | checkCrossX(player) |  checkCrossY(player) | checkDiagonals(player);
+        if(position < 0 || position >= this.getTotalSize())
+            throw new PositionInvalidException();
+        if(this.cells[position] != 0)
+            throw new PositionUsedException();
+        this.winningLineCount = 0;
+        byte value = (byte) player;
+        this.cells[position] = value;
+        this.remainingCells--;
+        updateHash(position, '\0', this.getValue(position));
+
+        //only the lines passing through the placed cell can be completed
+        WinningLines lines = this.getLines();
+        for (int i = 0; i < lines.getLineCount(position); i++) {
+            int line = lines.getLine(position, i);
+            boolean lineWin = true;
+            for (int j = 0; j < this.size; j++) {
+                if(this.cells[lines.getCell(line, j)] != value){
+                    lineWin = false;
+                    break;
+                }
+            }
+            if(lineWin){
+                //storage only allocated on the first win, at most the 13 directions of a cell are completed at once
+                if(this.winningLines == null){
+                    this.winningLines = new int[13];
+                }
+                this.winningLines[this.winningLineCount++] = line;
+            }
+        }
+        return this.winningLineCount > 0;
     }
 
     /**
@@ -367,7 +395,7 @@ public class Grid3D implements Grid, Serializable {
     @Override
     public boolean isCellUsed(String position) throws PositionInvalidException {
         int[] positionArray = this.getPosition(position,this.size);
-        return this.grid[positionArray[2]].isCellUsed(positionArray[0],positionArray[1]);
+        return this.cells[positionArray[0]+positionArray[1]*this.size+positionArray[2]*this.size*this.size] != 0;
     }
 
     /**
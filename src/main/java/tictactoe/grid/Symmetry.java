@@ -0,0 +1,167 @@
+package tictactoe.grid;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class Symmetry
+ * Transform of a grid shape onto itself keeping its winning lines : a permutation of the axes followed by a mirror
+ * along some of them. A square has 8 of them, a cube 48. Positions transformed into each other have the same value,
+ * so tables can store one entry per class, for its canonical position.
+ * The canonical position of a grid is its smallest image, comparing the cells in index order ('\0' before 'O'
+ * before 'X'). {@link Symmetry#canonical(Grid)} gives the transform leading to it; a move found on the canonical
+ * position is brought back to the grid by {@link Symmetry#revert(int)}.
+ * @version 1
+ */
+public final class Symmetry {
+    /**
+     * transforms already built, by size*4+dimension
+     */
+    private static final ConcurrentHashMap<Integer, List<Symmetry>> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * index of the transform in the list of its shape, 0 for the identity
+     */
+    private final int index;
+
+    /**
+     * image of each cell
+     */
+    private final int[] image;
+
+    /**
+     * cell of each image, the inverse permutation
+     */
+    private final int[] preimage;
+
+    /**
+     * @param index index of the transform in the list of its shape
+     * @param image image of each cell
+     */
+    private Symmetry(int index, int[] image) {
+        this.index = index;
+        this.image = image;
+        this.preimage = new int[image.length];
+        for (int cell = 0; cell < image.length; cell++) {
+            this.preimage[image[cell]] = cell;
+        }
+    }
+
+    /**
+     * @param size size of the grid
+     * @param dimension dimension of the grid (2 or 3)
+     * @return the shared transforms of this shape, the identity first
+     */
+    public static List<Symmetry> of(int size, int dimension) {
+        if (size < 1 || (dimension != 2 && dimension != 3))
+            throw new IllegalArgumentException("Grid format invalid !");
+        return CACHE.computeIfAbsent(size * 4 + dimension, key -> build(size, dimension));
+    }
+
+    /**
+     * @param size size of the grid
+     * @param dimension dimension of the grid (2 or 3)
+     * @return every axis permutation combined with every set of mirrored axes
+     */
+    private static List<Symmetry> build(int size, int dimension) {
+        int cells = dimension == 2 ? size * size : size * size * size;
+        int[][] permutations = dimension == 2
+                ? new int[][]{{0, 1}, {1, 0}}
+                : new int[][]{{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}};
+        List<Symmetry> symmetries = new ArrayList<>();
+        int[] coordinates = new int[dimension];
+        for (int[] axes : permutations) {
+            for (int mirrors = 0; mirrors < 1 << dimension; mirrors++) {
+                int[] image = new int[cells];
+                for (int cell = 0; cell < cells; cell++) {
+                    for (int axis = 0, rest = cell; axis < dimension; axis++, rest /= size) {
+                        coordinates[axis] = rest % size;
+                    }
+                    int target = 0;
+                    for (int axis = dimension - 1; axis >= 0; axis--) {
+                        int coordinate = coordinates[axes[axis]];
+                        if ((mirrors >> axis & 1) != 0) coordinate = size - 1 - coordinate;
+                        target = target * size + coordinate;
+                    }
+                    image[cell] = target;
+                }
+                symmetries.add(new Symmetry(symmetries.size(), image));
+            }
+        }
+        return Collections.unmodifiableList(symmetries);
+    }
+
+    /**
+     * @return index of the transform in the list of its shape, 0 for the identity
+     */
+    public int getIndex() {
+        return this.index;
+    }
+
+    /**
+     * @param cell cell of the grid
+     * @return the cell it is moved to
+     */
+    public int apply(int cell) {
+        return this.image[cell];
+    }
+
+    /**
+     * @param cell cell of the transformed grid
+     * @return the cell of the grid moved to it
+     */
+    public int revert(int cell) {
+        return this.preimage[cell];
+    }
+
+    /**
+     * @param grid grid of the shape of the transform
+     * @return a new grid of the same shape holding the transformed cells
+     */
+    public Grid apply(Grid grid) {
+        Grid transformed = Grid.create(grid.getSize(), grid.getDimension());
+        for (int cell = 0; cell < this.image.length; cell++) {
+            if (grid.getValue(cell) != '\0') transformed.setValue(this.image[cell], grid.getValue(cell));
+        }
+        return transformed;
+    }
+
+    /**
+     * Transform leading to the canonical position of a grid, the first one in the list when several do
+     * @param grid any grid
+     * @return the transform to apply to the grid to get its canonical position
+     */
+    public static Symmetry canonical(Grid grid) {
+        List<Symmetry> symmetries = of(grid.getSize(), grid.getDimension());
+        Symmetry best = symmetries.get(0);
+        for (int i = 1; i < symmetries.size(); i++) {
+            Symmetry symmetry = symmetries.get(i);
+            if (compareImages(grid, symmetry, best) < 0) best = symmetry;
+        }
+        return best;
+    }
+
+    /**
+     * @param grid any grid
+     * @param a transform
+     * @param b transform
+     * @return negative if the image of the grid by a is smaller than by b, 0 if they are the same
+     */
+    private static int compareImages(Grid grid, Symmetry a, Symmetry b) {
+        for (int cell = 0; cell < a.preimage.length; cell++) {
+            int difference = rank(grid.getValue(a.preimage[cell])) - rank(grid.getValue(b.preimage[cell]));
+            if (difference != 0) return difference;
+        }
+        return 0;
+    }
+
+    /**
+     * @param value value of a cell
+     * @return its place in the canonical order, whatever the case of the player character
+     */
+    private static int rank(char value) {
+        return Character.toUpperCase(value);
+    }
+}
@@ -0,0 +1,177 @@
+package tictactoe.grid;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class WinningLines
+ * Immutable table of the winning lines of a grid shape and, for each cell, of the lines passing through it.
+ * Tables are built once per (size, dimension) and shared by every grid of that shape.
+ * Cell x,y,z is x+y*size+z*size*size, like {@link Grid#getValue(int)}.
+ * @version 1
+ */
+public final class WinningLines {
+    /**
+     * tables already built, by size*4+dimension
+     */
+    private static final ConcurrentHashMap<Integer, WinningLines> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * size of the grid
+     */
+    private final int size;
+
+    /**
+     * dimension of the grid
+     */
+    private final int dimension;
+
+    /**
+     * cells of each line, line l uses [l*size, (l+1)*size[
+     */
+    private final int[] lineCells;
+
+    /**
+     * lines of each cell, cell c uses [cellStart[c], cellStart[c+1][
+     */
+    private final int[] cellLines;
+
+    /**
+     * start of the lines of each cell in cellLines
+     */
+    private final int[] cellStart;
+
+    /**
+     * @param size size of the grid
+     * @param dimension dimension of the grid (2 or 3)
+     * @return the shared table of this shape
+     */
+    public static WinningLines of(int size, int dimension) {
+        if (size < 1 || (dimension != 2 && dimension != 3))
+            throw new IllegalArgumentException("Grid format invalid !");
+        return CACHE.computeIfAbsent(size * 4 + dimension, key -> new WinningLines(size, dimension));
+    }
+
+    /**
+     * @param size size of the grid
+     * @param dimension dimension of the grid (2 or 3)
+     */
+    private WinningLines(int size, int dimension) {
+        this.size = size;
+        this.dimension = dimension;
+        int cells = dimension == 2 ? size * size : size * size * size;
+        //2D : 2n+2 lines, 3D : 3n²+6n+4 lines
+        int count = dimension == 2 ? 2 * size + 2 : 3 * size * size + 6 * size + 4;
+        this.lineCells = new int[count * size];
+
+        int line = 0;
+        int maxDz = dimension == 2 ? 0 : 1;
+        for (int dz = 0; dz <= maxDz; dz++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    //keep one direction out of each opposite pair
+                    if (dz == 0 && (dy < 0 || (dy == 0 && dx <= 0))) continue;
+                    //an axis moving forward starts at 0, backward at size-1, a fixed axis anywhere
+                    for (int z0 = 0; z0 < (dimension == 2 ? 1 : size); z0++) {
+                        if (dz != 0 && z0 != 0) continue;
+                        for (int y0 = 0; y0 < size; y0++) {
+                            if (dy != 0 && y0 != (dy > 0 ? 0 : size - 1)) continue;
+                            for (int x0 = 0; x0 < size; x0++) {
+                                if (dx != 0 && x0 != (dx > 0 ? 0 : size - 1)) continue;
+                                for (int i = 0; i < size; i++) {
+                                    this.lineCells[line * size + i] = (x0 + i * dx) + (y0 + i * dy) * size + (z0 + i * dz) * size * size;
+                                }
+                                line++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        this.cellStart = new int[cells + 1];
+        for (int cell : this.lineCells) {
+            this.cellStart[cell + 1]++;
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            this.cellStart[cell + 1] += this.cellStart[cell];
+        }
+        this.cellLines = new int[this.lineCells.length];
+        int[] next = this.cellStart.clone();
+        for (int i = 0; i < this.lineCells.length; i++) {
+            this.cellLines[next[this.lineCells[i]]++] = i / size;
+        }
+    }
+
+    /**
+     * @return size of the grid
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * @return dimension of the grid
+     */
+    public int getDimension() {
+        return this.dimension;
+    }
+
+    /**
+     * @return number of winning lines
+     */
+    public int getLineCount() {
+        return this.lineCells.length / this.size;
+    }
+
+    /**
+     * @param line line index
+     * @param i [0,size[
+     * @return the i-th cell of the line
+     */
+    public int getCell(int line, int i) {
+        return this.lineCells[line * this.size + i];
+    }
+
+    /**
+     * @param cell cell index
+     * @return number of lines passing through the cell
+     */
+    public int getLineCount(int cell) {
+        return this.cellStart[cell + 1] - this.cellStart[cell];
+    }
+
+    /**
+     * @param cell cell index
+     * @param i [0,getLineCount(cell)[
+     * @return the i-th line passing through the cell
+     */
+    public int getLine(int cell, int i) {
+        return this.cellLines[this.cellStart[cell] + i];
+    }
+
+    /**
+     * @param line line index
+     * @return the cells of the line as a bit mask, only for grids of at most 64 cells
+     */
+    public long getMask(int line) {
+        long mask = 0;
+        for (int i = 0; i < this.size; i++) {
+            mask |= 1L << getCell(line, i);
+        }
+        return mask;
+    }
+
+    /**
+     * @return for each cell, the masks of the lines passing through it, only for grids of at most 64 cells
+     */
+    long[][] getCellMasks() {
+        long[][] masks = new long[this.cellStart.length - 1][];
+        for (int cell = 0; cell < masks.length; cell++) {
+            masks[cell] = new long[getLineCount(cell)];
+            for (int i = 0; i < masks[cell].length; i++) {
+                masks[cell][i] = getMask(getLine(cell, i));
+            }
+        }
+        return masks;
+    }
+}
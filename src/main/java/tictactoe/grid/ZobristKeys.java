@@ -0,0 +1,99 @@
+package tictactoe.grid;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class ZobristKeys
+ * Random keys of a grid shape, one per (cell, player). The hash of a position is the xor of the keys of its stones,
+ * so it is updated in O(1) when a stone is placed or removed.
+ * Keys are derived from the shape with a fixed generator (SplitMix64): the same position has the same hash on every JVM,
+ * whatever the grid implementation or the case of the player character.
+ * @version 1
+ */
+public final class ZobristKeys {
+    /**
+     * tables already built, by size*4+dimension
+     */
+    private static final ConcurrentHashMap<Integer, ZobristKeys> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * seed of the shape, used for players other than X and O
+     */
+    private final long seed;
+
+    /**
+     * keys of X and O, X of cell c at 2c and O at 2c+1
+     */
+    private final long[] keys;
+
+    /**
+     * @param size size of the grid
+     * @param dimension dimension of the grid (2 or 3)
+     * @return the shared keys of this shape
+     */
+    public static ZobristKeys of(int size, int dimension) {
+        if (size < 1 || (dimension != 2 && dimension != 3))
+            throw new IllegalArgumentException("Grid format invalid !");
+        return CACHE.computeIfAbsent(size * 4 + dimension, key -> new ZobristKeys(size, dimension));
+    }
+
+    /**
+     * @param size size of the grid
+     * @param dimension dimension of the grid (2 or 3)
+     */
+    private ZobristKeys(int size, int dimension) {
+        int cells = dimension == 2 ? size * size : size * size * size;
+        this.seed = mix(size * 4L + dimension);
+        this.keys = new long[cells * 2];
+        for (int cell = 0; cell < cells; cell++) {
+            this.keys[2 * cell] = compute(cell, 'X');
+            this.keys[2 * cell + 1] = compute(cell, 'O');
+        }
+    }
+
+    /**
+     * SplitMix64 finalizer
+     * @param z value to mix
+     * @return well distributed 64 bits
+     */
+    private static long mix(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @param cell cell index
+     * @param player player charactere, in upper case
+     * @return the key of this stone
+     */
+    private long compute(int cell, char player) {
+        return mix(this.seed ^ ((long) cell << 16 | player));
+    }
+
+    /**
+     * @param cell cell index
+     * @param player player charactere
+     * @return the key of a stone of this player on this cell
+     */
+    public long get(int cell, char player) {
+        if (player == 'X' || player == 'x') return this.keys[2 * cell];
+        if (player == 'O' || player == 'o') return this.keys[2 * cell + 1];
+        return compute(cell, Character.toUpperCase(player));
+    }
+
+    /**
+     * Hash a grid from scratch, in O(cells)
+     * @param grid grid of this shape
+     * @return xor of the keys of every stone
+     */
+    public long hash(Grid grid) {
+        long hash = 0;
+        for (int cell = 0; cell < grid.getTotalSize(); cell++) {
+            char value = grid.getValue(cell);
+            if (value != '\0') hash ^= get(cell, value);
+        }
+        return hash;
+    }
+}
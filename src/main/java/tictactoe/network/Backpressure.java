@@ -0,0 +1,17 @@
+package tictactoe.network;
+
+/**
+ * Enumerator of what a {@link CustomSocket} does when its inbound queue is full, the messages being read slower
+ * than they arrive. No message is ever dropped.
+ * @version 1
+ */
+public enum Backpressure {
+    /**
+     * Stop reading the connexion until a message is read : the other side is slowed down by the network
+     */
+    BLOCK,
+    /**
+     * Disconnect the other side, the messages already queued are still read
+     */
+    DISCONNECT
+}
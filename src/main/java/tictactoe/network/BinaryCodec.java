@@ -0,0 +1,301 @@
+package tictactoe.network;
+
+import com.google.gson.Gson;
+import tictactoe.exceptions.ProtocolActionException;
+import tictactoe.grid.Grid;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Class BinaryCodec
+ * Compact wire format : a frame is the length of its body as a varint, then the body. The body of a heartbeat is
+ * empty; the one of a message is the protocol action index as a varint, the number of parameters as a varint, then
+ * each parameter as a type byte followed by its payload. Any text can be sent, its length being written before it.
+ * Varints are unsigned LEB128 : 7 bits per byte, the low ones first, the high bit set on every byte but the last.
+ * Parameter types :
+ *  - 0:text, its UTF-8 length as a varint then its bytes
+ *  - 1:integer written in decimal without leading zero, as a varint
+ *  - 2:position of a 3D grid (a letter from A to Z then a positive integer), the letter index as a byte then
+ *      the integer as a varint
+ *  - 3:grid of {@link ProtocolAction#StartGame}, the size and dimension as varints then 2 bits per cell
+ *      (0 empty, 1 X, 2 O), 4 cells per byte from the low bits. It is read back as the JSON text of the grid;
+ *      a grid which would not be read back as the same text is sent as text.
+ * Parameters are read back as the text they were written from.
+ * @version 1
+ */
+public final class BinaryCodec implements MessageCodec {
+    /**
+     * The codec, it holds no state
+     */
+    public static final BinaryCodec INSTANCE = new BinaryCodec();
+
+    static final byte TEXT = 0;
+    static final byte INTEGER = 1;
+    static final byte POSITION = 2;
+    static final byte GRID = 3;
+
+    /**
+     * Index of the serialized grid among the parameters of {@link ProtocolAction#StartGame}, after the role, the next
+     * player, the dimension and the size
+     */
+    private static final int GRID_PARAMETER = 4;
+
+    private static final Gson GSON = new Gson();
+
+    private BinaryCodec() {
+    }
+
+    @Override
+    public void write(NetworkMessage message, ByteBuffer out) {
+        int start = out.position();
+        //length of the body, most often 1 byte, set once known
+        out.put((byte) 0);
+        putVarint(out, message.getProtocolAction().getValue());
+        String[] parameters = message.getParameters();
+        putVarint(out, parameters == null ? 0 : parameters.length);
+        for (int i = 0; parameters != null && i < parameters.length; i++) {
+            this.putParameter(out, message.getProtocolAction(), parameters, i);
+        }
+        int length = out.position() - start - 1;
+        int extra = varintLength(length) - 1;
+        if (extra > 0) {
+            //longer body : moved to make room for its length
+            if (out.remaining() < extra) throw new BufferOverflowException();
+            for (int i = out.position() - 1; i > start; i--) {
+                out.put(i + extra, out.get(i));
+            }
+            out.position(out.position() + extra);
+        }
+        for (int i = start; length >= 0x80; i++, length >>>= 7) {
+            out.put(i, (byte) (length | 0x80));
+        }
+        out.put(start + extra, (byte) length);
+    }
+
+    @Override
+    public void writeHeartbeat(ByteBuffer out) {
+        out.put((byte) 0);
+    }
+
+    /**
+     * @param out buffer to write to
+     * @param action action of the message
+     * @param parameters parameters of the message
+     * @param index index of the parameter to write
+     */
+    private void putParameter(ByteBuffer out, ProtocolAction action, String[] parameters, int index) {
+        String parameter = parameters[index];
+        int value = decimal(parameter, 0);
+        if (value >= 0) {
+            out.put(INTEGER);
+            putVarint(out, value);
+            return;
+        }
+        char letter = parameter.isEmpty() ? '\0' : parameter.charAt(0);
+        if (letter >= 'A' && letter <= 'Z' && (value = decimal(parameter, 1)) > 0) {
+            out.put(POSITION);
+            out.put((byte) (letter - 'A'));
+            putVarint(out, value);
+            return;
+        }
+        if (action == ProtocolAction.StartGame && index == GRID_PARAMETER && this.putGrid(out, parameters)) return;
+        out.put(TEXT);
+        putVarint(out, Utf8.length(parameter));
+        Utf8.put(out, parameter);
+    }
+
+    /**
+     * Write the grid of a start of game by its cells, if they are enough to read it back
+     * @param out buffer to write to
+     * @param parameters parameters of {@link ProtocolAction#StartGame}
+     * @return false if nothing was written, the grid being sent as text
+     */
+    private boolean putGrid(ByteBuffer out, String[] parameters) {
+        int dimension = decimal(parameters[2], 0);
+        int size = decimal(parameters[3], 0);
+        if (size < 1 || (dimension != 2 && dimension != 3)) return false;
+        Grid grid = Grid.create(size, dimension);
+        try {
+            Grid sent = GSON.fromJson(parameters[GRID_PARAMETER], Grid.getImplementation(size, dimension));
+            for (int cell = 0; cell < grid.getTotalSize(); cell++) {
+                char value = sent.getValue(cell);
+                if (value != '\0' && value != 'X' && value != 'O') return false;
+                grid.setValue(cell, value);
+            }
+        } catch (RuntimeException e) {
+            //not a grid of this shape
+            return false;
+        }
+        if (!GSON.toJson(grid).equals(parameters[GRID_PARAMETER])) return false;
+        out.put(GRID);
+        putVarint(out, size);
+        putVarint(out, dimension);
+        int packed = 0;
+        for (int cell = 0; cell < grid.getTotalSize(); cell++) {
+            char value = grid.getValue(cell);
+            packed |= (value == 'X' ? 1 : value == 'O' ? 2 : 0) << (cell % 4 * 2);
+            if (cell % 4 == 3) {
+                out.put((byte) packed);
+                packed = 0;
+            }
+        }
+        if (grid.getTotalSize() % 4 != 0) out.put((byte) packed);
+        return true;
+    }
+
+    @Override
+    public NetworkMessage read(ByteBuffer in) throws ProtocolActionException, IOException {
+        int start = in.position();
+        int length = 0;
+        int i = start;
+        for (int shift = 0; ; shift += 7) {
+            if (i == in.limit()) return null;
+            byte b = in.get(i++);
+            length |= (b & 0x7F) << shift;
+            if (b >= 0) break;
+            if (shift == 14) throw new IOException("Frame too long");
+        }
+        if (length > MAX_FRAME_BYTES - (i - start)) throw new IOException("Frame too long");
+        if (in.limit() - i < length) return null;
+        if (length == 0) {
+            in.position(i);
+            return HEARTBEAT;
+        }
+        int limit = in.limit();
+        int end = i + length;
+        in.position(i).limit(end);
+        try {
+            return this.body(in);
+        } catch (BufferUnderflowException e) {
+            throw new ProtocolActionException();
+        } finally {
+            in.limit(limit).position(end);
+        }
+    }
+
+    /**
+     * @param in body of a message, from its position to its limit
+     * @return the message
+     * @throws ProtocolActionException if the body is no message
+     * @throws BufferUnderflowException if the body is too short
+     */
+    private NetworkMessage body(ByteBuffer in) throws ProtocolActionException {
+        ProtocolAction action = ProtocolAction.fromInt(getVarint(in));
+        if (action == ProtocolAction.NONE) throw new ProtocolActionException();
+        int count = getVarint(in);
+        if (count == 0) return new NetworkMessage(action);
+        //each parameter takes at least a byte
+        if (count < 0 || count > in.remaining()) throw new ProtocolActionException();
+        String[] parameters = new String[count];
+        for (int i = 0; i < count; i++) {
+            byte type = in.get();
+            switch (type) {
+                case TEXT:
+                    int length = getVarint(in);
+                    if (length < 0 || length > in.remaining()) throw new ProtocolActionException();
+                    parameters[i] = Utf8.get(in, length);
+                    break;
+                case INTEGER:
+                    parameters[i] = Integer.toString(getVarint(in));
+                    break;
+                case POSITION:
+                    int letter = in.get();
+                    if (letter < 0 || letter >= 26) throw new ProtocolActionException();
+                    parameters[i] = (char) ('A' + letter) + Integer.toString(getVarint(in));
+                    break;
+                case GRID:
+                    parameters[i] = getGrid(in);
+                    break;
+                default:
+                    throw new ProtocolActionException();
+            }
+        }
+        if (in.hasRemaining()) throw new ProtocolActionException();
+        return new NetworkMessage(action, parameters);
+    }
+
+    /**
+     * @param in buffer holding the payload of a grid from its position, moved after it
+     * @return the JSON text of the grid
+     * @throws ProtocolActionException if the payload is no grid
+     */
+    private static String getGrid(ByteBuffer in) throws ProtocolActionException {
+        int size = getVarint(in);
+        int dimension = getVarint(in);
+        if (size < 1 || (dimension != 2 && dimension != 3)) throw new ProtocolActionException();
+        //more cells than bytes left could hold
+        long cells = dimension == 2 ? (long) size * size : (long) size * size * size;
+        if (cells > 4L * in.remaining()) throw new ProtocolActionException();
+        Grid grid = Grid.create(size, dimension);
+        int packed = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (cell % 4 == 0) packed = in.get();
+            int value = packed >> (cell % 4 * 2) & 3;
+            if (value == 3) throw new ProtocolActionException();
+            if (value != 0) grid.setValue(cell, value == 1 ? 'X' : 'O');
+        }
+        return GSON.toJson(grid);
+    }
+
+    /**
+     * @param s a string
+     * @param from index of the first digit
+     * @return the integer written from that index in decimal without leading zero, -1 if it is not one
+     */
+    static int decimal(String s, int from) {
+        int digits = s.length() - from;
+        //9 digits at most always fit in an int
+        if (digits < 1 || digits > 9 || (digits > 1 && s.charAt(from) == '0')) return -1;
+        int value = 0;
+        for (int i = from; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + c - '0';
+        }
+        return value;
+    }
+
+    /**
+     * @param value an integer, negative ones taking 5 bytes
+     * @return number of bytes of its varint
+     */
+    static int varintLength(int value) {
+        int length = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * @param out buffer to write to
+     * @param value an integer, written as an unsigned varint
+     */
+    static void putVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) (value | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    /**
+     * @param in buffer holding a varint from its position, moved after it
+     * @return the integer, negative if it does not fit in a positive int
+     * @throws ProtocolActionException if the varint is longer than 5 bytes
+     * @throws BufferUnderflowException if the buffer ends first
+     */
+    static int getVarint(ByteBuffer in) throws ProtocolActionException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new ProtocolActionException();
+    }
+}
@@ -1,12 +1,16 @@
 package tictactoe.network;
 
 import tictactoe.exceptions.ProtocolActionException;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.Socket;
-import java.util.Objects;
-import java.util.concurrent.TimeUnit;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * Class for our custom sockets. It allows to create a connexion between two instances of this class using Java sockets and server sockets.
@@ -14,34 +18,60 @@ import java.util.concurrent.TimeUnit;
  * @version 2
  */
 public class CustomSocket {
+    /**
+     * Time between two heartbeats sent by the client side, in milliseconds
+     */
+    static final int HEARTBEAT_MILLIS = 1000;
+
+    /**
+     * Time without anything received after which the other side is considered disconnected, in milliseconds
+     */
+    static final int HEARTBEAT_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * Messages waiting to be read when no capacity is given
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * Message queued by the firewall once the connexion is lost
+     */
+    private static final NetworkMessage NETWORK_ERROR = new NetworkMessage(ProtocolAction.NetworkError);
+
+    /**
+     * Message queued by the firewall for a frame which is no message
+     */
+    private static final NetworkMessage INVALID = new NetworkMessage(ProtocolAction.NONE);
+
     /**
      * Thread HeartbeatEmitter.
-     * Internal class to emit the heartbeat on the server side of connexion.
-     * It sends a message every 2 seconds to the other side (client) until the connexion ends.
+     * Internal class to emit the heartbeat on the client side of connexion.
+     * It sends a message every second to the other side (server) until the connexion ends.
      */
-    class HeartbeatEmitter extends Thread {
+    class HeartbeatEmitter implements Runnable {
         @Override
         public void run() {
-            do {
-                try {
-                    Thread.sleep(1000);
+            try {
+                while (isConnected) {
+                    Thread.sleep(HEARTBEAT_MILLIS);
                     if (isConnected) {
-                        //System.out.println("Sent ping");
-                        out.println("p");
+                        write(null);
                     }
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
                 }
-            } while (isConnected);
+            } catch (InterruptedException ignored) {
+                //interrupted by disconnect()
+            }
         }
     }
 
     /**
      * Thread Firewall
      * Internal class acting as a firewall to dispatch received messages to the good location.
-     * Manage automatically the heartbeat signal and mark as readable by the {@link CustomSocket#read() read()} method what is not a heartbeat.
+     * Manage automatically the heartbeat signal and queue for the {@link CustomSocket#read() read()} method what is not a heartbeat.
+     * It sleeps in a blocking read : the read timeout of the socket detects a silent other side, a closed one ends the read at once.
+     * The bytes read are cut into messages by the codec of the socket.
      */
-    class Firewall extends Thread {
+    class Firewall implements Runnable {
 
         private final boolean isServer;
 
@@ -58,61 +88,89 @@ public class CustomSocket {
          */
         @Override
         public void run() {
-            long timeOfLastHeartbeat = System.currentTimeMillis();
-            do {
-                // Get message from buffer
-                String msg;
-                try {
-                    while (!in.ready() && isConnected) {
-                        TimeUnit.MILLISECONDS.sleep(150);
-                        if (System.currentTimeMillis() - timeOfLastHeartbeat > 5000) {
-                            System.out.println("DISCONNECTED");
-                            isConnected = false;
-                        }
+            // Bytes received and not yet cut into messages, between 0 and the position
+            ByteBuffer received = ByteBuffer.allocate(512);
+            try {
+                socket.setSoTimeout(HEARTBEAT_TIMEOUT_MILLIS);
+                reading:
+                while (isConnected) {
+                    if (!received.hasRemaining()) {
+                        received = ByteBuffer.allocate(Math.min(MessageCodec.MAX_FRAME_BYTES, received.capacity() * 2)).put(received.flip());
                     }
-                    if (isConnected)
-                        msg = in.readLine();
-                    else
-                        msg = "";
-                } catch (Exception e) {
-                    System.out.println("Impossible to read from socket");
-                    isConnected = false;
-                    msg = "";
-                }
-
-                // If there is a message :
-                if (!Objects.equals(msg, "")) {
-                    // If the message is a heartbeat :
-                    if (msg.charAt(0) == 'p') { // We send pack a heartbeat
-                        //System.out.println("Received heartbeat");
-                        timeOfLastHeartbeat = System.currentTimeMillis();
-                        if (!isServer) {
-                            //System.out.println("Answer heartbeat");
-                            out.println("p");
+                    int read = in.read(received.array(), received.position(), received.remaining());
+                    // The other side closed the connexion
+                    if (read < 0) break;
+                    received.position(received.position() + read).flip();
+                    while (true) {
+                        NetworkMessage msg;
+                        try {
+                            msg = codec.read(received);
+                        } catch (ProtocolActionException e) {
+                            msg = INVALID;
+                        }
+                        if (msg == null) break;
+                        // If the message is a heartbeat :
+                        if (msg == MessageCodec.HEARTBEAT) {
+                            // We send back a heartbeat
+                            if (!isServer) {
+                                write(null);
+                            }
+                        }
+                        // It is not a heartbeat
+                        else if (backpressure == Backpressure.BLOCK) {
+                            permits.acquire();
+                            inbound.put(msg);
+                        }
+                        else if (permits.tryAcquire()) {
+                            inbound.put(msg);
+                        }
+                        else {
+                            System.out.println("DISCONNECTED : inbound queue full");
+                            break reading;
                         }
                     }
-                    // It is not a heartbeat
-                    else {
-                        msg_to_listener = msg;
-                    }
+                    received.compact();
                 }
-            } while (isConnected);
-
-            msg_to_listener = "" + ProtocolAction.NetworkError.getValue();
+            } catch (SocketTimeoutException e) {
+                System.out.println("DISCONNECTED");
+            } catch (Exception e) {
+                // Reading stops on disconnect()
+                if (isConnected) System.out.println("Impossible to read from socket");
+            }
+            isConnected = false;
+            inbound.offer(NETWORK_ERROR);
         }
     }
 
     /**
-     * The connexion buffer to read from.
+     * The java socket of the connexion.
      */
-    private BufferedReader in;
+    private final Socket socket;
     /**
-     * The connexion buffer to write to.
+     * The connexion stream to read from.
      */
-    private PrintWriter out;
+    private InputStream in;
+    /**
+     * The connexion stream to write to.
+     */
+    private OutputStream out;
+    /**
+     * Wire format of the messages.
+     */
+    private final MessageCodec codec;
+    /**
+     * Frame being written, reused by every message.
+     */
+    private ByteBuffer frame = ByteBuffer.allocate(256);
 
-    private final Firewall firewall;
-    private HeartbeatEmitter heartbeatEmitter;
+    /**
+     * Thread of the {@link Firewall}.
+     */
+    private final Thread firewall;
+    /**
+     * Thread of the {@link HeartbeatEmitter}, on the client side only.
+     */
+    private Thread heartbeatEmitter;
 
     /**
      * Boolean to keep if this connexion is still on.
@@ -124,9 +182,19 @@ public class CustomSocket {
     private final boolean isServer;
 
     /**
-     * Message read from the connexion, never a heartbeat
+     * Messages read from the connexion and not yet returned by {@link CustomSocket#read() read()}, never a heartbeat
+     */
+    private final BlockingQueue<NetworkMessage> inbound = new LinkedBlockingQueue<>();
+
+    /**
+     * Free places of the inbound queue, the network error queued on disconnection needing none
      */
-    private volatile String msg_to_listener;
+    private final Semaphore permits;
+
+    /**
+     * What the firewall does when the inbound queue is full
+     */
+    private final Backpressure backpressure;
 
     /**
      * Create a custom socket using a java socket and a boolean to set this side as the server side
@@ -134,22 +202,63 @@ public class CustomSocket {
      * @param isServer Boolean to know if this side of the connexion is the server side.
      */
     public CustomSocket (Socket socket, boolean isServer) {
+        this(socket, isServer, DEFAULT_CAPACITY, Backpressure.BLOCK);
+    }
+
+    /**
+     * Create a custom socket with a bounded inbound queue
+     * @param socket The socket that creates the connexion
+     * @param isServer Boolean to know if this side of the connexion is the server side.
+     * @param capacity The number of received messages that can wait to be read.
+     * @param backpressure What to do when that many messages are waiting.
+     */
+    public CustomSocket (Socket socket, boolean isServer, int capacity, Backpressure backpressure) {
+        this(socket, isServer, capacity, backpressure, Thread::new);
+    }
+
+    /**
+     * Create a custom socket with a bounded inbound queue, its loops running on the given threads
+     * @param socket The socket that creates the connexion
+     * @param isServer Boolean to know if this side of the connexion is the server side.
+     * @param capacity The number of received messages that can wait to be read.
+     * @param backpressure What to do when that many messages are waiting.
+     * @param threads The builder of the firewall and heartbeat threads, see {@link VirtualThreads}.
+     */
+    public CustomSocket (Socket socket, boolean isServer, int capacity, Backpressure backpressure, ThreadFactory threads) {
+        this(socket, isServer, capacity, backpressure, threads, MessageCodec.getDefault());
+    }
+
+    /**
+     * Create a custom socket with a bounded inbound queue, its loops running on the given threads
+     * @param socket The socket that creates the connexion
+     * @param isServer Boolean to know if this side of the connexion is the server side.
+     * @param capacity The number of received messages that can wait to be read.
+     * @param backpressure What to do when that many messages are waiting.
+     * @param threads The builder of the firewall and heartbeat threads, see {@link VirtualThreads}.
+     * @param codec The wire format of the messages, the same on the other side.
+     */
+    public CustomSocket (Socket socket, boolean isServer, int capacity, Backpressure backpressure, ThreadFactory threads, MessageCodec codec) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Inbound queue needs at least 1 place");
+        this.socket = socket;
         this.isServer = isServer;
+        this.permits = new Semaphore(capacity);
+        this.backpressure = backpressure;
+        this.codec = codec;
 
         try {
-            this.in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-            this.out = new PrintWriter(socket.getOutputStream(), true);
+            this.in = socket.getInputStream();
+            this.out = socket.getOutputStream();
         } catch (Exception e) {
             System.out.println("Error on socket creation");
         }
 
         isConnected = true;
-        msg_to_listener = "";
         if (isServer) {
-            heartbeatEmitter = new HeartbeatEmitter();
+            heartbeatEmitter = threads.newThread(new HeartbeatEmitter());
             heartbeatEmitter.start();
         }
-        firewall = new Firewall(isServer);
+        firewall = threads.newThread(new Firewall(isServer));
         firewall.start();
     }
 
@@ -162,32 +271,53 @@ public class CustomSocket {
     }
 
     /**
-     * Disconnects this socket from the connexion. It will take 10 seconds for the other side to detect this disconnection via the heartbeat system.
+     * Disconnects this socket from the connexion. Reading is stopped at once, the socket is left open so what was sent
+     * still reaches the other side, which detects the disconnection via the heartbeat system.
      */
     public void disconnect() {
         this.isConnected = false;
+        try {
+            // Wakes the firewall up from its blocking read
+            if (!this.socket.isInputShutdown()) this.socket.shutdownInput();
+        } catch (IOException ignored) {}
+        // Wakes it up from a full inbound queue
+        firewall.interrupt();
         try {
             firewall.join();
             if (this.isServer){
+                heartbeatEmitter.interrupt();
                 heartbeatEmitter.join();
             }
         } catch (Exception ignored) {}
     }
 
+    /**
+     * Disconnects this socket and closes it, for a server whose games end but which keeps running.
+     */
+    public void close() {
+        this.disconnect();
+        try {
+            this.socket.close();
+        } catch (IOException ignored) {}
+    }
+
     /**
      * Allow this side to send a network message to the other side of the connexion.
      * @param networkMessage The network message to send to the other side of the connexion.
      */
     public void send(NetworkMessage networkMessage){
-        String msg = "" + networkMessage.getProtocolAction().getValue();
+        this.write(networkMessage);
+    }
 
-        if (networkMessage.getParameters() != null){
-            msg += "::";
-            for (String s : networkMessage.getParameters()) {
-                msg += s + ",,";
-            }
-        }
-        out.println(msg);
+    /**
+     * Write the frame of a message, or of a heartbeat. Write errors are ignored : the firewall detects the lost connexion.
+     * @param networkMessage The network message, null for a heartbeat.
+     */
+    private synchronized void write(NetworkMessage networkMessage){
+        this.frame = networkMessage == null ? codec.heartbeat(this.frame) : codec.frame(networkMessage, this.frame);
+        try {
+            out.write(this.frame.array(), 0, this.frame.limit());
+        } catch (IOException ignored) {}
     }
 
     /**
@@ -209,52 +339,40 @@ public class CustomSocket {
 
     /**
      * Wait for a message to be sent from the other side and then returns it.
+     * Messages are returned in the order they arrived, a NetworkError once the connexion is lost.
      * @return The network message read sent from the other side of the connexion.
      * @throws ProtocolActionException if the protocol does not exist.
-     * @throws InterruptedException if impossible to read from the connexion.
+     * @throws InterruptedException if interrupted while waiting.
      */
     public NetworkMessage read() throws ProtocolActionException, InterruptedException {
-        String msg;
-
         // Get the message once it has been through the firewall
-        try {
-            while (Objects.equals(msg_to_listener, "")) {
-                TimeUnit.MILLISECONDS.sleep(500);
-            }
-            msg = msg_to_listener;
-            msg_to_listener = "";
-        } catch (Exception e) {
-            System.out.println("Interrupted");
-            throw new InterruptedException();
+        NetworkMessage msg = inbound.take();
+        // Every later read gets the network error too
+        if (msg == NETWORK_ERROR) {
+            inbound.offer(NETWORK_ERROR);
+            return new NetworkMessage(ProtocolAction.NetworkError);
         }
+        permits.release();
+        if (msg == INVALID) throw new ProtocolActionException();
+        return msg;
+    }
 
-        // Recreation of the message received
-        NetworkMessage networkMessage = new NetworkMessage();
-
-        // If there are parameters
-        if (msg.contains("::")) {
-            String[] message = msg.split("::");
-
-            ProtocolAction protocolAction = ProtocolAction.fromInt(Integer.parseInt(message[0]));
-            if (protocolAction == ProtocolAction.NONE){
-                System.out.println("No detected protocol action - param");
-                throw new ProtocolActionException();
-            }
-            networkMessage.setProtocolAction(protocolAction);
-
-            message = message[1].split(",,");
-            networkMessage.setParameters(message);
-
-            return networkMessage;
-        }
+    /**
+     * Text line of a message, see {@link TextCodec#format(NetworkMessage)}.
+     * @param networkMessage The network message to write.
+     * @return The line, without line end.
+     */
+    public static String format(NetworkMessage networkMessage) {
+        return TextCodec.format(networkMessage);
+    }
 
-        // No parameters
-        ProtocolAction protocolAction = ProtocolAction.fromInt(Integer.parseInt(msg));
-        if (protocolAction == ProtocolAction.NONE){
-            System.out.println("No detected protocol action");
-            throw new ProtocolActionException();
-        }
-        networkMessage.setProtocolAction(protocolAction);
-        return networkMessage;
+    /**
+     * Recreate a message from its text line, see {@link TextCodec#parse(String)}.
+     * @param msg The line, without line end.
+     * @return The network message.
+     * @throws ProtocolActionException if the protocol does not exist.
+     */
+    public static NetworkMessage parse(String msg) throws ProtocolActionException {
+        return TextCodec.parse(msg);
     }
 }
@@ -0,0 +1,106 @@
+package tictactoe.network;
+
+import tictactoe.exceptions.ProtocolActionException;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * interface MessageCodec
+ * Wire format of the {@link NetworkMessage}s and heartbeats : how each one is written as a frame of bytes and read
+ * back. {@link TextCodec} writes readable lines, for debugging; {@link BinaryCodec} writes compact length-prefixed
+ * frames. Both sides of a connexion must use the same codec, the one of {@link MessageCodec#getDefault()} unless
+ * told otherwise. Codecs hold no state : one instance serves every connexion.
+ * @version 1
+ */
+public interface MessageCodec {
+    /**
+     * System property choosing the default codec : "text" (the default) or "binary"
+     */
+    String PROPERTY = "tictactoe.codec";
+
+    /**
+     * Longest frame accepted : reading one more is an error, the connexion can not go on. It holds the text of the
+     * start of a resumed game on the largest grid, of {@link tictactoe.grid.Grid#MAX_CELLS} cells.
+     */
+    int MAX_FRAME_BYTES = 1 << 20;
+
+    /**
+     * Returned by {@link MessageCodec#read(ByteBuffer)} for a heartbeat, never given to the game
+     */
+    NetworkMessage HEARTBEAT = new NetworkMessage(ProtocolAction.NONE);
+
+    /**
+     * Write the frame of a message
+     * @param message the message to write
+     * @param out buffer to write to, from its position
+     * @throws BufferOverflowException if the buffer has not enough room, its position is then undefined
+     */
+    void write(NetworkMessage message, ByteBuffer out);
+
+    /**
+     * Write the frame of a heartbeat
+     * @param out buffer to write to, from its position
+     * @throws BufferOverflowException if the buffer has not enough room
+     */
+    void writeHeartbeat(ByteBuffer out);
+
+    /**
+     * Read the next frame
+     * @param in bytes received, from its position to its limit
+     * @return the message, {@link MessageCodec#HEARTBEAT} for a heartbeat, null if the frame is not complete : the
+     * position is then left unchanged
+     * @throws ProtocolActionException if the frame is complete but is no message, the position is then after it
+     * @throws IOException if the frame is longer than {@link MessageCodec#MAX_FRAME_BYTES}
+     */
+    NetworkMessage read(ByteBuffer in) throws ProtocolActionException, IOException;
+
+    /**
+     * Write the frame of a message into a reused buffer, replaced by a larger one when too small
+     * @param message the message to write
+     * @param buffer buffer to reuse, its content is lost
+     * @return the buffer holding the frame between its position and its limit
+     * @throws IllegalArgumentException if the frame is longer than {@link MessageCodec#MAX_FRAME_BYTES}
+     */
+    default ByteBuffer frame(NetworkMessage message, ByteBuffer buffer) {
+        while (true) {
+            buffer.clear();
+            try {
+                this.write(message, buffer);
+                return buffer.flip();
+            } catch (BufferOverflowException e) {
+                if (buffer.capacity() >= MAX_FRAME_BYTES)
+                    throw new IllegalArgumentException("Message too long : " + message.getProtocolAction());
+                buffer = ByteBuffer.allocate(Math.min(MAX_FRAME_BYTES, buffer.capacity() * 2));
+            }
+        }
+    }
+
+    /**
+     * Write the frame of a heartbeat into a reused buffer
+     * @param buffer buffer to reuse, its content is lost
+     * @return the buffer holding the frame between its position and its limit
+     */
+    default ByteBuffer heartbeat(ByteBuffer buffer) {
+        buffer.clear();
+        this.writeHeartbeat(buffer);
+        return buffer.flip();
+    }
+
+    /**
+     * @return the codec named by the {@link MessageCodec#PROPERTY} system property, text when it is not set
+     * @throws IllegalArgumentException if the property names no codec
+     */
+    static MessageCodec getDefault() {
+        String name = System.getProperty(PROPERTY, "text");
+        switch (name) {
+            case "text":
+                return TextCodec.INSTANCE;
+            case "binary":
+                return BinaryCodec.INSTANCE;
+            default:
+                throw new IllegalArgumentException("Unknown codec : " + name);
+        }
+    }
+}
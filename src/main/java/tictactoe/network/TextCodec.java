@@ -0,0 +1,148 @@
+package tictactoe.network;
+
+import tictactoe.exceptions.ProtocolActionException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Class TextCodec
+ * Readable wire format, the one of the first versions : a message is a line holding the protocol action index,
+ * then "::" and each parameter followed by ",," if any. A heartbeat is the line "p". A parameter holding ",," can
+ * not be sent, use {@link BinaryCodec} for any text.
+ * @version 1
+ */
+public final class TextCodec implements MessageCodec {
+    /**
+     * The codec, it holds no state
+     */
+    public static final TextCodec INSTANCE = new TextCodec();
+
+    private TextCodec() {
+    }
+
+    @Override
+    public void write(NetworkMessage message, ByteBuffer out) {
+        putInt(out, message.getProtocolAction().getValue());
+        if (message.getParameters() != null) {
+            out.put((byte) ':').put((byte) ':');
+            for (String parameter : message.getParameters()) {
+                Utf8.put(out, parameter);
+                out.put((byte) ',').put((byte) ',');
+            }
+        }
+        out.put((byte) '\n');
+    }
+
+    @Override
+    public void writeHeartbeat(ByteBuffer out) {
+        out.put((byte) 'p').put((byte) '\n');
+    }
+
+    @Override
+    public NetworkMessage read(ByteBuffer in) throws ProtocolActionException, IOException {
+        while (true) {
+            int start = in.position();
+            int end = start;
+            while (end < in.limit() && in.get(end) != '\n') end++;
+            if (end == in.limit()) {
+                //the line end would come after the longest frame
+                if (end - start >= MAX_FRAME_BYTES) throw new IOException("Line too long");
+                return null;
+            }
+            int length = end - start;
+            if (length > 0 && in.get(end - 1) == '\r') length--;
+            if (length == 0) {
+                //empty lines are ignored
+                in.position(end + 1);
+                continue;
+            }
+            if (in.get(start) == 'p') {
+                in.position(end + 1);
+                return HEARTBEAT;
+            }
+            String line = Utf8.get(in, length);
+            in.position(end + 1);
+            return parse(line);
+        }
+    }
+
+    /**
+     * @param out buffer to write to
+     * @param value an integer, written in decimal
+     */
+    private static void putInt(ByteBuffer out, int value) {
+        if (value < 0) {
+            out.put((byte) '-');
+            value = -value;
+        }
+        if (value >= 10) putInt(out, value / 10);
+        out.put((byte) ('0' + value % 10));
+    }
+
+    /**
+     * Text line of a message, see {@link TextCodec}.
+     * @param networkMessage The network message to write.
+     * @return The line, without line end.
+     */
+    public static String format(NetworkMessage networkMessage) {
+        StringBuilder msg = new StringBuilder().append(networkMessage.getProtocolAction().getValue());
+
+        if (networkMessage.getParameters() != null){
+            msg.append("::");
+            for (String s : networkMessage.getParameters()) {
+                msg.append(s).append(",,");
+            }
+        }
+        return msg.toString();
+    }
+
+    /**
+     * Recreate a message from its text line, see {@link TextCodec#format(NetworkMessage)}. As {@link String#split(String)}
+     * would, the empty parameters at the end are dropped.
+     * @param msg The line, without line end.
+     * @return The network message.
+     * @throws ProtocolActionException if the protocol does not exist.
+     */
+    public static NetworkMessage parse(String msg) throws ProtocolActionException {
+        int separator = msg.indexOf("::");
+        ProtocolAction protocolAction;
+        try {
+            protocolAction = ProtocolAction.fromInt(Integer.parseInt(msg, 0, separator < 0 ? msg.length() : separator, 10));
+        } catch (NumberFormatException e) {
+            protocolAction = ProtocolAction.NONE;
+        }
+        if (protocolAction == ProtocolAction.NONE) {
+            System.out.println("No detected protocol action");
+            throw new ProtocolActionException();
+        }
+        // No parameters
+        if (separator < 0) return new NetworkMessage(protocolAction);
+        return new NetworkMessage(protocolAction, parameters(msg, separator + 2));
+    }
+
+    /**
+     * @param msg a line
+     * @param from index of its first parameter
+     * @return its parameters
+     */
+    private static String[] parameters(String msg, int from) {
+        int count = 0;
+        int kept = 0;
+        for (int start = from; start < msg.length(); ) {
+            int end = msg.indexOf(",,", start);
+            if (end < 0) end = msg.length();
+            count++;
+            if (end > start) kept = count;
+            start = end + 2;
+        }
+        String[] parameters = new String[kept];
+        for (int i = 0, start = from; i < kept; i++) {
+            int end = msg.indexOf(",,", start);
+            if (end < 0) end = msg.length();
+            parameters[i] = msg.substring(start, end);
+            start = end + 2;
+        }
+        return parameters;
+    }
+}
@@ -0,0 +1,84 @@
+package tictactoe.network;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Class Utf8
+ * UTF-8 bytes of the strings written by the codecs, straight into their buffer : no byte array per string.
+ * A lone surrogate is written as '?', as {@link String#getBytes(java.nio.charset.Charset)} does.
+ * @version 1
+ */
+final class Utf8 {
+    private Utf8() {
+    }
+
+    /**
+     * @param s a string
+     * @return number of bytes of its UTF-8 form
+     */
+    static int length(String s) {
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) length++;
+            else if (c < 0x800) length += 2;
+            else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            }
+            else if (Character.isSurrogate(c)) length++;
+            else length += 3;
+        }
+        return length;
+    }
+
+    /**
+     * Write the UTF-8 form of a string
+     * @param out buffer to write to
+     * @param s the string
+     * @throws java.nio.BufferOverflowException if the buffer has not enough room
+     */
+    static void put(ByteBuffer out, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | c >> 6));
+                out.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int code = Character.toCodePoint(c, s.charAt(++i));
+                out.put((byte) (0xF0 | code >> 18));
+                out.put((byte) (0x80 | code >> 12 & 0x3F));
+                out.put((byte) (0x80 | code >> 6 & 0x3F));
+                out.put((byte) (0x80 | code & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xE0 | c >> 12));
+                out.put((byte) (0x80 | c >> 6 & 0x3F));
+                out.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * Read a string
+     * @param in buffer holding the bytes from its position, moved after them
+     * @param length number of bytes of the string
+     * @return the string
+     */
+    static String get(ByteBuffer in, int length) {
+        String s;
+        if (in.hasArray()) {
+            s = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(in.position(), bytes);
+            s = new String(bytes, StandardCharsets.UTF_8);
+        }
+        in.position(in.position() + length);
+        return s;
+    }
+}
@@ -0,0 +1,71 @@
+package tictactoe.network;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class VirtualThreads
+ * Threads of the sessions and of their connexions : virtual threads when the JVM has them (Java 21), found by
+ * reflection so the game still builds and runs on Java 17 with platform threads instead.
+ * @version 1
+ */
+public final class VirtualThreads {
+    /**
+     * Builder of virtual threads, null when the JVM has none
+     */
+    private static final Object BUILDER = builder();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return Thread.ofVirtual(), null if it does not exist or is not enabled
+     */
+    private static Object builder() {
+        try {
+            return Thread.class.getMethod("ofVirtual").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            //older JVM, or a preview feature not enabled
+            return null;
+        }
+    }
+
+    /**
+     * @return true when the JVM has virtual threads
+     */
+    public static boolean isAvailable() {
+        return BUILDER != null;
+    }
+
+    /**
+     * @param name prefix of the thread names, followed by a counter
+     * @return a factory of virtual threads, of platform daemon threads when the JVM has none
+     */
+    public static ThreadFactory newFactory(String name) {
+        if (BUILDER != null) {
+            try {
+                //the methods of the public interface, the builder class itself is internal
+                Class<?> builder = Class.forName("java.lang.Thread$Builder");
+                Object named = builder.getMethod("name", String.class, long.class).invoke(BUILDER, name + "-", 0L);
+                return (ThreadFactory) builder.getMethod("factory").invoke(named);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Virtual threads not usable", e);
+            }
+        }
+        return platformFactory(name);
+    }
+
+    /**
+     * @param name prefix of the thread names, followed by a counter
+     * @return a factory of platform daemon threads
+     */
+    public static ThreadFactory platformFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,269 @@
+package tictactoe.server;
+
+import tictactoe.exceptions.ProtocolActionException;
+import tictactoe.network.CustomSocket;
+import tictactoe.network.MessageCodec;
+import tictactoe.network.NetworkMessage;
+import tictactoe.network.ProtocolAction;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+
+/**
+ * Class Connection
+ * Non-blocking side of a {@link CustomSocket} in a {@link NioServer} : received bytes are cut into messages by the
+ * codec of the server, heartbeats are answered, the other messages go to the game session. Only the thread of its
+ * {@link EventLoop} uses it.
+ * @version 1
+ */
+final class Connection {
+    /**
+     * Bytes waiting to be sent after which the other side is too slow and is disconnected
+     */
+    static final int MAX_PENDING_BYTES = 256 * 1024;
+
+    /**
+     * channel of the connexion
+     */
+    private final SocketChannel channel;
+
+    /**
+     * wire format of the messages
+     */
+    private final MessageCodec codec;
+
+    /**
+     * session of the game played, null while waiting for an opponent
+     */
+    private GameSession session;
+
+    /**
+     * registration of the channel, null before
+     */
+    private SelectionKey key;
+
+    /**
+     * bytes received and not yet cut into messages, between 0 and the position
+     */
+    private ByteBuffer received = ByteBuffer.allocate(128);
+
+    /**
+     * frame being sent, reused by every message
+     */
+    private ByteBuffer frame = ByteBuffer.allocate(128);
+
+    /**
+     * buffers waiting to be sent, in order
+     */
+    private final ArrayDeque<ByteBuffer> pending = new ArrayDeque<>();
+
+    /**
+     * bytes waiting to be sent
+     */
+    private int pendingBytes;
+
+    /**
+     * time of the last bytes received, from System.nanoTime()
+     */
+    private long lastReceived = System.nanoTime();
+
+    /**
+     * true once the last message was sent, what arrives is then ignored
+     */
+    private boolean finishing;
+
+    /**
+     * true once closed
+     */
+    private boolean closed;
+
+    /**
+     * @param channel non-blocking channel of the connexion
+     * @param codec wire format of the messages
+     */
+    Connection(SocketChannel channel, MessageCodec codec) {
+        this.channel = channel;
+        this.codec = codec;
+    }
+
+    /**
+     * @param session session of the game played
+     */
+    void setSession(GameSession session) {
+        this.session = session;
+    }
+
+    /**
+     * @return session of the game played
+     */
+    GameSession getSession() {
+        return this.session;
+    }
+
+    /**
+     * @return the channel of the connexion
+     */
+    SocketChannel getChannel() {
+        return this.channel;
+    }
+
+    /**
+     * @param key registration of the channel
+     */
+    void setKey(SelectionKey key) {
+        this.key = key;
+    }
+
+    /**
+     * @return time of the last bytes received, from System.nanoTime()
+     */
+    long getLastReceived() {
+        return this.lastReceived;
+    }
+
+    /**
+     * @return true once the last message was sent
+     */
+    boolean isFinishing() {
+        return this.finishing;
+    }
+
+    /**
+     * @return true once closed
+     */
+    boolean isClosed() {
+        return this.closed;
+    }
+
+    /**
+     * Read what arrived, each complete message is handled
+     * @param buffer buffer of the event loop, cleared on return
+     * @throws IOException if the connexion is lost or the other side misbehaves
+     */
+    void read(ByteBuffer buffer) throws IOException {
+        int read;
+        while ((read = this.channel.read(buffer)) > 0) {
+            this.lastReceived = System.nanoTime();
+            buffer.flip();
+            while (buffer.hasRemaining() && !this.finishing) {
+                if (!this.received.hasRemaining()) this.grow();
+                int length = Math.min(buffer.remaining(), this.received.remaining());
+                this.received.put(this.received.position(), buffer, buffer.position(), length);
+                this.received.position(this.received.position() + length);
+                buffer.position(buffer.position() + length);
+                this.decode();
+            }
+            buffer.clear();
+        }
+        buffer.clear();
+        if (read < 0) throw new IOException("Connexion closed by the other side");
+    }
+
+    /**
+     * Nothing is sent after the messages already sent : the output is shut once they are written, the channel is
+     * closed when the other side closes or is silent for the heartbeat timeout. Closing it at once could reset
+     * the connexion and lose the last messages.
+     * @throws IOException if the connexion is lost
+     */
+    void finish() throws IOException {
+        if (this.finishing || this.closed) return;
+        this.finishing = true;
+        if (this.pending.isEmpty()) this.channel.shutdownOutput();
+    }
+
+    /**
+     * Make room for more bytes received, up to the longest frame : the codec rejects a longer one
+     */
+    private void grow() {
+        int capacity = Math.min(MessageCodec.MAX_FRAME_BYTES, this.received.capacity() * 2);
+        this.received = ByteBuffer.allocate(capacity).put(this.received.flip());
+    }
+
+    /**
+     * Handle the complete messages received
+     * @throws IOException if a frame is too long or an answer can not be sent
+     */
+    private void decode() throws IOException {
+        this.received.flip();
+        while (!this.finishing) {
+            NetworkMessage message;
+            try {
+                message = this.codec.read(this.received);
+            } catch (ProtocolActionException e) {
+                message = new NetworkMessage(ProtocolAction.NONE);
+            }
+            if (message == null) break;
+            if (message == MessageCodec.HEARTBEAT) {
+                this.frame = this.codec.heartbeat(this.frame);
+                this.write(this.frame);
+            }
+            //a player waiting for an opponent has nothing to say
+            else if (this.session != null) {
+                this.session.received(this, message);
+            }
+        }
+        this.received.compact();
+    }
+
+    /**
+     * Send a message, written by the codec as {@link CustomSocket} does
+     * @param message the message
+     */
+    void send(NetworkMessage message) {
+        if (this.finishing || this.closed) return;
+        try {
+            this.frame = this.codec.frame(message, this.frame);
+            this.write(this.frame);
+        } catch (IOException e) {
+            this.close();
+        }
+    }
+
+    /**
+     * Write what the channel takes at once and keep a copy of the rest for {@link Connection#flush()}
+     * @param buffer bytes to send, reused by the caller
+     * @throws IOException if the connexion is lost or the other side is too slow
+     */
+    private void write(ByteBuffer buffer) throws IOException {
+        if (this.pending.isEmpty()) {
+            this.channel.write(buffer);
+            if (!buffer.hasRemaining()) return;
+            this.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+        this.pendingBytes += buffer.remaining();
+        if (this.pendingBytes > MAX_PENDING_BYTES) throw new IOException("Other side too slow");
+        this.pending.add(ByteBuffer.allocate(buffer.remaining()).put(buffer).flip());
+    }
+
+    /**
+     * Send the bytes kept, when the channel is writable again
+     * @throws IOException if the connexion is lost
+     */
+    void flush() throws IOException {
+        while (!this.pending.isEmpty()) {
+            ByteBuffer buffer = this.pending.peek();
+            int written = this.channel.write(buffer);
+            this.pendingBytes -= written;
+            if (buffer.hasRemaining()) return;
+            this.pending.poll();
+        }
+        this.key.interestOps(SelectionKey.OP_READ);
+        if (this.finishing) this.channel.shutdownOutput();
+    }
+
+    /**
+     * Close the channel, what is still pending is lost
+     */
+    void close() {
+        if (this.closed) return;
+        this.closed = true;
+        this.pending.clear();
+        if (this.key != null) this.key.cancel();
+        try {
+            this.channel.close();
+        } catch (IOException ignored) {}
+    }
+}
@@ -0,0 +1,236 @@
+package tictactoe.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class EventLoop
+ * Thread of a {@link NioServer} multiplexing the connexions of its games on one selector. Both players of a game
+ * are on the same loop, so a {@link GameSession} is only used by one thread and needs no lock.
+ * @version 1
+ */
+final class EventLoop extends Thread {
+    /**
+     * Time between two checks of the heartbeat timeouts, in milliseconds
+     */
+    static final long TIMEOUT_CHECK_MILLIS = 1000;
+
+    /**
+     * Time without anything received after which a player is disconnected, in milliseconds,
+     * the one of {@link tictactoe.network.CustomSocket}
+     */
+    static final long HEARTBEAT_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * selector of the connexions of the loop
+     */
+    private final Selector selector;
+
+    /**
+     * server told of the accepted connexions, null for a loop without listening channel
+     */
+    private final NioServer server;
+
+    /**
+     * players waiting for an opponent given by other threads, registered by the loop
+     */
+    private final Queue<Connection> incomingPlayers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * pairs of players given by other threads, their game is started by the loop
+     */
+    private final Queue<Connection[]> incomingGames = new ConcurrentLinkedQueue<>();
+
+    /**
+     * games running on the loop
+     */
+    private final AtomicInteger games = new AtomicInteger();
+
+    /**
+     * buffer of every read of the loop
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(8 * 1024);
+
+    /**
+     * set to stop the loop
+     */
+    private volatile boolean running = true;
+
+    /**
+     * @param name name of the thread
+     * @param server server told of the accepted connexions
+     * @throws IOException if the selector can not be opened
+     */
+    EventLoop(String name, NioServer server) throws IOException {
+        super(name);
+        this.selector = Selector.open();
+        this.server = server;
+    }
+
+    /**
+     * @param listener listening channel whose connexions are accepted by this loop
+     * @throws IOException if it can not be registered
+     */
+    void listen(ServerSocketChannel listener) throws IOException {
+        listener.register(this.selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Keep a player waiting for an opponent on this loop, from any thread : its heartbeats are answered
+     * @param player player without opponent
+     */
+    void add(Connection player) {
+        this.incomingPlayers.add(player);
+        this.selector.wakeup();
+    }
+
+    /**
+     * Run a new game on this loop, from any thread
+     * @param first first connected player, already given to {@link EventLoop#add(Connection)}
+     * @param second second connected player
+     */
+    void add(Connection first, Connection second) {
+        this.games.incrementAndGet();
+        this.incomingGames.add(new Connection[]{first, second});
+        this.selector.wakeup();
+    }
+
+    /**
+     * @return games running on the loop
+     */
+    int getGames() {
+        return this.games.get();
+    }
+
+    /**
+     * A game is over
+     * @param session the game
+     */
+    void ended(GameSession session) {
+        this.games.decrementAndGet();
+    }
+
+    /**
+     * Stop the loop and close its connexions
+     */
+    void shutdown() {
+        this.running = false;
+        this.selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        long nextCheck = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_CHECK_MILLIS);
+        try {
+            while (this.running) {
+                this.selector.select(TIMEOUT_CHECK_MILLIS);
+                this.register();
+                Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    this.handle(key);
+                }
+                if (System.nanoTime() - nextCheck >= 0) {
+                    this.checkTimeouts();
+                    nextCheck = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_CHECK_MILLIS);
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (this.running) e.printStackTrace();
+        }
+        for (SelectionKey key : this.selector.keys()) {
+            if (key.attachment() instanceof Connection) ((Connection) key.attachment()).close();
+        }
+        try {
+            this.selector.close();
+        } catch (IOException ignored) {}
+    }
+
+    /**
+     * Register the channels given by other threads and start their games
+     */
+    private void register() {
+        Connection player;
+        while ((player = this.incomingPlayers.poll()) != null) {
+            this.register(player);
+        }
+        Connection[] players;
+        while ((players = this.incomingGames.poll()) != null) {
+            this.register(players[1]);
+            new GameSession(players[0], players[1], this).start();
+        }
+    }
+
+    /**
+     * @param connection a connexion to read
+     */
+    private void register(Connection connection) {
+        try {
+            connection.setKey(connection.getChannel().register(this.selector, SelectionKey.OP_READ, connection));
+        } catch (IOException e) {
+            connection.close();
+        }
+    }
+
+    /**
+     * @param key a ready channel
+     */
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) return;
+        if (key.isAcceptable()) {
+            try {
+                SocketChannel channel = ((ServerSocketChannel) key.channel()).accept();
+                if (channel != null) this.server.accepted(channel);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return;
+        }
+        Connection connection = (Connection) key.attachment();
+        try {
+            if (key.isWritable()) connection.flush();
+            if (key.isValid() && key.isReadable()) connection.read(this.buffer);
+        } catch (IOException e) {
+            this.lost(connection);
+        } catch (RuntimeException e) {
+            //a faulty game must not stop the other games of the loop
+            e.printStackTrace();
+            this.lost(connection);
+        }
+    }
+
+    /**
+     * Disconnect the players silent for too long
+     */
+    private void checkTimeouts() {
+        long limit = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(HEARTBEAT_TIMEOUT_MILLIS);
+        for (SelectionKey key : this.selector.keys()) {
+            if (!(key.attachment() instanceof Connection)) continue;
+            Connection connection = (Connection) key.attachment();
+            if (connection.getLastReceived() - limit < 0) this.lost(connection);
+        }
+    }
+
+    /**
+     * @param connection a connexion lost, or closing and done
+     */
+    private void lost(Connection connection) {
+        if (connection.isFinishing()) connection.close();
+        else if (connection.getSession() != null) connection.getSession().lost(connection);
+        else {
+            connection.close();
+            this.server.left(connection);
+        }
+    }
+}
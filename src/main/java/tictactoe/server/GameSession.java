@@ -0,0 +1,324 @@
+package tictactoe.server;
+
+import tictactoe.grid.Grid;
+import tictactoe.grid.exceptions.PositionInvalidException;
+import tictactoe.grid.exceptions.PositionUsedException;
+import tictactoe.network.NetworkMessage;
+import tictactoe.network.ProtocolAction;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Class GameSession
+ * One game of a {@link NioServer} between two connexions, as a state machine driven by the messages received.
+ * It speaks the protocol of {@link Server} so the usual clients play on it, saved games excepted : a quit with save
+ * is a plain quit. Only the thread of its {@link EventLoop} uses it.
+ * @version 1
+ */
+final class GameSession {
+    /**
+     * Steps of a game
+     */
+    enum State {
+        /**
+         * waiting for the first player to choose the grid
+         */
+        DIMENSIONS,
+        /**
+         * waiting for the player to move to place and confirm a pawn
+         */
+        PLAYING,
+        /**
+         * game over, waiting for both players to acknowledge it
+         */
+        ENDING,
+        /**
+         * a player left, waiting for the other one to quit
+         */
+        ABANDONED,
+        /**
+         * both connexions closed or closing
+         */
+        CLOSED
+    }
+
+    /**
+     * first connected player, choosing the grid
+     */
+    private final Connection first;
+
+    /**
+     * second connected player
+     */
+    private final Connection second;
+
+    /**
+     * loop running the session, told when it is over
+     */
+    private final EventLoop loop;
+
+    /**
+     * current step
+     */
+    private State state = State.DIMENSIONS;
+
+    /**
+     * grid of the game, null before the dimensions are chosen
+     */
+    private Grid grid;
+
+    /**
+     * player to move
+     */
+    private Connection turn;
+
+    /**
+     * role of the first player, "X" or "O"
+     */
+    private String firstRole;
+
+    /**
+     * position and role of the pawn waiting for confirmation, null if none
+     */
+    private String[] lastPlace;
+
+    /**
+     * players still to acknowledge the end of the game
+     */
+    private int waiting;
+
+    /**
+     * @param first first connected player, choosing the grid
+     * @param second second connected player
+     * @param loop loop running the session
+     */
+    GameSession(Connection first, Connection second, EventLoop loop) {
+        this.first = first;
+        this.second = second;
+        this.loop = loop;
+        first.setSession(this);
+        second.setSession(this);
+    }
+
+    /**
+     * @return first connected player
+     */
+    Connection getFirst() {
+        return this.first;
+    }
+
+    /**
+     * @return second connected player
+     */
+    Connection getSecond() {
+        return this.second;
+    }
+
+    /**
+     * @return current step
+     */
+    State getState() {
+        return this.state;
+    }
+
+    /**
+     * Ask the first player for the grid
+     */
+    void start() {
+        this.first.send(new NetworkMessage(ProtocolAction.SelectDimensions));
+        this.checkSent();
+    }
+
+    /**
+     * Handle a message received from a player, heartbeats excepted
+     * @param from the player
+     * @param message the message, NONE if what was received is no message
+     */
+    void received(Connection from, NetworkMessage message) {
+        this.handle(from, message);
+        this.checkSent();
+    }
+
+    /**
+     * @param from the player
+     * @param message the message received
+     */
+    private void handle(Connection from, NetworkMessage message) {
+        ProtocolAction action = message.getProtocolAction();
+        String[] parameters = message.getParameters();
+        if (action == ProtocolAction.Quit || this.state == State.ABANDONED) {
+            this.quit(from);
+            return;
+        }
+        switch (this.state) {
+            case DIMENSIONS:
+                if (from == this.first && action == ProtocolAction.AnswerDimensions) this.selectDimensions(parameters);
+                break;
+            case PLAYING:
+                if (from != this.turn) break;
+                if (action == ProtocolAction.Place && parameters != null && parameters.length == 2) {
+                    this.verification(parameters[0]);
+                }
+                else if (action == ProtocolAction.Confirmation && this.lastPlace != null) {
+                    this.play();
+                }
+                break;
+            case ENDING:
+                if (action == ProtocolAction.WaitMessage && --this.waiting == 0) {
+                    this.first.send(new NetworkMessage(ProtocolAction.Quit));
+                    this.second.send(new NetworkMessage(ProtocolAction.Quit));
+                    this.close();
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * A message that could not be sent closed its connexion : it is lost
+     */
+    private void checkSent() {
+        if (this.state == State.CLOSED) return;
+        if (this.first.isClosed()) this.lost(this.first);
+        else if (this.second.isClosed()) this.lost(this.second);
+    }
+
+    /**
+     * A connexion is lost : the other player is told, as {@link Server} does
+     * @param from the lost player
+     */
+    void lost(Connection from) {
+        from.close();
+        if (this.state == State.CLOSED) return;
+        Connection other = from == this.first ? this.second : this.first;
+        if (this.state == State.ENDING || this.state == State.ABANDONED || other.isClosed()) {
+            other.send(new NetworkMessage(ProtocolAction.Quit));
+            this.close();
+            return;
+        }
+        this.state = State.ABANDONED;
+        other.send(new NetworkMessage(ProtocolAction.OpponentDisconnected, new String[]{"0"}));
+        if (other.isClosed()) this.close();
+    }
+
+    /**
+     * A player quits : it is told to stop and the other one that it is alone
+     * @param from the player leaving
+     */
+    private void quit(Connection from) {
+        from.send(new NetworkMessage(ProtocolAction.Quit));
+        this.finish(from);
+        Connection other = from == this.first ? this.second : this.first;
+        if (this.state == State.ABANDONED || this.state == State.ENDING || other.isClosed() || other.isFinishing()) {
+            other.send(new NetworkMessage(ProtocolAction.Quit));
+            this.close();
+            return;
+        }
+        this.state = State.ABANDONED;
+        other.send(new NetworkMessage(ProtocolAction.OpponentDisconnected, new String[]{"0"}));
+        if (other.isClosed()) this.close();
+    }
+
+    /**
+     * @param parameters size and dimension chosen by the first player
+     */
+    private void selectDimensions(String[] parameters) {
+        try {
+            if (parameters != null && parameters.length == 2) {
+                int size = Integer.parseInt(parameters[0]);
+                //larger grids than Grid.MAX_CELLS are refused by Grid.create
+                if (size > 2) this.grid = Grid.create(size, Integer.parseInt(parameters[1]));
+            }
+        } catch (IllegalArgumentException ignored) {
+            //also a NumberFormatException
+        }
+        if (this.grid == null) {
+            this.first.send(new NetworkMessage(ProtocolAction.Error, new String[]{"0"}));
+            return;
+        }
+        this.firstRole = ThreadLocalRandom.current().nextBoolean() ? "X" : "O";
+        String dimension = Integer.toString(this.grid.getDimension());
+        String size = Integer.toString(this.grid.getSize());
+        this.first.send(new NetworkMessage(ProtocolAction.StartGame, new String[]{this.firstRole, "X", dimension, size}));
+        this.second.send(new NetworkMessage(ProtocolAction.StartGame, new String[]{this.secondRole(), "X", dimension, size}));
+        this.turn = this.firstRole.equals("X") ? this.first : this.second;
+        this.state = State.PLAYING;
+    }
+
+    /**
+     * Check the pawn placed by the player to move and ask for its confirmation
+     * @param position the position of the pawn
+     */
+    private void verification(String position) {
+        try {
+            if (!this.grid.isCellUsed(position)) {
+                this.lastPlace = new String[]{position, this.turn == this.first ? this.firstRole : this.secondRole()};
+                this.turn.send(new NetworkMessage(ProtocolAction.AskConfirmation));
+            }
+            else {
+                this.turn.send(new NetworkMessage(ProtocolAction.Error, new String[]{"1"}));
+            }
+        } catch (PositionInvalidException e) {
+            this.turn.send(new NetworkMessage(ProtocolAction.Error, new String[]{"2"}));
+        }
+    }
+
+    /**
+     * Place the confirmed pawn, then end the game or give the turn to the other player
+     */
+    private void play() {
+        String[] place = this.lastPlace;
+        this.lastPlace = null;
+        Connection other = this.turn == this.first ? this.second : this.first;
+        boolean isWinner;
+        try {
+            isWinner = this.grid.place(place[0], place[1].charAt(0));
+        } catch (PositionUsedException | PositionInvalidException e) {
+            this.turn.send(new NetworkMessage(ProtocolAction.Error, new String[]{"1"}));
+            return;
+        }
+        if (isWinner || this.grid.getRemainingCells() == 0) {
+            String[] param = {place[0], place[1], isWinner ? "0" : "1"};
+            this.turn.send(new NetworkMessage(ProtocolAction.EndGame, param));
+            other.send(new NetworkMessage(ProtocolAction.EndGame, param));
+            this.state = State.ENDING;
+            this.waiting = 2;
+            return;
+        }
+        this.turn.send(new NetworkMessage(ProtocolAction.Validate, place));
+        other.send(new NetworkMessage(ProtocolAction.Play, place));
+        this.turn = other;
+    }
+
+    /**
+     * @return role of the second player
+     */
+    private String secondRole() {
+        return this.firstRole.equals("X") ? "O" : "X";
+    }
+
+    /**
+     * Stop sending to a player
+     * @param connection the player
+     */
+    private void finish(Connection connection) {
+        try {
+            connection.finish();
+        } catch (IOException e) {
+            connection.close();
+        }
+    }
+
+    /**
+     * The game is over for both players
+     */
+    private void close() {
+        if (this.state == State.CLOSED) return;
+        this.finish(this.first);
+        this.finish(this.second);
+        this.state = State.CLOSED;
+        this.loop.ended(this);
+    }
+}
@@ -0,0 +1,174 @@
+package tictactoe.server;
+
+import tictactoe.network.MessageCodec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Class NioServer
+ * Server of many games at once on one port, for the clients of {@link Server}. Players are paired in their order
+ * of connexion, the first of a pair choosing the grid. A few event loops share the games, each one multiplexing
+ * the non-blocking channels of its games on a selector : a game costs no thread, only its buffers.
+ * Saved games are not supported.
+ * @version 1
+ */
+public final class NioServer implements Closeable {
+    /**
+     * listening channel
+     */
+    private final ServerSocketChannel listener;
+
+    /**
+     * wire format of the messages
+     */
+    private final MessageCodec codec;
+
+    /**
+     * threads of the games, the first one also accepting the connexions
+     */
+    private final EventLoop[] loops;
+
+    /**
+     * connexion waiting for an opponent, null if none
+     */
+    private Connection waiting;
+
+    /**
+     * loop of the waiting connexion, where its game is played
+     */
+    private EventLoop waitingLoop;
+
+    /**
+     * index of the loop of the next game
+     */
+    private int nextLoop;
+
+    /**
+     * Creates a server on the chosen port with one event loop per processor
+     * @param port the port to open for the server, 0 for any free port
+     * @throws IOException if the port can not be opened
+     */
+    public NioServer(int port) throws IOException {
+        this(port, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a server on the chosen port
+     * @param port the port to open for the server, 0 for any free port
+     * @param threads number of event loops
+     * @throws IOException if the port can not be opened
+     */
+    public NioServer(int port, int threads) throws IOException {
+        this(port, threads, MessageCodec.getDefault());
+    }
+
+    /**
+     * Creates a server on the chosen port
+     * @param port the port to open for the server, 0 for any free port
+     * @param threads number of event loops
+     * @param codec wire format of the messages, the one of the clients
+     * @throws IOException if the port can not be opened
+     */
+    public NioServer(int port, int threads, MessageCodec codec) throws IOException {
+        if (threads < 1)
+            throw new IllegalArgumentException("Server needs at least 1 thread");
+        this.codec = codec;
+        this.listener = ServerSocketChannel.open();
+        this.listener.bind(new InetSocketAddress(port), 1024);
+        this.listener.configureBlocking(false);
+        this.loops = new EventLoop[threads];
+        for (int i = 0; i < threads; i++) {
+            this.loops[i] = new EventLoop("nio-server-" + i, this);
+        }
+        this.loops[0].listen(this.listener);
+    }
+
+    /**
+     * Start accepting players
+     */
+    public void start() {
+        for (EventLoop loop : this.loops) {
+            loop.start();
+        }
+    }
+
+    /**
+     * @return the port open for the server
+     */
+    public int getPort() {
+        return this.listener.socket().getLocalPort();
+    }
+
+    /**
+     * @return number of games being played, or waiting for their last acknowledgements
+     */
+    public int getGames() {
+        int games = 0;
+        for (EventLoop loop : this.loops) {
+            games += loop.getGames();
+        }
+        return games;
+    }
+
+    /**
+     * A player connected, called by the accepting loop
+     * @param channel channel of the player
+     * @throws IOException if it can not be made non-blocking
+     */
+    synchronized void accepted(SocketChannel channel) throws IOException {
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Connection connection = new Connection(channel, this.codec);
+        if (this.waiting == null) {
+            this.waiting = connection;
+            this.waitingLoop = this.loops[this.nextLoop];
+            this.nextLoop = (this.nextLoop + 1) % this.loops.length;
+            this.waitingLoop.add(connection);
+            return;
+        }
+        this.waitingLoop.add(this.waiting, connection);
+        this.waiting = null;
+    }
+
+    /**
+     * A player left before having an opponent, called by its loop
+     * @param connection the player
+     */
+    synchronized void left(Connection connection) {
+        if (this.waiting == connection) this.waiting = null;
+    }
+
+    /**
+     * Stop the server, every game is closed
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        for (EventLoop loop : this.loops) {
+            loop.shutdown();
+        }
+        for (EventLoop loop : this.loops) {
+            try {
+                loop.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        this.listener.close();
+    }
+
+    /**
+     * Run a server
+     * @param args optional port, 9876 by default, and number of event loops
+     * @throws IOException if the port can not be opened
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 9876;
+        NioServer server = args.length > 1 ? new NioServer(port, Integer.parseInt(args[1])) : new NioServer(port);
+        server.start();
+    }
+}
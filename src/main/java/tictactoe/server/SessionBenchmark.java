@@ -0,0 +1,246 @@
+package tictactoe.server;
+
+import tictactoe.exceptions.ProtocolActionException;
+import tictactoe.network.MessageCodec;
+import tictactoe.network.NetworkMessage;
+import tictactoe.network.ProtocolAction;
+import tictactoe.network.VirtualThreads;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.function.IntSupplier;
+
+/**
+ * Class SessionBenchmark
+ * Memory and latency of a game on each server model : {@link SessionServer} on platform threads, on virtual threads,
+ * and {@link NioServer}. Scripted players open the games on one server, the memory is measured while they are all
+ * open, then they play their moves in rounds, one game at a time, timing each move from its placement to the
+ * opponent being told. The process memory (resident set, Linux only) counts the stacks of the platform threads,
+ * which the heap does not. The scripted players run in the same process : their sockets and buffers are counted
+ * too, the same for every model.
+ * Run it with the optional number of games, 1000 by default, and the models to run ("platform", "virtual", "nio").
+ * The servers and the players speak the codec chosen by the {@link MessageCodec#PROPERTY} system property.
+ * Two sockets are opened per player : raise the open file limit (``ulimit -n``) above four times the number of games.
+ * @version 1
+ */
+public final class SessionBenchmark {
+    /**
+     * Moves played by X and O in turn, X winning on the first row with its last one
+     */
+    private static final String[] MOVES = {"1", "4", "2", "5", "3"};
+
+    /**
+     * Scripted player on a plain socket, speaking the codec of the server and answering its heartbeats
+     */
+    private static final class Player {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+        private final MessageCodec codec;
+        /**
+         * bytes received and not yet cut into messages, between 0 and the position
+         */
+        private ByteBuffer received = ByteBuffer.allocate(256);
+        /**
+         * reused frame of the messages sent
+         */
+        private ByteBuffer frame = ByteBuffer.allocate(256);
+        private String role;
+
+        Player(int port, MessageCodec codec) throws IOException {
+            this.socket = new Socket("127.0.0.1", port);
+            this.socket.setTcpNoDelay(true);
+            this.in = this.socket.getInputStream();
+            this.out = this.socket.getOutputStream();
+            this.codec = codec;
+        }
+
+        NetworkMessage read() throws IOException, ProtocolActionException {
+            while (true) {
+                this.received.flip();
+                NetworkMessage message = this.codec.read(this.received);
+                this.received.compact();
+                if (message == MessageCodec.HEARTBEAT) continue;
+                if (message != null) return message;
+                if (!this.received.hasRemaining()) {
+                    this.received = ByteBuffer.allocate(this.received.capacity() * 2).put(this.received.flip());
+                }
+                int read = this.in.read(this.received.array(), this.received.position(), this.received.remaining());
+                if (read < 0) throw new IOException("Connexion closed by the server");
+                this.received.position(this.received.position() + read);
+            }
+        }
+
+        NetworkMessage expect(ProtocolAction action) throws IOException, ProtocolActionException {
+            NetworkMessage message = this.read();
+            if (message.getProtocolAction() != action)
+                throw new IllegalStateException("Expected " + action + ", received " + message.getProtocolAction());
+            return message;
+        }
+
+        void send(ProtocolAction action, String... parameters) throws IOException {
+            this.frame = this.codec.frame(new NetworkMessage(action, parameters.length == 0 ? null : parameters), this.frame);
+            this.out.write(this.frame.array(), 0, this.frame.limit());
+        }
+
+        void heartbeat() throws IOException {
+            this.frame = this.codec.heartbeat(this.frame);
+            this.out.write(this.frame.array(), 0, this.frame.limit());
+        }
+    }
+
+    private SessionBenchmark() {
+    }
+
+    /**
+     * @param games number of games played at once
+     * @param model "platform", "virtual" or "nio"
+     * @param codec wire format of the server and of the players
+     * @return the line of results of the model
+     * @throws Exception
+     */
+    static String run(int games, String model, MessageCodec codec) throws Exception {
+        long heapBefore = heap();
+        long residentBefore = resident();
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        Closeable server;
+        int port;
+        IntSupplier running;
+        if (model.equals("nio")) {
+            NioServer nio = new NioServer(0, Runtime.getRuntime().availableProcessors(), codec);
+            nio.start();
+            server = nio;
+            port = nio.getPort();
+            running = nio::getGames;
+        } else {
+            SessionServer sessions = new SessionServer(0, model.equals("virtual"), codec);
+            sessions.start();
+            server = sessions;
+            port = sessions.getPort();
+            running = sessions::getGames;
+        }
+        Player[][] players = new Player[games][];
+        try {
+            for (int game = 0; game < games; game++) {
+                Player first = new Player(port, codec);
+                Player second = new Player(port, codec);
+                first.expect(ProtocolAction.SelectDimensions);
+                first.send(ProtocolAction.AnswerDimensions, "3", "2");
+                first.role = first.expect(ProtocolAction.StartGame).getParameters()[0];
+                second.role = second.expect(ProtocolAction.StartGame).getParameters()[0];
+                players[game] = first.role.equals("X") ? new Player[]{first, second} : new Player[]{second, first};
+                //the player waiting for its turn
+                players[game][1].send(ProtocolAction.WaitMessage);
+            }
+            long heapPerGame = (heap() - heapBefore) / games;
+            long residentPerGame = (resident() - residentBefore) / games;
+            int threads = ManagementFactory.getThreadMXBean().getThreadCount() - threadsBefore;
+
+            long[] nanos = new long[games * (MOVES.length - 1)];
+            int timed = 0;
+            for (int move = 0; move < MOVES.length; move++) {
+                for (Player[] game : players) {
+                    Player mover = game[move % 2];
+                    Player opponent = game[1 - move % 2];
+                    //a round is far shorter than the heartbeat timeout of the server
+                    mover.heartbeat();
+                    opponent.heartbeat();
+                    long start = System.nanoTime();
+                    mover.send(ProtocolAction.Place, MOVES[move], mover.role);
+                    mover.expect(ProtocolAction.AskConfirmation);
+                    mover.send(ProtocolAction.Confirmation);
+                    if (move < MOVES.length - 1) {
+                        mover.expect(ProtocolAction.Validate);
+                        mover.send(ProtocolAction.WaitMessage);
+                        opponent.expect(ProtocolAction.Play);
+                        nanos[timed++] = System.nanoTime() - start;
+                    } else {
+                        mover.expect(ProtocolAction.EndGame);
+                        opponent.expect(ProtocolAction.EndGame);
+                        mover.send(ProtocolAction.WaitMessage);
+                        opponent.send(ProtocolAction.WaitMessage);
+                        mover.expect(ProtocolAction.Quit);
+                        opponent.expect(ProtocolAction.Quit);
+                    }
+                }
+            }
+            long start = System.currentTimeMillis();
+            while (running.getAsInt() > 0 && System.currentTimeMillis() - start < 5000) {
+                Thread.sleep(10);
+            }
+            Arrays.sort(nanos);
+            return String.format("%-8s %6d games : heap %6.1f KB/game, resident %6.1f KB/game, %5d threads,"
+                            + " move %.3f ms median, %.3f ms p99",
+                    model, games, heapPerGame / 1024.0, residentPerGame / 1024.0, threads,
+                    nanos[nanos.length / 2] / 1e6, nanos[nanos.length * 99 / 100] / 1e6);
+        } finally {
+            for (Player[] game : players) {
+                if (game == null) continue;
+                game[0].socket.close();
+                game[1].socket.close();
+            }
+            server.close();
+        }
+    }
+
+    /**
+     * @return bytes of the heap still used after a garbage collection
+     * @throws InterruptedException
+     */
+    private static long heap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * @return bytes of the process in memory, 0 when unknown
+     */
+    private static long resident() {
+        Path status = Paths.get("/proc/self/status");
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            //not Linux
+        }
+        return 0;
+    }
+
+    /**
+     * Run the benchmark
+     * @param args optional number of games, then the models to run, all by default
+     * @throws Exception
+     */
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        String[] models = args.length > 1 ? Arrays.copyOfRange(args, 1, args.length)
+                : new String[]{"platform", "virtual", "nio"};
+        MessageCodec codec = MessageCodec.getDefault();
+        for (String model : models) {
+            if (model.equals("virtual") && !VirtualThreads.isAvailable()) {
+                System.out.println("virtual  : no virtual threads on this JVM (Java " + Runtime.version().feature()
+                        + "), run it on Java 21");
+                continue;
+            }
+            //a first small run loads the classes
+            run(Math.min(games, 10), model, codec);
+            System.out.println(run(games, model, codec));
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package tictactoe.server;
+
+import tictactoe.network.Backpressure;
+import tictactoe.network.CustomSocket;
+import tictactoe.network.MessageCodec;
+import tictactoe.network.VirtualThreads;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class SessionServer
+ * Server of many games at once on one port, for the clients of {@link Server}. Players are paired in their order
+ * of connexion, the first of a pair choosing the grid. Each game is a {@link BlockingSession} on its own thread,
+ * each connexion reading and answering heartbeats on its own thread, as with {@link Server} : virtual threads
+ * when the JVM has them (Java 21), platform threads otherwise or when asked for. As {@link NioServer}, it neither
+ * offers nor writes saved games, which its games would share.
+ * @version 1
+ */
+public final class SessionServer implements Closeable {
+    /**
+     * listening socket
+     */
+    private final ServerSocket listener;
+
+    /**
+     * builder of the threads of the games and of their connexions
+     */
+    private final ThreadFactory threads;
+
+    /**
+     * true when the games run on virtual threads
+     */
+    private final boolean virtual;
+
+    /**
+     * wire format of the messages
+     */
+    private final MessageCodec codec;
+
+    /**
+     * thread accepting the connexions
+     */
+    private final Thread acceptor;
+
+    /**
+     * connexions of the games being played, and of the player waiting
+     */
+    private final Set<CustomSocket> connexions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * number of games being played
+     */
+    private final AtomicInteger games = new AtomicInteger();
+
+    /**
+     * Creates a server on the chosen port, on virtual threads when the JVM has them
+     * @param port the port to open for the server, 0 for any free port
+     * @throws IOException if the port can not be opened
+     */
+    public SessionServer(int port) throws IOException {
+        this(port, true);
+    }
+
+    /**
+     * Creates a server on the chosen port
+     * @param port the port to open for the server, 0 for any free port
+     * @param virtual true for virtual threads when the JVM has them, false for platform threads
+     * @throws IOException if the port can not be opened
+     */
+    public SessionServer(int port, boolean virtual) throws IOException {
+        this(port, virtual, MessageCodec.getDefault());
+    }
+
+    /**
+     * Creates a server on the chosen port
+     * @param port the port to open for the server, 0 for any free port
+     * @param virtual true for virtual threads when the JVM has them, false for platform threads
+     * @param codec wire format of the messages, the same for every player
+     * @throws IOException if the port can not be opened
+     */
+    public SessionServer(int port, boolean virtual, MessageCodec codec) throws IOException {
+        this.codec = codec;
+        this.listener = new ServerSocket(port, 1024);
+        this.virtual = virtual && VirtualThreads.isAvailable();
+        this.threads = this.virtual ? VirtualThreads.newFactory("session") : VirtualThreads.platformFactory("session");
+        this.acceptor = new Thread(this::accept, "session-server");
+    }
+
+    /**
+     * Start accepting players
+     */
+    public void start() {
+        this.acceptor.start();
+    }
+
+    /**
+     * @return the port open for the server
+     */
+    public int getPort() {
+        return this.listener.getLocalPort();
+    }
+
+    /**
+     * @return true when the games run on virtual threads
+     */
+    public boolean isVirtual() {
+        return this.virtual;
+    }
+
+    /**
+     * @return number of games being played
+     */
+    public int getGames() {
+        return this.games.get();
+    }
+
+    /**
+     * Accept the players until the server is closed, starting a game for each pair
+     */
+    private void accept() {
+        CustomSocket waiting = null;
+        while (!this.listener.isClosed()) {
+            Socket socket;
+            try {
+                socket = this.listener.accept();
+                socket.setTcpNoDelay(true);
+            } catch (IOException e) {
+                //closed by close()
+                break;
+            }
+            CustomSocket connexion = new CustomSocket(socket, false, CustomSocket.DEFAULT_CAPACITY, Backpressure.BLOCK, this.threads, this.codec);
+            this.connexions.add(connexion);
+            if (waiting != null && !waiting.isConnected()) {
+                //left before having an opponent
+                this.end(waiting);
+                waiting = null;
+            }
+            if (waiting == null) {
+                waiting = connexion;
+                continue;
+            }
+            this.play(waiting, connexion);
+            waiting = null;
+        }
+        if (waiting != null) this.end(waiting);
+    }
+
+    /**
+     * Start the game of a pair of players
+     * @param client1 the first client, he will choose the grid dimensions.
+     * @param client2 the second client.
+     */
+    private void play(CustomSocket client1, CustomSocket client2) {
+        this.games.incrementAndGet();
+        this.threads.newThread(() -> {
+            try {
+                //the saves of the host would be resumed and deleted by several games at once
+                new BlockingSession(client1, client2, false).run();
+            } finally {
+                this.end(client1);
+                this.end(client2);
+                this.games.decrementAndGet();
+            }
+        }).start();
+    }
+
+    /**
+     * @param connexion a connexion no more used, closed
+     */
+    private void end(CustomSocket connexion) {
+        connexion.close();
+        this.connexions.remove(connexion);
+    }
+
+    /**
+     * Stop the server, every game is told of the disconnection of its players
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        this.listener.close();
+        try {
+            this.acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (CustomSocket connexion : this.connexions) {
+            connexion.close();
+        }
+    }
+
+    /**
+     * Run a server
+     * @param args optional port, 9876 by default, and "platform" for platform threads
+     * @throws IOException if the port can not be opened
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 9876;
+        SessionServer server = new SessionServer(port, args.length < 2 || !args[1].equals("platform"));
+        server.start();
+    }
+}
@@ -4,8 +4,6 @@ import org.junit.jupiter.api.Test;
 import tictactoe.client.Client;
 import tictactoe.client.PlayerClient;
 import tictactoe.grid.Grid;
-import tictactoe.grid.Grid3D;
-import tictactoe.grid.Grid3DTest;
 import tictactoe.server.Server;
 
 import java.lang.reflect.Field;
@@ -50,47 +48,60 @@ public class ServerTest {
         }
     }
 
+    /**
+     * @return the game session of a server
+     */
+    private static Object session(Server server) throws NoSuchFieldException, IllegalAccessException {
+        Field session = Server.class.getDeclaredField("session");
+        session.setAccessible(true);
+        return session.get(server);
+    }
+
     @Test
     public void server_save() throws  NoSuchFieldException, IllegalAccessException, NoSuchMethodException, InvocationTargetException {
         server = new Server();
+        Object session = session(server);
+        Class<?> sessionClass = session.getClass();
 
         boolean isClient1TurnValue = true;
         String lastPlayerValue = "X";
         int gridDimension =3;
         int gridWidth =3;
 
-        Method setGrid = Server.class.getDeclaredMethod("setGrid", int.class, int.class);
+        Method setGrid = sessionClass.getDeclaredMethod("setGrid", int.class, int.class);
         setGrid.setAccessible(true);
-        setGrid.invoke(server,gridDimension,gridWidth);
+        setGrid.invoke(session,gridDimension,gridWidth);
 
-        Field isClient1Turn = Server.class.getDeclaredField("isClient1Turn");
+        Field isClient1Turn = sessionClass.getDeclaredField("isClient1Turn");
         isClient1Turn.setAccessible(true);
-        isClient1Turn.set(server,isClient1TurnValue);
+        isClient1Turn.set(session,isClient1TurnValue);
 
-        Field lastPlayer = Server.class.getDeclaredField("lastPlayer");
+        Field lastPlayer = sessionClass.getDeclaredField("lastPlayer");
         lastPlayer.setAccessible(true);
-        lastPlayer.set(server,lastPlayerValue);
+        lastPlayer.set(session,lastPlayerValue);
 
         server.save("test");
 
         Server serverLoaded = new Server();
-        Method loadGame = Server.class.getDeclaredMethod("loadGame", String.class);
+        Object sessionLoaded = session(serverLoaded);
+        Method loadGame = sessionClass.getDeclaredMethod("loadGame", String.class);
         loadGame.setAccessible(true);
-        loadGame.invoke(serverLoaded,"test");
+        loadGame.invoke(sessionLoaded,"test");
 
-        Field isClient1TurnLoaded = Server.class.getDeclaredField("isClient1Turn");
+        Field isClient1TurnLoaded = sessionClass.getDeclaredField("isClient1Turn");
         isClient1TurnLoaded.setAccessible(true);
 
-        Field lastPlayerLoaded = Server.class.getDeclaredField("lastPlayer");
+        Field lastPlayerLoaded = sessionClass.getDeclaredField("lastPlayer");
         lastPlayerLoaded.setAccessible(true);
 
-        Field grid = Server.class.getDeclaredField("grid");
+        Field grid = sessionClass.getDeclaredField("grid");
         grid.setAccessible(true);
 
-        assertEquals(lastPlayerValue,lastPlayerLoaded.get(serverLoaded));
-        assertEquals(Grid3D.class.getName(),grid.get(serverLoaded).getClass().getName());
-        assertEquals(gridWidth,((Grid)grid.get(serverLoaded)).getSize());
-        assertEquals(isClient1TurnValue,isClient1TurnLoaded.get(serverLoaded));
+        assertEquals(lastPlayerValue,lastPlayerLoaded.get(sessionLoaded));
+        assertEquals(Grid.getImplementation(gridWidth,gridDimension).getName(),grid.get(sessionLoaded).getClass().getName());
+        assertEquals(gridDimension,((Grid)grid.get(sessionLoaded)).getDimension());
+        assertEquals(gridWidth,((Grid)grid.get(sessionLoaded)).getSize());
+        assertEquals(isClient1TurnValue,isClient1TurnLoaded.get(sessionLoaded));
     }
 }
 
@@ -0,0 +1,63 @@
+package tictactoe.ai;
+
+import org.junit.jupiter.api.Test;
+import tictactoe.grid.Grid;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class LineEvaluatorTest
+ * @version 1
+ */
+public class LineEvaluatorTest {
+
+    @Test
+    public void open_lines_count() throws Exception {
+        LineEvaluator evaluator = new LineEvaluator(3, 2);
+        Grid grid = Grid.create(3, 2);
+        evaluator.reset(grid, 'X');
+        assertEquals(0, evaluator.getScore());
+        //the center opens a row, a column and both diagonals
+        grid.place(4, 'X');
+        evaluator.play(4, true);
+        assertEquals(4, evaluator.getScore());
+        //the corner kills the diagonal, opens a row and a column for O
+        grid.place(0, 'O');
+        evaluator.play(0, false);
+        assertEquals(3 - 2, evaluator.getScore());
+        //two stones in the middle column count 4
+        grid.place(1, 'X');
+        evaluator.play(1, true);
+        assertEquals(4 + 1 + 1 - 1, evaluator.getScore());
+        evaluator.reset(grid, 'O');
+        assertEquals(-5, evaluator.getScore());
+    }
+
+    @Test
+    public void incremental_score_matches_reset() throws Exception {
+        Random random = new Random(11);
+        for (int[] shape : new int[][]{{4, 2}, {3, 3}, {5, 3}}) {
+            Grid grid = Grid.create(shape[0], shape[1]);
+            LineEvaluator incremental = new LineEvaluator(shape[0], shape[1]);
+            LineEvaluator full = new LineEvaluator(shape[0], shape[1]);
+            incremental.reset(grid, 'O');
+            boolean mine = false;
+            for (int i = 0; i < 200; i++) {
+                int cell = random.nextInt(grid.getTotalSize());
+                if (grid.getValue(cell) == '\0') {
+                    grid.place(cell, mine ? 'O' : 'X');
+                    incremental.play(cell, mine);
+                    mine = !mine;
+                } else {
+                    incremental.undo(cell, grid.getValue(cell) == 'O');
+                    grid.unplace(cell);
+                }
+                full.reset(grid, 'O');
+                assertEquals(full.getScore(), incremental.getScore());
+                assertTrue(Math.abs(full.getScore()) <= LineEvaluator.MAX_SCORE);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package tictactoe.ai;
+
+import org.junit.jupiter.api.Test;
+import tictactoe.grid.Grid;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class MctsSearchTest
+ * @version 1
+ */
+public class MctsSearchTest {
+
+    @Test
+    public void finds_the_win_and_the_block() throws Exception {
+        Grid grid = Grid.create(3, 2);
+        grid.place(0, 'O');
+        grid.place(1, 'O');
+        grid.place(4, 'X');
+        grid.place(8, 'X');
+        MctsSearch search = new MctsSearch(1);
+        long hash = grid.hash();
+        assertEquals(2, search.search(grid, 'O', 200));
+        assertEquals(hash, grid.hash());
+        assertTrue(search.getValue() > 0.9);
+        search.clear();
+        assertEquals(2, search.search(grid, 'X', 200));
+    }
+
+    @Test
+    public void reuses_the_tree() throws Exception {
+        Grid grid = Grid.create(3, 3);
+        MctsSearch search = new MctsSearch(1);
+        int move = search.search(grid, 'X', 100);
+        assertEquals(0, search.getReusedVisits());
+        assertTrue(search.getPlayouts() > 0);
+        grid.place(move, 'X');
+        int reply = move == 0 ? 1 : 0;
+        grid.place(reply, 'O');
+        search.search(grid, 'X', 100);
+        assertTrue(search.getReusedVisits() > 0);
+        search.clear();
+        search.search(grid, 'X', 10);
+        assertEquals(0, search.getReusedVisits());
+    }
+
+    @Test
+    public void pondering_grows_the_next_tree() throws Exception {
+        Grid grid = Grid.create(5, 3);
+        grid.place(62, 'X');
+        MctsSearch search = new MctsSearch(1);
+        AtomicBoolean stop = new AtomicBoolean();
+        long hash = grid.hash();
+        Thread thread = new Thread(() -> {
+            try {
+                search.ponder(grid, 'X', stop);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.start();
+        Thread.sleep(300);
+        stop.set(true);
+        thread.join(2000);
+        assertFalse(thread.isAlive());
+        assertEquals(hash, grid.hash());
+        assertTrue(search.getPlayouts() > 0);
+
+        grid.place(0, 'O');
+        search.search(grid, 'X', 50);
+        assertTrue(search.getReusedVisits() > 0);
+    }
+
+    @Test
+    public void parallel_search_on_a_big_grid() throws Exception {
+        Grid grid = Grid.create(6, 3);
+        grid.place(0, 'X');
+        grid.place(1, 'X');
+        grid.place(2, 'X');
+        grid.place(42, 'O');
+        grid.place(86, 'O');
+        MctsSearch search = new MctsSearch(4);
+        try {
+            long hash = grid.hash();
+            long start = System.nanoTime();
+            int move = search.search(grid, 'O', 300);
+            assertTrue(System.nanoTime() - start < 2_000_000_000L);
+            assertEquals(hash, grid.hash());
+            assertEquals('\0', grid.getValue(move));
+            assertTrue(search.getTreeSize() > 1);
+            //O has to block the last cell of the row
+            grid.place(3, 'X');
+            grid.place(4, 'X');
+            grid.place(129, 'O');
+            grid.place(172, 'O');
+            assertEquals(5, search.search(grid, 'O', 300));
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    @Test
+    public void engines_search_side_by_side() throws Exception {
+        Engine[] engines = {new MctsSearch(1), new MinmaxSearch(1, 1)};
+        SearchResult[] results = new SearchResult[engines.length];
+        Thread[] threads = new Thread[engines.length];
+        for (int i = 0; i < engines.length; i++) {
+            int engine = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    Grid grid = Grid.create(5, 3);
+                    grid.place(62, 'X');
+                    results[engine] = engines[engine].search(grid, 'O', new SearchLimits(10_000, 2_000));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        //the playout budget is exact on one thread
+        assertEquals(2_000, results[0].getNodes());
+        for (SearchResult result : results) {
+            assertNotEquals(62, result.getMove());
+            assertTrue(result.getDepth() >= 1);
+            assertTrue(Math.abs(result.getScore()) < MinmaxSearch.WIN_SCORE);
+        }
+    }
+
+    @Test
+    public void thread_count_checked() {
+        assertThrows(IllegalArgumentException.class, () -> new MctsSearch(0));
+        MctsSearch search = new MctsSearch(2);
+        assertEquals(2, search.getThreads());
+        search.shutdown();
+    }
+}
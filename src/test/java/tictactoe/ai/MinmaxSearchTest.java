@@ -0,0 +1,156 @@
+package tictactoe.ai;
+
+import org.junit.jupiter.api.Test;
+import tictactoe.grid.Grid;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class MinmaxSearchTest
+ * @version 1
+ */
+public class MinmaxSearchTest {
+
+    /**
+     * Play random moves until no one has won and the given number of cells is left
+     */
+    private Grid randomPosition(int size, int dimension, int remaining, Random random) throws Exception {
+        Grid grid = Grid.create(size, dimension);
+        char player = 'X';
+        while (grid.getRemainingCells() > remaining) {
+            int position = random.nextInt(grid.getTotalSize());
+            if (grid.getValue(position) != '\0') continue;
+            if (grid.place(position, player)) {
+                grid.unplace(position);
+                continue;
+            }
+            player = player == 'X' ? 'O' : 'X';
+        }
+        return grid;
+    }
+
+    @Test
+    public void finds_the_win() throws Exception {
+        Grid grid = Grid.create(3, 2);
+        grid.place(0, 'O');
+        grid.place(1, 'O');
+        grid.place(4, 'X');
+        grid.place(8, 'X');
+        MinmaxSearch search = new MinmaxSearch(1, 1);
+        long hash = grid.hash();
+        assertEquals(2, search.search(grid, 'O', 1000));
+        assertEquals(MinmaxSearch.WIN_SCORE, search.getScore());
+        assertEquals(hash, grid.hash());
+        //X to move blocks, which makes a double threat on 5 and 6
+        search.clear();
+        assertEquals(2, search.search(grid, 'X', 1000));
+        assertEquals(MinmaxSearch.WIN_SCORE, search.getScore());
+    }
+
+    @Test
+    public void parallel_value_matches_single_thread() throws Exception {
+        Random random = new Random(5);
+        MinmaxSearch single = new MinmaxSearch(4, 1);
+        MinmaxSearch parallel = new MinmaxSearch(4, 4);
+        try {
+            for (int i = 0; i < 20; i++) {
+                //small enough to be solved, so both searches reach the last depth
+                Grid grid = i % 2 == 0 ? randomPosition(3, 2, 7, random) : randomPosition(3, 3, 20, random);
+                char player = grid.getRemainingCells() % 2 == 1 ? 'X' : 'O';
+                single.clear();
+                parallel.clear();
+                int singleMove = single.search(grid, player, 10_000);
+                long hash = grid.hash();
+                int parallelMove = parallel.search(grid, player, 10_000);
+                assertEquals(hash, grid.hash());
+                assertEquals(single.getScore(), parallel.getScore());
+                assertEquals('\0', grid.getValue(parallelMove));
+                assertEquals('\0', grid.getValue(singleMove));
+                if (single.getScore() == MinmaxSearch.WIN_SCORE && !grid.place(parallelMove, player)) {
+                    //the parallel move has to win too
+                    single.clear();
+                    single.search(grid, player == 'X' ? 'O' : 'X', 10_000);
+                    assertEquals(-MinmaxSearch.WIN_SCORE, single.getScore());
+                }
+            }
+        } finally {
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    public void pondering_prepares_the_next_search() throws Exception {
+        Grid grid = Grid.create(4, 3);
+        grid.place(21, 'X');
+        MinmaxSearch pondered = new MinmaxSearch(8, 1);
+        AtomicBoolean stop = new AtomicBoolean();
+        long hash = grid.hash();
+        Thread thread = new Thread(() -> {
+            try {
+                pondered.ponder(grid, 'X', stop);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.start();
+        Thread.sleep(500);
+        long stopped = System.nanoTime();
+        stop.set(true);
+        thread.join(2000);
+        assertFalse(thread.isAlive());
+        assertTrue(System.nanoTime() - stopped < 1_000_000_000L);
+        assertEquals(hash, grid.hash());
+
+        //with an empty table, the first reply pondered is the first empty cell
+        grid.place(0, 'O');
+        MinmaxSearch fresh = new MinmaxSearch(8, 1);
+        SearchLimits limits = new SearchLimits(60_000, 20_000);
+        assertTrue(pondered.search(grid, 'X', limits).getDepth() > fresh.search(grid, 'X', limits).getDepth());
+    }
+
+    @Test
+    public void node_limit_is_reproducible() throws Exception {
+        Grid grid = Grid.create(4, 3);
+        grid.place(0, 'X');
+        SearchLimits limits = new SearchLimits(60_000, 50_000);
+        SearchResult first = new MinmaxSearch(4, 1).search(grid, 'O', limits);
+        SearchResult second = new MinmaxSearch(4, 1).search(grid, 'O', limits);
+        assertEquals(first.getMove(), second.getMove());
+        assertEquals(first.getScore(), second.getScore());
+        assertEquals(first.getDepth(), second.getDepth());
+        assertEquals(first.getNodes(), second.getNodes());
+        //the budget is checked every 1024 nodes
+        assertTrue(first.getNodes() < 50_000 + 1024);
+        assertTrue(first.getElapsedNanos() > 0);
+        assertThrows(IllegalArgumentException.class, () -> new SearchLimits(-1, 0));
+    }
+
+    @Test
+    public void leaves_are_counted() throws Exception {
+        SearchWorker worker = new SearchWorker(new TranspositionTable(1), 3, 2);
+        worker.prepare(Grid.create(3, 2), 'X', Long.MAX_VALUE, Long.MAX_VALUE, new AtomicBoolean());
+        worker.searchRoot(1);
+        //the root and its 9 leaves
+        assertEquals(10, worker.getNodes());
+        assertEquals(1, worker.getExpanded());
+
+        //a single cell left, filled by the only move : the root and a full grid
+        Grid grid = Grid.create(3, 2);
+        char[] cells = {'X', 'O', 'X', 'X', 'O', 'O', 'O', 'X'};
+        for (int i = 0; i < cells.length; i++) grid.place(i, cells[i]);
+        worker.prepare(grid, 'X', Long.MAX_VALUE, Long.MAX_VALUE, new AtomicBoolean());
+        assertEquals(0, worker.searchRoot(1));
+        assertEquals(2, worker.getNodes());
+    }
+
+    @Test
+    public void thread_count_checked() {
+        assertThrows(IllegalArgumentException.class, () -> new MinmaxSearch(1, 0));
+        MinmaxSearch search = new MinmaxSearch(1, 3);
+        assertEquals(3, search.getThreads());
+        search.shutdown();
+    }
+}
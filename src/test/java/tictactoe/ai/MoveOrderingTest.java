@@ -0,0 +1,67 @@
+package tictactoe.ai;
+
+import org.junit.jupiter.api.Test;
+import tictactoe.grid.Grid;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class MoveOrderingTest
+ * @version 1
+ */
+public class MoveOrderingTest {
+
+    /**
+     * @return the moves of a node, in the order they are given
+     */
+    private int[] order(MoveOrdering ordering, Grid grid, int ply, int side, int tableMove) {
+        ordering.start(ply, side, tableMove);
+        int[] moves = new int[grid.getRemainingCells()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = ordering.next(grid, ply);
+        }
+        assertEquals(-1, ordering.next(grid, ply));
+        return moves;
+    }
+
+    @Test
+    public void center_and_diagonals_first() throws Exception {
+        MoveOrdering ordering = new MoveOrdering(3, 2);
+        assertArrayEquals(new int[]{4, 0, 2, 6, 8, 1, 3, 5, 7}, order(ordering, Grid.create(3, 2), 0, 0, -1));
+        assertEquals(13, order(new MoveOrdering(3, 3), Grid.create(3, 3), 0, 0, -1)[0]);
+        //4x4 : the 4 central cells are on both a diagonal and are the closest to the center
+        int[] moves = order(new MoveOrdering(4, 2), Grid.create(4, 2), 0, 0, -1);
+        assertArrayEquals(new int[]{5, 6, 9, 10}, new int[]{moves[0], moves[1], moves[2], moves[3]});
+    }
+
+    @Test
+    public void only_empty_cells_once() throws Exception {
+        MoveOrdering ordering = new MoveOrdering(3, 2);
+        Grid grid = Grid.create(3, 2);
+        grid.place(4, 'X');
+        grid.place(0, 'O');
+        ordering.cutoff(0, 0, 8, 3);
+        ordering.cutoff(0, 0, 4, 3);
+        int[] moves = order(ordering, grid, 0, 0, 0);
+        assertArrayEquals(new int[]{8, 2, 6, 1, 3, 5, 7}, moves);
+    }
+
+    @Test
+    public void table_move_then_killers_then_history() throws Exception {
+        MoveOrdering ordering = new MoveOrdering(3, 2);
+        Grid grid = Grid.create(3, 2);
+        //history of the other side must not count
+        ordering.cutoff(5, 1, 3, 9);
+        //killers of another ply must not count, but give history to 7
+        ordering.cutoff(1, 0, 7, 2);
+        ordering.cutoff(0, 0, 5, 1);
+        ordering.cutoff(0, 0, 1, 1);
+        int[] moves = order(ordering, grid, 0, 0, 6);
+        assertArrayEquals(new int[]{6, 1, 5, 7, 4, 0, 2, 8, 3}, moves);
+        ordering.newSearch();
+        moves = order(ordering, grid, 0, 0, -1);
+        assertEquals(7, moves[0]);
+        ordering.clear();
+        assertArrayEquals(new int[]{4, 0, 2, 6, 8, 1, 3, 5, 7}, order(ordering, grid, 0, 0, -1));
+    }
+}
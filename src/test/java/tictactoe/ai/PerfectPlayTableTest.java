@@ -0,0 +1,97 @@
+package tictactoe.ai;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tictactoe.grid.Grid;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class PerfectPlayTableTest
+ * @version 1
+ */
+public class PerfectPlayTableTest {
+
+    @TempDir
+    static Path directory;
+
+    static PerfectPlayTable table;
+
+    @BeforeAll
+    static void generate() throws Exception {
+        PerfectPlayGenerator generator = new PerfectPlayGenerator(3, 2, true);
+        generator.generate();
+        //unfinished positions reachable on 3x3, one per symmetry class
+        assertEquals(627, generator.getCount());
+        Path file = directory.resolve(PerfectPlayTable.getFileName(3, 2));
+        generator.write(file);
+        table = new PerfectPlayTable(file);
+    }
+
+    /**
+     * Check the table gives an empty cell in every unfinished position reachable from a grid
+     * @return number of positions checked
+     */
+    private int checkReachable(Grid grid, char player, Set<Long> seen) throws Exception {
+        if (!seen.add(PerfectPlayTable.key(grid))) return 0;
+        int move = table.getMove(grid, player);
+        assertTrue(move >= 0 && move < 9);
+        assertEquals('\0', grid.getValue(move));
+        int count = 1;
+        for (int cell = 0; cell < 9; cell++) {
+            if (grid.getValue(cell) != '\0') continue;
+            if (!grid.place(cell, player) && grid.getRemainingCells() > 0) {
+                count += checkReachable(grid, player == 'X' ? 'O' : 'X', seen);
+            }
+            grid.unplace(cell);
+        }
+        return count;
+    }
+
+    @Test
+    public void every_position_is_found() throws Exception {
+        assertEquals(627, table.getCount());
+        Grid grid = Grid.create(3, 2);
+        assertEquals(4520, checkReachable(grid, 'X', new HashSet<>()));
+        //O is not to move on an empty grid
+        assertEquals(-1, table.getMove(grid, 'O'));
+        assertEquals(-1, table.getMove(Grid.create(3, 3), 'X'));
+    }
+
+    @Test
+    public void wins_and_blocks() throws Exception {
+        Grid grid = Grid.create(3, 2);
+        grid.place(0, 'X');
+        grid.place(4, 'O');
+        grid.place(1, 'X');
+        assertEquals(2, table.getMove(grid, 'O'));
+        grid.place(8, 'O');
+        //X completes its row rather than blocking
+        assertEquals(2, table.getMove(grid, 'X'));
+    }
+
+    @Test
+    public void perfect_play_draws() throws Exception {
+        Grid grid = Grid.create(3, 2);
+        char player = 'X';
+        while (grid.getRemainingCells() > 0) {
+            int move = table.getMove(grid, player);
+            assertFalse(grid.place(move, player));
+            player = player == 'X' ? 'O' : 'X';
+        }
+    }
+
+    @Test
+    public void bad_file_rejected() throws Exception {
+        Path file = directory.resolve("bad.bin");
+        Files.write(file, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> new PerfectPlayTable(file));
+    }
+}
@@ -0,0 +1,108 @@
+package tictactoe.ai;
+
+import org.junit.jupiter.api.Test;
+import tictactoe.grid.Grid;
+
+import javax.management.MBeanServer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class SearchStatisticsTest
+ * @version 1
+ */
+public class SearchStatisticsTest {
+
+    @Test
+    public void listeners_get_every_search() throws Exception {
+        MinmaxSearch search = new MinmaxSearch(8, 1);
+        List<SearchResult> results = new ArrayList<>();
+        SearchListener listener = results::add;
+        search.addListener(listener);
+        Grid grid = Grid.create(4, 2);
+        SearchResult result = search.search(grid, 'X', new SearchLimits(60000, 20000));
+        assertEquals(1, results.size());
+        assertSame(result, results.get(0));
+
+        search.removeListener(listener);
+        search.search(grid, 'X', new SearchLimits(60000, 20000));
+        assertEquals(1, results.size());
+    }
+
+    @Test
+    public void minmax_reports_cutoffs_and_table_hits() throws Exception {
+        MinmaxSearch search = new MinmaxSearch(8, 1);
+        SearchResult result = search.search(Grid.create(4, 2), 'X', new SearchLimits(60000, 50000));
+        assertTrue(result.getDepth() > 1);
+        assertTrue(result.getExpandedNodes() > 0 && result.getExpandedNodes() <= result.getNodes());
+        assertTrue(result.getCutoffs() > 0 && result.getCutoffs() <= result.getExpandedNodes());
+        assertTrue(result.getTableHits() > 0 && result.getTableHits() <= result.getTableProbes());
+        assertTrue(result.getCutoffRate() > 0 && result.getCutoffRate() <= 1);
+        assertTrue(result.getTableHitRate() > 0 && result.getTableHitRate() <= 1);
+        assertTrue(result.getNodesPerSecond() > 0);
+        //a uniform tree of that depth and branching factor holds the nodes searched
+        assertEquals(result.getNodes(), Math.pow(result.getBranchingFactor(), result.getDepth()), result.getNodes() * 1e-9);
+    }
+
+    @Test
+    public void mcts_reports_playouts() throws Exception {
+        MctsSearch search = new MctsSearch(1);
+        SearchStatistics statistics = new SearchStatistics();
+        search.addListener(statistics);
+        search.search(Grid.create(5, 2), 'X', new SearchLimits(60000, 2000));
+        assertEquals(1, statistics.getSearches());
+        assertEquals(2000, statistics.getLastNodes());
+        //no pruning nor table in a tree search
+        assertEquals(0, statistics.getLastCutoffRate());
+        assertEquals(0, statistics.getLastTableHitRate());
+    }
+
+    @Test
+    public void rates_of_an_empty_search() {
+        SearchResult result = new SearchResult(0, 0, 0, 0, 0);
+        assertEquals(0, result.getNodesPerSecond());
+        assertEquals(0, result.getCutoffRate());
+        assertEquals(0, result.getTableHitRate());
+        assertEquals(0, result.getBranchingFactor());
+    }
+
+    @Test
+    public void statistics_sum_the_searches() {
+        SearchStatistics statistics = new SearchStatistics();
+        assertEquals(-1, statistics.getLastMove());
+        statistics.searchFinished(new SearchResult(3, 0, 2, 100, 1_000_000, 40, 10, 50, 5));
+        statistics.searchFinished(new SearchResult(7, 0, 4, 300, 1_000_000, 60, 40, 50, 45));
+        assertEquals(2, statistics.getSearches());
+        assertEquals(400, statistics.getTotalNodes());
+        assertEquals(200_000, statistics.getAverageNodesPerSecond(), 1e-6);
+        assertEquals(0.5, statistics.getAverageCutoffRate(), 1e-9);
+        assertEquals(0.5, statistics.getAverageTableHitRate(), 1e-9);
+        assertEquals(7, statistics.getLastMove());
+        assertEquals(4, statistics.getLastDepth());
+        assertEquals(1.0, statistics.getLastMillis(), 1e-9);
+        assertEquals(0.9, statistics.getLastTableHitRate(), 1e-9);
+
+        statistics.reset();
+        assertEquals(0, statistics.getSearches());
+        assertNull(statistics.getLast());
+    }
+
+    @Test
+    public void statistics_through_jmx() throws Exception {
+        SearchStatistics statistics = new SearchStatistics();
+        statistics.searchFinished(new SearchResult(3, 0, 2, 100, 1_000_000, 40, 10, 50, 5));
+        statistics.register("test");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(100L, server.getAttribute(statistics.getName(), "LastNodes"));
+            assertEquals(0.25, (Double) server.getAttribute(statistics.getName(), "LastCutoffRate"), 1e-9);
+            assertThrows(IllegalStateException.class, () -> statistics.register("test"));
+        } finally {
+            statistics.unregister();
+        }
+        assertNull(statistics.getName());
+    }
+}
@@ -0,0 +1,111 @@
+package tictactoe.ai;
+
+import org.junit.jupiter.api.Test;
+import tictactoe.grid.Grid;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class TournamentTest
+ * @version 1
+ */
+public class TournamentTest {
+
+    /**
+     * Weak engine playing the first empty cell
+     */
+    private static final class FirstCell implements Engine {
+        @Override
+        public SearchResult search(Grid grid, char player, SearchLimits limits) {
+            int cell = 0;
+            while (grid.getValue(cell) != '\0') cell++;
+            return new SearchResult(cell, 0, 0, 1, 0);
+        }
+
+        @Override
+        public void addListener(SearchListener listener) {
+        }
+
+        @Override
+        public void removeListener(SearchListener listener) {
+        }
+
+        @Override
+        public void clear() {
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+
+    private Tournament tournament() {
+        Tournament tournament = new Tournament(new SearchLimits(60000, 2000), 1, 42);
+        tournament.addEntrant("minmax", () -> new MinmaxSearch(1, 1));
+        tournament.addEntrant("first", FirstCell::new);
+        tournament.addShape(3, 2);
+        tournament.addShape(3, 3);
+        return tournament;
+    }
+
+    @Test
+    public void stronger_engine_wins() throws Exception {
+        List<MatchResult> results = this.tournament().play(10, 2);
+        assertEquals(2, results.size());
+        for (MatchResult result : results) {
+            assertEquals("minmax", result.getFirst());
+            assertEquals(20, result.getGames());
+            assertEquals(0, result.getLosses());
+            assertTrue(result.isSignificant(), result.toString());
+        }
+        assertEquals(3, results.get(1).getDimension());
+    }
+
+    @Test
+    public void parallel_games_are_reproducible() throws Exception {
+        List<MatchResult> sequential = this.tournament().play(6, 1);
+        List<MatchResult> parallel = this.tournament().play(6, 3);
+        for (int i = 0; i < sequential.size(); i++) {
+            assertEquals(sequential.get(i).toString(), parallel.get(i).toString());
+        }
+    }
+
+    @Test
+    public void seeded_engines_are_reproducible() throws Exception {
+        List<List<MatchResult>> runs = new ArrayList<>();
+        for (int run = 0; run < 2; run++) {
+            Tournament tournament = new Tournament(new SearchLimits(60000, 200), 1, 7);
+            tournament.addEntrant("mcts", seed -> new MctsSearch(1, seed));
+            tournament.addEntrant("minmax", () -> new MinmaxSearch(1, 1));
+            tournament.addShape(3, 3);
+            runs.add(tournament.play(6, 3));
+        }
+        assertEquals(runs.get(0).get(0).toString(), runs.get(1).get(0).toString());
+    }
+
+    @Test
+    public void score_interval() {
+        MatchResult even = new MatchResult("a", "b", 3, 2, 10, 0, 10);
+        assertEquals(0.5, even.getScore());
+        //standard deviation 0.5 over 20 games
+        assertEquals(1.96 * 0.5 / Math.sqrt(20), even.getScoreMargin(), 1e-9);
+        assertFalse(even.isSignificant());
+
+        MatchResult draws = new MatchResult("a", "b", 3, 2, 0, 8, 0);
+        assertEquals(0.5, draws.getScore());
+        assertEquals(0, draws.getScoreMargin(), 1e-9);
+        assertEquals("a vs b on 3x3 : +0 =8 -0, score 0.500 ± 0.000", draws.toString());
+    }
+
+    @Test
+    public void needs_two_entrants() {
+        Tournament tournament = new Tournament(SearchLimits.ofMillis(10), 0, 0);
+        tournament.addEntrant("alone", FirstCell::new);
+        tournament.addShape(3, 2);
+        assertThrows(IllegalStateException.class, () -> tournament.play(1));
+        assertThrows(IllegalArgumentException.class, () -> tournament.addShape(3, 4));
+    }
+}
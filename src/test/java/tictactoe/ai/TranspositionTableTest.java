@@ -0,0 +1,56 @@
+package tictactoe.ai;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class TranspositionTableTest
+ * @version 1
+ */
+public class TranspositionTableTest {
+
+    @Test
+    public void capacity_follows_budget() {
+        assertEquals(1 << 16, new TranspositionTable(1).getCapacity());
+        assertEquals(1 << 19, new TranspositionTable(8).getCapacity());
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+    }
+
+    @Test
+    public void store_and_probe() {
+        TranspositionTable table = new TranspositionTable(1);
+        assertEquals(TranspositionTable.MISS, table.probe(42));
+        table.store(42, 7, TranspositionTable.UPPER, -10, 26);
+        long entry = table.probe(42);
+        assertNotEquals(TranspositionTable.MISS, entry);
+        assertEquals(7, TranspositionTable.getDepth(entry));
+        assertEquals(TranspositionTable.UPPER, TranspositionTable.getBound(entry));
+        assertEquals(-10, TranspositionTable.getScore(entry));
+        assertEquals(26, TranspositionTable.getMove(entry));
+        table.store(43, 0, TranspositionTable.EXACT, 0, -1);
+        assertEquals(-1, TranspositionTable.getMove(table.probe(43)));
+        table.clear();
+        assertEquals(TranspositionTable.MISS, table.probe(42));
+    }
+
+    @Test
+    public void deeper_entry_kept_during_a_search() {
+        TranspositionTable table = new TranspositionTable(1);
+        long other = 42 + table.getCapacity();
+        table.store(42, 5, TranspositionTable.EXACT, 10, 1);
+        //same slot, shallower : ignored
+        table.store(other, 2, TranspositionTable.EXACT, 0, 2);
+        assertEquals(TranspositionTable.MISS, table.probe(other));
+        assertEquals(10, TranspositionTable.getScore(table.probe(42)));
+        //same position : always replaced
+        table.store(42, 1, TranspositionTable.LOWER, 0, 3);
+        assertEquals(1, TranspositionTable.getDepth(table.probe(42)));
+        //older search : replaced
+        table.store(42, 5, TranspositionTable.EXACT, 10, 1);
+        table.newSearch();
+        table.store(other, 2, TranspositionTable.EXACT, 0, 2);
+        assertEquals(TranspositionTable.MISS, table.probe(42));
+        assertEquals(2, TranspositionTable.getMove(table.probe(other)));
+    }
+}
@@ -7,7 +7,7 @@ import tictactoe.network.ProtocolAction;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Class AiClientTest
@@ -39,6 +39,58 @@ public class AiClientTest {
         assertEquals( ProtocolAction.WaitMessage, networkMessage.getProtocolAction());
     }
 
+    @Test
+    public void ai_plays_winning_move() {
+        Client client = new AIClient(1);
+        assertEquals(ProtocolAction.WaitMessage, client.startGame("X","O","2","3",null).getProtocolAction());
+        client.validate("1");
+        client.validate("2");
+        client.play("5");
+        client.grid.setValue(8, 'O');
+        NetworkMessage networkMessage = client.play("7");
+        assertEquals(ProtocolAction.Place, networkMessage.getProtocolAction());
+        assertEquals("3", networkMessage.getParameters()[0]);
+    }
+
+    @Test
+    public void ai_blocks_opponent() {
+        Client client = new AIClient(1, 200);
+        client.startGame("O","X","2","4",null);
+        client.play("1");
+        client.validate("5");
+        client.play("2");
+        client.validate("6");
+        NetworkMessage networkMessage = client.play("3");
+        assertEquals("4", networkMessage.getParameters()[0]);
+    }
+
+    @Test
+    public void ai_respects_move_time() {
+        Client client = new AIClient(1, 200);
+        client.startGame("X","O","3","5",null);
+        long start = System.currentTimeMillis();
+        NetworkMessage networkMessage = client.play("A1");
+        assertTrue(System.currentTimeMillis() - start < 1000);
+        assertEquals(ProtocolAction.Place, networkMessage.getProtocolAction());
+        assertNotEquals("A1", networkMessage.getParameters()[0]);
+        assertTrue(((AIClient) client).getLastResult().getNodes() > 0);
+        assertSame(((AIClient) client).getLastResult(), ((AIClient) client).getStatistics().getLast());
+    }
+
+    @Test
+    public void ai_ponders_on_opponent_time() {
+        AIClient client = new AIClient(1, 100);
+        NetworkMessage networkMessage = client.startGame("X","X","3","4",null);
+        client.validate(networkMessage.getParameters()[0]);
+        long start = System.currentTimeMillis();
+        client.startPondering();
+        client.stopPondering();
+        assertTrue(System.currentTimeMillis() - start < 1000);
+        networkMessage = client.play(networkMessage.getParameters()[0].equals("A1") ? "A2" : "A1");
+        assertEquals(ProtocolAction.Place, networkMessage.getProtocolAction());
+        client.quit();
+    }
+
     @Test
     public void ai_opponent_disconnected() {
         Client client = new AIClient();
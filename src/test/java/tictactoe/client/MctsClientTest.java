@@ -0,0 +1,38 @@
+package tictactoe.client;
+
+import org.junit.jupiter.api.Test;
+import tictactoe.network.NetworkMessage;
+import tictactoe.network.ProtocolAction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class MctsClientTest
+ * @version 1
+ */
+public class MctsClientTest {
+
+    @Test
+    public void mcts_blocks_opponent() {
+        Client client = new MctsClient(200);
+        client.startGame("O","X","2","4",null);
+        client.play("1");
+        client.validate("5");
+        client.play("2");
+        client.validate("6");
+        NetworkMessage networkMessage = client.play("3");
+        assertEquals("4", networkMessage.getParameters()[0]);
+    }
+
+    @Test
+    public void mcts_respects_move_time() {
+        Client client = new MctsClient(200, 2);
+        NetworkMessage start = client.startGame("X","X","3","5",null);
+        assertEquals(ProtocolAction.Place, start.getProtocolAction());
+        long begin = System.currentTimeMillis();
+        NetworkMessage networkMessage = client.play(start.getParameters()[0].equals("A1") ? "A2" : "A1");
+        assertTrue(System.currentTimeMillis() - begin < 1000);
+        assertEquals(ProtocolAction.Place, networkMessage.getProtocolAction());
+        client.quit();
+    }
+}
@@ -0,0 +1,117 @@
+package tictactoe.grid;
+
+import org.junit.jupiter.api.Test;
+import tictactoe.grid.exceptions.PositionInvalidException;
+import tictactoe.grid.exceptions.PositionUsedException;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class BitGrid2DTest
+ * @version 1
+ */
+public class BitGrid2DTest {
+
+    @Test
+    public void position_already_used() throws Exception {
+        Grid grid = new BitGrid2D(3);
+        assertFalse(grid.isCellUsed("5"));
+        grid.place("5", 'X');
+        assertThrows(PositionUsedException.class, () -> grid.place("5", 'O'));
+        assertTrue(grid.isCellUsed("5"));
+    }
+
+    @Test
+    public void position_invalid() {
+        Grid grid = new BitGrid2D(3);
+        assertThrows(PositionInvalidException.class, () -> grid.place("0", 'X'));
+        assertThrows(PositionInvalidException.class, () -> grid.place(9, 'X'));
+    }
+
+    @Test
+    public void x_winner_line() throws Exception {
+        BitGrid2D grid = new BitGrid2D(3);
+        assertFalse(grid.place("4", 'X'));
+        assertFalse(grid.place("5", 'X'));
+        assertTrue(grid.place("6", 'X'));
+
+        assertTrue(grid.getCellStatus(0, 1));
+        assertTrue(grid.getCellStatus(1, 1));
+        assertTrue(grid.getCellStatus(2, 1));
+        assertFalse(grid.getCellStatus(0, 0));
+    }
+
+    @Test
+    public void check_multi_win() throws Exception {
+        BitGrid2D grid = new BitGrid2D(3);
+        assertFalse(grid.place("2", 'o'));
+        assertFalse(grid.place("3", 'o'));
+        assertFalse(grid.place("4", 'o'));
+        assertFalse(grid.place("7", 'o'));
+        assertTrue(grid.place("1", 'o'));
+
+        assertTrue(grid.getCellStatus(0, 0));
+        assertTrue(grid.getCellStatus(2, 0));
+        assertTrue(grid.getCellStatus(0, 2));
+        assertEquals('O', grid.getValue(0));
+    }
+
+    @Test
+    public void check_diagonals() throws Exception {
+        BitGrid2D grid = new BitGrid2D(8);
+        for (int i = 0; i < 7; i++) {
+            assertFalse(grid.place(i * 8 + 7 - i, 'X'));
+        }
+        assertTrue(grid.place(56, 'X'));
+        assertTrue(grid.getCellStatus(7, 0));
+        assertTrue(grid.getCellStatus(0, 7));
+    }
+
+    @Test
+    public void check_remaining_cells_count() throws Exception {
+        Grid grid = new BitGrid2D(4);
+        assertEquals(16, grid.getRemainingCells());
+        grid.place(3, 'X');
+        grid.place(7, 'O');
+        assertEquals(14, grid.getRemainingCells());
+        grid.setValue(3, '\0');
+        assertEquals(15, grid.getRemainingCells());
+    }
+
+    @Test
+    public void same_results_as_grid2d() throws Exception {
+        Random random = new Random(42);
+        for (int size = 3; size <= BitGrid2D.MAX_SIZE; size++) {
+            for (int game = 0; game < 50; game++) {
+                Grid expected = new Grid2D(size);
+                Grid actual = new BitGrid2D(size);
+                char player = 'X';
+                while (expected.getRemainingCells() > 0) {
+                    int position = random.nextInt(size * size);
+                    if (expected.getValue(position) != '\0') continue;
+                    boolean win = expected.place(position, player);
+                    assertEquals(win, actual.place(position, player));
+                    for (int i = 0; i < size * size; i++) {
+                        assertEquals(expected.getValue(i), actual.getValue(i));
+                        assertEquals(expected.getCellStatus(i), actual.getCellStatus(i));
+                    }
+                    if (win) break;
+                    player = player == 'X' ? 'O' : 'X';
+                }
+                assertEquals(expected.getRemainingCells(), actual.getRemainingCells());
+            }
+        }
+    }
+
+    @Test
+    public void created_by_factory() {
+        assertEquals(BitGrid2D.class, Grid.create(BitGrid2D.MAX_SIZE, 2).getClass());
+        assertEquals(Grid2D.class, Grid.create(BitGrid2D.MAX_SIZE + 1, 2).getClass());
+        assertEquals(Grid.MAX_CELLS, Grid.create(256, 2).getTotalSize());
+        assertThrows(IllegalArgumentException.class, () -> Grid.create(257, 2));
+        assertThrows(IllegalArgumentException.class, () -> Grid.create(2000, 3));
+        assertThrows(IllegalArgumentException.class, () -> Grid.create(0, 2));
+    }
+}
@@ -0,0 +1,122 @@
+package tictactoe.grid;
+
+import org.junit.jupiter.api.Test;
+import tictactoe.grid.exceptions.PositionInvalidException;
+import tictactoe.grid.exceptions.PositionUsedException;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class BitGrid3DTest
+ * @version 1
+ */
+public class BitGrid3DTest {
+
+    @Test
+    public void position_already_used() throws Exception {
+        Grid grid = new BitGrid3D(4);
+        assertFalse(grid.isCellUsed("D16"));
+        grid.place("D16", 'X');
+        assertThrows(PositionUsedException.class, () -> grid.place("D16", 'O'));
+        assertTrue(grid.isCellUsed("D16"));
+        assertEquals('X', grid.getValue(63));
+    }
+
+    @Test
+    public void position_invalid() {
+        Grid grid = new BitGrid3D(4);
+        assertThrows(PositionInvalidException.class, () -> grid.place("E1", 'X'));
+        assertThrows(PositionInvalidException.class, () -> grid.place(64, 'X'));
+    }
+
+    @Test
+    public void check_win_depth() throws Exception {
+        BitGrid3D grid = new BitGrid3D(4);
+        assertFalse(grid.place("A6", 'O'));
+        assertFalse(grid.place("B6", 'O'));
+        assertFalse(grid.place("C6", 'O'));
+        assertTrue(grid.place("D6", 'O'));
+        for (int z = 0; z < 4; z++) {
+            assertTrue(grid.getCellStatus(1, 1, z));
+        }
+        assertFalse(grid.getCellStatus(0, 0, 0));
+    }
+
+    @Test
+    public void check_win_anti_diagonal_xz() throws Exception {
+        BitGrid3D grid = new BitGrid3D(4);
+        assertFalse(grid.place("A4", 'X'));
+        assertFalse(grid.place("B3", 'X'));
+        assertFalse(grid.place("C2", 'X'));
+        assertTrue(grid.place("D1", 'X'));
+        assertTrue(grid.getCellStatus(3, 0, 0));
+        assertTrue(grid.getCellStatus(0, 0, 3));
+    }
+
+    @Test
+    public void every_winning_line_is_detected() throws Exception {
+        int size = 4;
+        int lines = 0;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = 0; dz <= 1; dz++) {
+                    if (dz == 0 && (dy < 0 || (dy == 0 && dx <= 0))) continue;
+                    for (int start = 0; start < size * size * size; start++) {
+                        int x = start % size, y = (start / size) % size, z = start / (size * size);
+                        int endX = x + (size - 1) * dx, endY = y + (size - 1) * dy, endZ = z + (size - 1) * dz;
+                        if (endX < 0 || endX >= size || endY < 0 || endY >= size || endZ < 0 || endZ >= size) continue;
+                        if ((dx != 0 && x != (dx > 0 ? 0 : size - 1)) || (dy != 0 && y != (dy > 0 ? 0 : size - 1))) continue;
+                        Grid grid = new BitGrid3D(size);
+                        for (int i = 0; i < size; i++) {
+                            int position = (x + i * dx) + (y + i * dy) * size + (z + i * dz) * size * size;
+                            assertEquals(i == size - 1, grid.place(position, 'X'));
+                        }
+                        lines++;
+                    }
+                }
+            }
+        }
+        assertEquals(76, lines);
+    }
+
+    @Test
+    public void random_games_agree_with_grid3d_values() throws Exception {
+        Random random = new Random(7);
+        for (int game = 0; game < 100; game++) {
+            Grid expected = new Grid3D(4);
+            Grid actual = new BitGrid3D(4);
+            char player = 'X';
+            while (expected.getRemainingCells() > 0) {
+                int position = random.nextInt(64);
+                if (expected.getValue(position) != '\0') continue;
+                expected.place(position, player);
+                boolean win = actual.place(position, player);
+                assertEquals(expected.getValue(position), actual.getValue(position));
+                assertEquals(expected.getRemainingCells(), actual.getRemainingCells());
+                if (win) break;
+                player = player == 'X' ? 'O' : 'X';
+            }
+        }
+    }
+
+    @Test
+    public void created_by_factory() {
+        assertEquals(BitGrid3D.class, Grid.create(BitGrid3D.MAX_SIZE, 3).getClass());
+        assertEquals(Grid3D.class, Grid.create(BitGrid3D.MAX_SIZE + 1, 3).getClass());
+    }
+
+    @Test
+    public void unplace_restores_grid() throws Exception {
+        Grid grid = new BitGrid3D(4);
+        for (int i = 0; i < 3; i++) {
+            grid.place(i * 21, 'O');
+        }
+        assertTrue(grid.place(63, 'O'));
+        grid.unplace(63);
+        assertEquals('\0', grid.getValue(63));
+        assertEquals(61, grid.getRemainingCells());
+        assertFalse(grid.getCellStatus(0));
+    }
+}
@@ -208,4 +208,93 @@ public class Grid2DTest {
         Grid grid = new Grid2D(size);
         assertEquals(size*size,grid.getTotalSize());
     }
+
+    @Test
+    public void line_counters_win() throws Exception {
+        Grid2D grid = new Grid2D(50, true);
+        for (int x = 0; x < 49; x++) {
+            assertFalse(grid.place(x, 7, 'X'));
+        }
+        assertTrue(grid.place(49, 7, 'X'));
+        assertTrue(grid.getCellStatus(0,7));
+        assertTrue(grid.getCellStatus(49,7));
+        assertFalse(grid.getCellStatus(0,8));
+
+        //a column and a diagonal completed at once, the other diagonal not scanned
+        Grid2D small = new Grid2D(3, true);
+        small.place(0, 0, 'O');
+        small.place(1, 1, 'O');
+        small.place(2, 0, 'O');
+        small.place(2, 1, 'O');
+        assertTrue(small.place(2, 2, 'O'));
+        assertTrue(small.getCellStatus(0, 0));
+        assertTrue(small.getCellStatus(2, 0));
+        assertFalse(small.getCellStatus(0, 2));
+        assertFalse(small.getCellStatus(0, 1));
+    }
+
+    @Test
+    public void line_counters_follow_set_value() throws Exception {
+        Random random = new Random(3);
+        int size = 5;
+        for (int game = 0; game < 200; game++) {
+            Grid expected = new Grid2D(size);
+            Grid actual = new Grid2D(size, true);
+            char player = 'X';
+            while (expected.getRemainingCells() > 0) {
+                int position = random.nextInt(size*size);
+                if (expected.getValue(position) != '\0') continue;
+                //play and undo a move like the AI does
+                actual.place(position, player);
+                actual.setValue(position, '\0');
+
+                boolean win = expected.place(position, player);
+                assertEquals(win, actual.place(position, player));
+                //the counters record the same winning lines as the scans
+                for (int cell = 0; cell < size*size; cell++) {
+                    assertEquals(expected.getCellStatus(cell), actual.getCellStatus(cell));
+                }
+                if (win) break;
+                player = player == 'X' ? 'O' : 'X';
+            }
+        }
+    }
+
+    @Test
+    public void unplace_restores_grid() throws Exception {
+        Grid2D grid = new Grid2D(3, true);
+        grid.place(0, 'X');
+        grid.place(4, 'X');
+        assertTrue(grid.place(8, 'X'));
+        grid.unplace(8);
+        assertEquals('\0', grid.getValue(8));
+        assertEquals(7, grid.getRemainingCells());
+        assertFalse(grid.getCellStatus(0, 0));
+        //counters are restored too, the diagonal is not complete anymore
+        assertFalse(grid.place(8, 'O'));
+        grid.unplace(8);
+        assertTrue(grid.place(8, 'X'));
+    }
+
+    @Test
+    public void copy_is_independent() throws Exception {
+        for (Grid grid : new Grid[]{new Grid2D(3), new Grid2D(3, true), new BitGrid2D(3)}) {
+            grid.place(0, 'X');
+            grid.place(4, 'X');
+            assertTrue(grid.place(8, 'X'));
+            Grid copy = grid.copy();
+            assertEquals(grid.getClass(), copy.getClass());
+            assertEquals(grid.hash(), copy.hash());
+            assertTrue(copy.getCellStatus(4));
+            assertEquals(6, copy.getRemainingCells());
+            copy.unplace(8);
+            copy.place(2, 'O');
+            assertEquals('X', grid.getValue(8));
+            assertEquals('\0', grid.getValue(2));
+            assertNotEquals(grid.hash(), copy.hash());
+            //counters of the copy follow its own cells
+            copy.place(8, 'O');
+            assertTrue(copy.place(5, 'O'));
+        }
+    }
 }
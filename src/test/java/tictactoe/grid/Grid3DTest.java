@@ -1,5 +1,8 @@
 package tictactoe.grid;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
 import org.junit.jupiter.api.Test;
 import tictactoe.grid.Grid;
 import tictactoe.grid.Grid3D;
@@ -129,6 +132,18 @@ public class Grid3DTest {
         assertTrue( grid.getCellStatus(0,0,2));
     }
 
+    @Test
+    public void check_win_anti_diagonal_xz() throws PositionInvalidException, PositionUsedException {
+        Grid3D grid = new Grid3D(3);
+        assertFalse( grid.place("A3",'o'));
+        assertFalse( grid.place("B2",'o'));
+        assertTrue( grid.place("C1",'o'));
+
+        assertTrue( grid.getCellStatus(2,0,0));
+        assertTrue( grid.getCellStatus(1,0,1));
+        assertTrue( grid.getCellStatus(0,0,2));
+    }
+
     @Test
     public void check_remaining_cells_count() throws Exception {
         int size = 4;
@@ -162,4 +177,67 @@ public class Grid3DTest {
         Grid grid = new Grid3D(size);
         assertEquals(size*size*size,grid.getTotalSize());
     }
+
+    @Test
+    public void json_round_trip() throws Exception {
+        Grid3D grid = new Grid3D(6);
+        grid.place("A1",'X');
+        grid.place("F36",'O');
+        Gson gson = new Gson();
+        Grid3D loaded = gson.fromJson(gson.toJson(grid), Grid3D.class);
+        assertEquals(6, loaded.getSize());
+        assertEquals('X', loaded.getValue(0,0,0));
+        assertEquals('O', loaded.getValue(5,5,5));
+        assertEquals(grid.getRemainingCells(), loaded.getRemainingCells());
+        assertThrows(PositionUsedException.class, () -> loaded.place("A1",'O'));
+    }
+
+    @Test
+    public void layered_save_is_migrated() {
+        //layout of version 2 : one Grid2D per z, cell x,y of a layer at grid[x][y]
+        char[][][] cells = new char[3][3][3];
+        cells[2][1][0] = 'X';
+        cells[0][2][2] = 'O';
+        Gson gson = new Gson();
+        JsonArray layers = new JsonArray();
+        for (char[][] layer : cells) {
+            JsonObject saved = new JsonObject();
+            saved.add("grid", gson.toJsonTree(layer));
+            saved.addProperty("size", 3);
+            layers.add(saved);
+        }
+        Grid3D grid = Grid3D.fromLayers(gson.fromJson(layers, Grid2D[].class));
+        assertEquals(3, grid.getSize());
+        assertEquals('X', grid.getValue(1, 0, 2));
+        assertEquals('O', grid.getValue(2, 2, 0));
+        assertEquals(25, grid.getRemainingCells());
+        assertThrows(IllegalArgumentException.class, () -> Grid3D.fromLayers(new Grid2D[]{new Grid2D(3), null, null}));
+    }
+
+    @Test
+    public void unplace_restores_grid() throws Exception {
+        Grid grid = new Grid3D(3);
+        grid.place("A1",'X');
+        grid.place("B5",'X');
+        assertTrue(grid.place("C9",'X'));
+        grid.unplace(26);
+        assertEquals('\0', grid.getValue(26));
+        assertEquals(25, grid.getRemainingCells());
+        assertFalse(grid.getCellStatus(0));
+        assertFalse(grid.isCellUsed("C9"));
+    }
+
+    @Test
+    public void copy_is_independent() throws Exception {
+        for (Grid grid : new Grid[]{new Grid3D(3), new BitGrid3D(3)}) {
+            grid.place("A1",'X');
+            grid.place("B5",'X');
+            Grid copy = grid.copy();
+            assertEquals(grid.hash(), copy.hash());
+            assertTrue(copy.place("C9",'X'));
+            assertFalse(grid.isCellUsed("C9"));
+            assertEquals(25, grid.getRemainingCells());
+            assertEquals(24, copy.getRemainingCells());
+        }
+    }
 }
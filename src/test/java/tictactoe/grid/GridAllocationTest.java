@@ -0,0 +1,70 @@
+package tictactoe.grid;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Class GridAllocationTest
+ * Checks that placing a non-winning stone and removing it does not allocate.
+ * @version 1
+ */
+public class GridAllocationTest {
+
+    /**
+     * bytes tolerated for the measure itself
+     */
+    static final long TOLERANCE = 1024;
+
+    /**
+     * @param grid grid to play on
+     * @return bytes allocated by the current thread while playing and undoing stones
+     */
+    private long allocatedWhilePlaying(Grid grid) throws Exception {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        //warm up so the measure is not polluted by class loading and lazy initializations
+        playAndUndo(grid, 20_000);
+        long before = bean.getThreadAllocatedBytes(threadId);
+        playAndUndo(grid, 200_000);
+        return bean.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    /**
+     * Place a single stone and remove it, a lone stone never wins on grids bigger than 1
+     */
+    private void playAndUndo(Grid grid, int iterations) throws Exception {
+        int total = grid.getTotalSize();
+        for (int i = 0; i < iterations; i++) {
+            int position = i % total;
+            assertFalse(grid.place(position, (i & 1) == 0 ? 'X' : 'O'));
+            grid.setValue(position, '\0');
+        }
+    }
+
+    @Test
+    public void place_does_not_allocate() throws Exception {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        assertTrue(allocatedWhilePlaying(new Grid2D(5)) < TOLERANCE);
+        assertTrue(allocatedWhilePlaying(new Grid2D(5, true)) < TOLERANCE);
+        assertTrue(allocatedWhilePlaying(new Grid3D(5)) < TOLERANCE);
+        assertTrue(allocatedWhilePlaying(new BitGrid2D(5)) < TOLERANCE);
+        assertTrue(allocatedWhilePlaying(new BitGrid3D(4)) < TOLERANCE);
+    }
+
+    @Test
+    public void win_is_still_reported() throws Exception {
+        Grid2D grid = new Grid2D(3);
+        grid.place(0, 'X');
+        grid.place(4, 'X');
+        assertTrue(grid.place(8, 'X'));
+        assertTrue(grid.getCellStatus(1, 1));
+        assertFalse(grid.getCellStatus(2, 0));
+        //the next place clears the winning lines
+        assertFalse(grid.place(2, 'O'));
+        assertFalse(grid.getCellStatus(1, 1));
+    }
+}
@@ -0,0 +1,102 @@
+package tictactoe.grid;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class SymmetryTest
+ * @version 1
+ */
+public class SymmetryTest {
+
+    @Test
+    public void square_and_cube_counts() {
+        assertEquals(8, Symmetry.of(3, 2).size());
+        assertEquals(8, Symmetry.of(4, 2).size());
+        assertEquals(48, Symmetry.of(3, 3).size());
+        assertEquals(48, Symmetry.of(4, 3).size());
+        assertSame(Symmetry.of(4, 3), Symmetry.of(4, 3));
+        assertThrows(IllegalArgumentException.class, () -> Symmetry.of(3, 4));
+    }
+
+    @Test
+    public void transforms_are_distinct_permutations() {
+        for (int dimension = 2; dimension <= 3; dimension++) {
+            int cells = dimension == 2 ? 16 : 64;
+            Set<String> images = new HashSet<>();
+            List<Symmetry> symmetries = Symmetry.of(4, dimension);
+            for (Symmetry symmetry : symmetries) {
+                StringBuilder image = new StringBuilder();
+                Set<Integer> targets = new HashSet<>();
+                for (int cell = 0; cell < cells; cell++) {
+                    targets.add(symmetry.apply(cell));
+                    assertEquals(cell, symmetry.revert(symmetry.apply(cell)));
+                    image.append(symmetry.apply(cell)).append(',');
+                }
+                assertEquals(cells, targets.size());
+                images.add(image.toString());
+            }
+            assertEquals(symmetries.size(), images.size());
+            //identity first
+            assertEquals(0, symmetries.get(0).getIndex());
+            for (int cell = 0; cell < cells; cell++) {
+                assertEquals(cell, symmetries.get(0).apply(cell));
+            }
+        }
+    }
+
+    @Test
+    public void winning_lines_are_kept() {
+        for (int dimension = 2; dimension <= 3; dimension++) {
+            WinningLines lines = WinningLines.of(4, dimension);
+            Set<Long> masks = new HashSet<>();
+            for (int line = 0; line < lines.getLineCount(); line++) {
+                masks.add(lines.getMask(line));
+            }
+            for (Symmetry symmetry : Symmetry.of(4, dimension)) {
+                for (int line = 0; line < lines.getLineCount(); line++) {
+                    long mask = 0;
+                    for (int i = 0; i < 4; i++) {
+                        mask |= 1L << symmetry.apply(lines.getCell(line, i));
+                    }
+                    assertTrue(masks.contains(mask));
+                }
+            }
+        }
+    }
+
+    /**
+     * Check two grids hold the same stones, whatever the case of the player characters
+     */
+    private void assertSameCells(Grid expected, Grid actual) {
+        for (int cell = 0; cell < expected.getTotalSize(); cell++) {
+            assertEquals(Character.toUpperCase(expected.getValue(cell)), Character.toUpperCase(actual.getValue(cell)));
+        }
+    }
+
+    @Test
+    public void symmetric_positions_share_the_canonical_position() throws Exception {
+        Grid grid = Grid.create(3, 3);
+        grid.place(0, 'X');
+        grid.place(13, 'O');
+        grid.place(5, 'x');
+        Grid canonical = Symmetry.canonical(grid).apply(grid);
+        Grid played = canonical.copy();
+        played.place(2, 'O');
+        for (Symmetry symmetry : Symmetry.of(3, 3)) {
+            Grid image = symmetry.apply(grid);
+            Symmetry back = Symmetry.canonical(image);
+            assertSameCells(canonical, back.apply(image));
+            //a move on the canonical position brought back to the image is the same move
+            int move = back.revert(2);
+            assertEquals('\0', image.getValue(move));
+            image.place(move, 'O');
+            assertSameCells(played, back.apply(image));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package tictactoe.grid;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class WinningLinesTest
+ * @version 1
+ */
+public class WinningLinesTest {
+
+    @Test
+    public void line_count() {
+        assertEquals(8, WinningLines.of(3, 2).getLineCount());
+        assertEquals(49, WinningLines.of(3, 3).getLineCount());
+        assertEquals(76, WinningLines.of(4, 3).getLineCount());
+    }
+
+    @Test
+    public void lines_through_cell() {
+        WinningLines lines = WinningLines.of(3, 3);
+        //corner : 3 axes, 3 plane diagonals, 1 space diagonal
+        assertEquals(7, lines.getLineCount(0));
+        //center : every direction
+        assertEquals(13, lines.getLineCount(13));
+        for (int i = 0; i < lines.getLineCount(13); i++) {
+            int line = lines.getLine(13, i);
+            boolean found = false;
+            for (int j = 0; j < 3; j++) {
+                found |= lines.getCell(line, j) == 13;
+            }
+            assertTrue(found);
+        }
+    }
+
+    @Test
+    public void shared_between_grids() {
+        assertSame(WinningLines.of(5, 3), WinningLines.of(5, 3));
+        assertNotSame(WinningLines.of(5, 3), WinningLines.of(5, 2));
+    }
+}
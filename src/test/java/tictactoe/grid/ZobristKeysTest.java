@@ -0,0 +1,95 @@
+package tictactoe.grid;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class ZobristKeysTest
+ * @version 1
+ */
+public class ZobristKeysTest {
+
+    /**
+     * @return one grid of each implementation for the shape
+     */
+    private Grid[] grids(int size, int dimension) {
+        if (dimension == 2) return new Grid[]{new Grid2D(size), new Grid2D(size, true), new BitGrid2D(size)};
+        return new Grid[]{new Grid3D(size), new BitGrid3D(size)};
+    }
+
+    @Test
+    public void empty_grid_hash_is_zero() {
+        assertEquals(0, new Grid2D(3).hash());
+        assertEquals(0, new BitGrid3D(4).hash());
+    }
+
+    @Test
+    public void keys_are_deterministic() {
+        //persisted caches rely on these values, they must never change
+        assertEquals(0xBFA95554CCC138C4L, ZobristKeys.of(3, 2).get(4, 'X'));
+        assertEquals(0x82F56331850E267FL, ZobristKeys.of(4, 3).get(63, 'O'));
+        assertEquals(ZobristKeys.of(3, 2).get(4, 'X'), ZobristKeys.of(3, 2).get(4, 'x'));
+        assertNotEquals(ZobristKeys.of(3, 2).get(4, 'X'), ZobristKeys.of(3, 2).get(4, 'O'));
+        assertNotEquals(ZobristKeys.of(3, 2).get(4, 'X'), ZobristKeys.of(3, 3).get(4, 'X'));
+    }
+
+    @Test
+    public void hash_does_not_depend_on_move_order() throws Exception {
+        Grid first = new Grid2D(3);
+        first.place(0, 'X');
+        first.place(4, 'O');
+        first.place(8, 'X');
+        Grid second = new BitGrid2D(3);
+        second.place(8, 'X');
+        second.place(0, 'X');
+        second.place(4, 'O');
+        assertEquals(first.hash(), second.hash());
+        assertNotEquals(0, first.hash());
+    }
+
+    @Test
+    public void incremental_hash_matches_full_hash() throws Exception {
+        Random random = new Random(3);
+        int[][] shapes = {{3, 2}, {5, 2}, {3, 3}, {4, 3}};
+        for (int[] shape : shapes) {
+            ZobristKeys keys = ZobristKeys.of(shape[0], shape[1]);
+            for (Grid grid : grids(shape[0], shape[1])) {
+                char player = 'X';
+                while (grid.getRemainingCells() > 0) {
+                    int position = random.nextInt(grid.getTotalSize());
+                    if (grid.getValue(position) != '\0') continue;
+                    long before = grid.hash();
+                    if (grid.place(position, player)) {
+                        grid.unplace(position);
+                        assertEquals(before, grid.hash());
+                        break;
+                    }
+                    assertEquals(keys.hash(grid), grid.hash());
+                    player = player == 'X' ? 'O' : 'X';
+                }
+                grid.setValue(0, 'O');
+                assertEquals(keys.hash(grid), grid.hash());
+                grid.setValue(0, '\0');
+                assertEquals(keys.hash(grid), grid.hash());
+            }
+        }
+    }
+
+    @Test
+    public void hash_rebuilt_after_deserialization() throws Exception {
+        Gson gson = new Gson();
+        for (Grid grid : new Grid[]{new Grid2D(3), new Grid3D(3), new BitGrid2D(3), new BitGrid3D(3)}) {
+            grid.place(1, 'X');
+            grid.place(2, 'O');
+            Grid copy = gson.fromJson(gson.toJson(grid), grid.getClass());
+            assertEquals(grid.hash(), copy.hash());
+            copy.place(3, 'X');
+            grid.place(3, 'X');
+            assertEquals(grid.hash(), copy.hash());
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package tictactoe.network;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class CustomSocketTest
+ * @version 1
+ */
+public class CustomSocketTest {
+    private Socket serverSide;
+    private Socket clientSide;
+    private CustomSocket server;
+    private CustomSocket client;
+
+    @BeforeEach
+    public void connect() throws IOException {
+        try (ServerSocket listener = new ServerSocket(0)) {
+            this.clientSide = new Socket("127.0.0.1", listener.getLocalPort());
+            this.serverSide = listener.accept();
+        }
+    }
+
+    /**
+     * Build both sides, the server side with the given inbound queue
+     */
+    private void wrap(int capacity, Backpressure backpressure) {
+        this.server = new CustomSocket(this.serverSide, false, capacity, backpressure);
+        this.client = new CustomSocket(this.clientSide, true);
+    }
+
+    @AfterEach
+    public void close() throws IOException {
+        if (this.server != null) this.server.disconnect();
+        if (this.client != null) this.client.disconnect();
+        this.serverSide.close();
+        this.clientSide.close();
+    }
+
+    @Test
+    public void messages_arrive_in_order_without_delay() throws Exception {
+        this.wrap(CustomSocket.DEFAULT_CAPACITY, Backpressure.BLOCK);
+        long start = System.currentTimeMillis();
+        this.server.send(ProtocolAction.Play, new String[]{"5"});
+        this.server.send(ProtocolAction.AskConfirmation);
+        this.server.send(ProtocolAction.Validate, new String[]{"5", "X"});
+
+        NetworkMessage play = this.client.read();
+        assertEquals(ProtocolAction.Play, play.getProtocolAction());
+        assertArrayEquals(new String[]{"5"}, play.getParameters());
+        assertEquals(ProtocolAction.AskConfirmation, this.client.read().getProtocolAction());
+        NetworkMessage validate = this.client.read();
+        assertEquals(ProtocolAction.Validate, validate.getProtocolAction());
+        assertArrayEquals(new String[]{"5", "X"}, validate.getParameters());
+        //no polling interval between the messages
+        assertTrue(System.currentTimeMillis() - start < 300);
+    }
+
+    @Test
+    public void closed_peer_is_a_network_error() throws Exception {
+        this.wrap(CustomSocket.DEFAULT_CAPACITY, Backpressure.BLOCK);
+        this.clientSide.close();
+        long start = System.currentTimeMillis();
+        assertEquals(ProtocolAction.NetworkError, this.server.read().getProtocolAction());
+        assertFalse(this.server.isConnected());
+        //every later read too
+        assertEquals(ProtocolAction.NetworkError, this.server.read().getProtocolAction());
+        //without waiting for the heartbeat timeout
+        assertTrue(System.currentTimeMillis() - start < CustomSocket.HEARTBEAT_TIMEOUT_MILLIS);
+    }
+
+    @Test
+    public void disconnect_stops_at_once() {
+        this.wrap(CustomSocket.DEFAULT_CAPACITY, Backpressure.BLOCK);
+        long start = System.currentTimeMillis();
+        this.client.disconnect();
+        this.server.disconnect();
+        assertFalse(this.client.isConnected());
+        assertTrue(System.currentTimeMillis() - start < 500);
+    }
+
+    @Test
+    public void full_queue_blocks_without_loss() throws Exception {
+        this.wrap(2, Backpressure.BLOCK);
+        for (int i = 1; i <= 20; i++) {
+            this.client.send(ProtocolAction.Place, new String[]{"" + i, "X"});
+        }
+        //the firewall waits for room instead of dropping anything
+        Thread.sleep(200);
+        for (int i = 1; i <= 20; i++) {
+            assertEquals("" + i, this.server.read().getParameters()[0]);
+        }
+        assertTrue(this.server.isConnected());
+    }
+
+    @Test
+    public void full_queue_disconnects_slow_reader() throws Exception {
+        this.wrap(2, Backpressure.DISCONNECT);
+        for (int i = 1; i <= 5; i++) {
+            this.client.send(ProtocolAction.Place, new String[]{"" + i, "X"});
+        }
+        long start = System.currentTimeMillis();
+        while (this.server.isConnected() && System.currentTimeMillis() - start < 2000) {
+            Thread.sleep(10);
+        }
+        assertFalse(this.server.isConnected());
+        //what was queued is still read
+        assertEquals("1", this.server.read().getParameters()[0]);
+        assertEquals("2", this.server.read().getParameters()[0]);
+        assertEquals(ProtocolAction.NetworkError, this.server.read().getProtocolAction());
+    }
+
+    @Test
+    public void disconnect_wakes_a_blocked_firewall() throws Exception {
+        this.wrap(1, Backpressure.BLOCK);
+        this.client.send(ProtocolAction.Confirmation);
+        this.client.send(ProtocolAction.Confirmation);
+        Thread.sleep(100);
+        long start = System.currentTimeMillis();
+        this.server.disconnect();
+        assertTrue(System.currentTimeMillis() - start < 500);
+    }
+
+    @Test
+    public void binary_codec_sends_any_text() throws Exception {
+        this.server = new CustomSocket(this.serverSide, false, CustomSocket.DEFAULT_CAPACITY, Backpressure.BLOCK, Thread::new, BinaryCodec.INSTANCE);
+        this.client = new CustomSocket(this.clientSide, true, CustomSocket.DEFAULT_CAPACITY, Backpressure.BLOCK, Thread::new, BinaryCodec.INSTANCE);
+        String[] parameters = {"X", "O", "2", "3", "{\"a\":\"b,,c::d\"}"};
+        this.server.send(ProtocolAction.StartGame, parameters);
+        assertArrayEquals(parameters, this.client.read().getParameters());
+        //heartbeats go both ways between the messages
+        Thread.sleep(CustomSocket.HEARTBEAT_MILLIS + 200);
+        this.client.send(ProtocolAction.Place, new String[]{"B4", "X"});
+        assertArrayEquals(new String[]{"B4", "X"}, this.server.read().getParameters());
+        assertTrue(this.server.isConnected());
+        assertTrue(this.client.isConnected());
+    }
+
+    @Test
+    public void capacity_checked() {
+        assertThrows(IllegalArgumentException.class, () -> new CustomSocket(this.serverSide, false, 0, Backpressure.BLOCK));
+    }
+}
@@ -0,0 +1,152 @@
+package tictactoe.network;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+import tictactoe.exceptions.ProtocolActionException;
+import tictactoe.grid.Grid;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class MessageCodecTest
+ * @version 1
+ */
+public class MessageCodecTest {
+
+    private static ByteBuffer frame(MessageCodec codec, NetworkMessage message) {
+        return codec.frame(message, ByteBuffer.allocate(16));
+    }
+
+    private static NetworkMessage roundTrip(MessageCodec codec, NetworkMessage message) throws Exception {
+        ByteBuffer frame = frame(codec, message);
+        NetworkMessage read = codec.read(frame);
+        assertFalse(frame.hasRemaining());
+        return read;
+    }
+
+    @Test
+    public void text_codec_writes_the_lines_of_the_first_versions() throws Exception {
+        NetworkMessage message = new NetworkMessage(ProtocolAction.Validate, new String[]{"5", "X"});
+        ByteBuffer frame = frame(TextCodec.INSTANCE, message);
+        assertEquals("4::5,,X,,\n", StandardCharsets.UTF_8.decode(frame.duplicate()).toString());
+        assertArrayEquals(new String[]{"5", "X"}, TextCodec.INSTANCE.read(frame).getParameters());
+        assertNull(roundTrip(TextCodec.INSTANCE, new NetworkMessage(ProtocolAction.Quit)).getParameters());
+        assertThrows(ProtocolActionException.class, () -> TextCodec.parse("42"));
+        assertThrows(ProtocolActionException.class, () -> TextCodec.parse("x::1,,"));
+    }
+
+    @Test
+    public void binary_codec_reads_back_every_parameter() throws Exception {
+        String[] parameters = {"0", "42", "B7", "007", "-1", "A", "{\"a\":\"b,,c::d\"}", "é€😀", ""};
+        NetworkMessage read = roundTrip(BinaryCodec.INSTANCE, new NetworkMessage(ProtocolAction.Place, parameters));
+        assertEquals(ProtocolAction.Place, read.getProtocolAction());
+        assertArrayEquals(parameters, read.getParameters());
+        assertNull(roundTrip(BinaryCodec.INSTANCE, new NetworkMessage(ProtocolAction.Quit)).getParameters());
+    }
+
+    @Test
+    public void binary_codec_is_compact() {
+        //length, action, count, then a type and a value per parameter
+        assertEquals(8, frame(BinaryCodec.INSTANCE, new NetworkMessage(ProtocolAction.Validate, new String[]{"5", "X"})).remaining());
+        assertEquals(9, frame(BinaryCodec.INSTANCE, new NetworkMessage(ProtocolAction.Place, new String[]{"C27", "O"})).remaining());
+        assertEquals(3, frame(BinaryCodec.INSTANCE, new NetworkMessage(ProtocolAction.Confirmation)).remaining());
+    }
+
+    @Test
+    public void binary_codec_sends_the_grid_by_its_cells() throws Exception {
+        Grid cube = Grid.create(4, 3);
+        cube.place(0, 'X');
+        cube.place(21, 'O');
+        cube.place(63, 'X');
+        String json = new Gson().toJson(cube);
+        NetworkMessage message = new NetworkMessage(ProtocolAction.StartGame, new String[]{"X", "O", "3", "4", json});
+        assertEquals(json, roundTrip(BinaryCodec.INSTANCE, message).getParameters()[4]);
+
+        Grid large = Grid.create(9, 2);
+        large.place(40, 'X');
+        large.place(80, 'O');
+        json = new Gson().toJson(large);
+        message = new NetworkMessage(ProtocolAction.StartGame, new String[]{"O", "X", "2", "9", json});
+        ByteBuffer frame = frame(BinaryCodec.INSTANCE, message);
+        //81 cells on 21 bytes, instead of about a thousand bytes of JSON
+        assertTrue(frame.remaining() < 40);
+        assertEquals(json, BinaryCodec.INSTANCE.read(frame).getParameters()[4]);
+        //any other text is kept as it is
+        message.getParameters()[4] = "{\"size\":4}";
+        assertEquals("{\"size\":4}", roundTrip(BinaryCodec.INSTANCE, message).getParameters()[4]);
+    }
+
+    @Test
+    public void largest_grids_fit_in_a_frame() throws Exception {
+        //an empty cell of a Grid2D is the longest in JSON
+        Grid[] grids = {Grid.create(256, 2), Grid.create(40, 3)};
+        for (Grid grid : grids) {
+            String json = new Gson().toJson(grid);
+            String[] parameters = {"X", "O", Integer.toString(grid.getDimension()), Integer.toString(grid.getSize()), json};
+            NetworkMessage message = new NetworkMessage(ProtocolAction.StartGame, parameters);
+            for (MessageCodec codec : new MessageCodec[]{TextCodec.INSTANCE, BinaryCodec.INSTANCE}) {
+                assertEquals(json, roundTrip(codec, message).getParameters()[4]);
+            }
+        }
+    }
+
+    @Test
+    public void long_frames_have_a_longer_length() throws Exception {
+        String text = "x".repeat(1000);
+        ByteBuffer frame = frame(BinaryCodec.INSTANCE, new NetworkMessage(ProtocolAction.Error, new String[]{text}));
+        assertEquals(text, BinaryCodec.INSTANCE.read(frame).getParameters()[0]);
+        assertFalse(frame.hasRemaining());
+    }
+
+    @Test
+    public void incomplete_frames_are_left_in_place() throws Exception {
+        for (MessageCodec codec : new MessageCodec[]{TextCodec.INSTANCE, BinaryCodec.INSTANCE}) {
+            ByteBuffer frame = frame(codec, new NetworkMessage(ProtocolAction.Play, new String[]{"3"}));
+            int length = frame.remaining();
+            for (int i = 0; i < length - 1; i++) {
+                frame.limit(i);
+                assertNull(codec.read(frame));
+                assertEquals(0, frame.position());
+            }
+            frame.limit(length);
+            assertEquals("3", codec.read(frame).getParameters()[0]);
+        }
+    }
+
+    @Test
+    public void heartbeats_are_told_apart() throws Exception {
+        for (MessageCodec codec : new MessageCodec[]{TextCodec.INSTANCE, BinaryCodec.INSTANCE}) {
+            ByteBuffer frame = codec.heartbeat(ByteBuffer.allocate(16));
+            assertSame(MessageCodec.HEARTBEAT, codec.read(frame));
+            assertFalse(frame.hasRemaining());
+        }
+        assertEquals(1, BinaryCodec.INSTANCE.heartbeat(ByteBuffer.allocate(16)).remaining());
+    }
+
+    @Test
+    public void wrong_frames_are_skipped() throws Exception {
+        ByteBuffer frames = ByteBuffer.allocate(64);
+        //unknown action 99
+        frames.put((byte) 2).put((byte) 99).put((byte) 0);
+        BinaryCodec.INSTANCE.write(new NetworkMessage(ProtocolAction.WaitMessage), frames);
+        frames.flip();
+        assertThrows(ProtocolActionException.class, () -> BinaryCodec.INSTANCE.read(frames));
+        assertEquals(ProtocolAction.WaitMessage, BinaryCodec.INSTANCE.read(frames).getProtocolAction());
+    }
+
+    @Test
+    public void too_long_frames_are_errors() {
+        ByteBuffer binary = ByteBuffer.allocate(8);
+        BinaryCodec.putVarint(binary, MessageCodec.MAX_FRAME_BYTES);
+        assertThrows(IOException.class, () -> BinaryCodec.INSTANCE.read(binary.flip()));
+        ByteBuffer text = ByteBuffer.allocate(MessageCodec.MAX_FRAME_BYTES);
+        while (text.hasRemaining()) text.put((byte) '1');
+        assertThrows(IOException.class, () -> TextCodec.INSTANCE.read(text.flip()));
+        String tooLong = "x".repeat(MessageCodec.MAX_FRAME_BYTES);
+        assertThrows(IllegalArgumentException.class, () -> frame(BinaryCodec.INSTANCE, new NetworkMessage(ProtocolAction.Error, new String[]{tooLong})));
+    }
+}
@@ -0,0 +1,193 @@
+package tictactoe.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import tictactoe.network.CustomSocket;
+import tictactoe.network.NetworkMessage;
+import tictactoe.network.ProtocolAction;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class SessionServerTest
+ * @version 1
+ */
+public class SessionServerTest {
+    static final long TIMEOUT = 2000;
+
+    /**
+     * Scripted player on a plain socket, without heartbeats
+     */
+    private static final class Player {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+        private String role;
+
+        Player(int port) throws IOException {
+            this.socket = new Socket("127.0.0.1", port);
+            this.socket.setSoTimeout((int) TIMEOUT);
+            this.in = new BufferedReader(new InputStreamReader(this.socket.getInputStream()));
+            this.out = new PrintWriter(this.socket.getOutputStream(), true);
+        }
+
+        NetworkMessage read() throws Exception {
+            String line;
+            do {
+                line = this.in.readLine();
+            } while (line != null && line.startsWith("p"));
+            assertNotNull(line, "connexion closed");
+            return CustomSocket.parse(line);
+        }
+
+        NetworkMessage expect(ProtocolAction action) throws Exception {
+            NetworkMessage message = this.read();
+            assertEquals(action, message.getProtocolAction());
+            return message;
+        }
+
+        void send(ProtocolAction action, String... parameters) {
+            this.out.println(CustomSocket.format(new NetworkMessage(action, parameters.length == 0 ? null : parameters)));
+        }
+    }
+
+    private SessionServer server;
+    private final List<Player> players = new ArrayList<>();
+
+    @AfterEach
+    public void stop() throws IOException {
+        for (Player player : this.players) {
+            player.socket.close();
+        }
+        this.server.close();
+    }
+
+    private void start(boolean virtual) throws IOException {
+        this.server = new SessionServer(0, virtual);
+        this.server.start();
+    }
+
+    private Player connect() throws IOException {
+        Player player = new Player(this.server.getPort());
+        this.players.add(player);
+        return player;
+    }
+
+    /**
+     * Choose a new 3x3 grid and read the roles, the player waiting for its turn telling it
+     * @return the players, X first
+     */
+    private Player[] startGame(Player first, Player second) throws Exception {
+        //the saved games of the host are never offered
+        first.expect(ProtocolAction.SelectDimensions);
+        first.send(ProtocolAction.AnswerDimensions, "3", "2");
+        first.role = first.expect(ProtocolAction.StartGame).getParameters()[0];
+        second.role = second.expect(ProtocolAction.StartGame).getParameters()[0];
+        assertNotEquals(first.role, second.role);
+        Player[] xo = first.role.equals("X") ? new Player[]{first, second} : new Player[]{second, first};
+        xo[1].send(ProtocolAction.WaitMessage);
+        return xo;
+    }
+
+    /**
+     * Place and confirm a pawn, the opponent being told
+     */
+    private void move(Player mover, Player opponent, String position) throws Exception {
+        mover.send(ProtocolAction.Place, position, mover.role);
+        mover.expect(ProtocolAction.AskConfirmation);
+        mover.send(ProtocolAction.Confirmation);
+        assertArrayEquals(new String[]{position, mover.role}, mover.expect(ProtocolAction.Validate).getParameters());
+        mover.send(ProtocolAction.WaitMessage);
+        assertArrayEquals(new String[]{position, mover.role}, opponent.expect(ProtocolAction.Play).getParameters());
+    }
+
+    /**
+     * Play a game won by X on its first row
+     */
+    private void playGame(Player first, Player second) throws Exception {
+        Player[] xo = this.startGame(first, second);
+        Player x = xo[0];
+        Player o = xo[1];
+        this.move(x, o, "1");
+        this.move(o, x, "4");
+        this.move(x, o, "2");
+        this.move(o, x, "5");
+        x.send(ProtocolAction.Place, "3", "X");
+        x.expect(ProtocolAction.AskConfirmation);
+        x.send(ProtocolAction.Confirmation);
+        assertArrayEquals(new String[]{"3", "X", "0"}, x.expect(ProtocolAction.EndGame).getParameters());
+        assertArrayEquals(new String[]{"3", "X", "0"}, o.expect(ProtocolAction.EndGame).getParameters());
+        x.send(ProtocolAction.WaitMessage);
+        o.send(ProtocolAction.WaitMessage);
+        x.expect(ProtocolAction.Quit);
+        o.expect(ProtocolAction.Quit);
+    }
+
+    private void waitForGames(int games) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        while (this.server.getGames() != games && System.currentTimeMillis() - start < TIMEOUT) {
+            Thread.sleep(10);
+        }
+        assertEquals(games, this.server.getGames());
+    }
+
+    @Test
+    public void plays_a_game() throws Exception {
+        this.start(true);
+        this.playGame(this.connect(), this.connect());
+        this.waitForGames(0);
+    }
+
+    @Test
+    public void plays_many_games_at_once() throws Exception {
+        this.start(false);
+        assertFalse(this.server.isVirtual());
+        int games = 50;
+        List<Player[]> pairs = new ArrayList<>();
+        for (int i = 0; i < games; i++) {
+            pairs.add(new Player[]{this.connect(), this.connect()});
+        }
+        this.waitForGames(games);
+        for (Player[] pair : pairs) {
+            this.playGame(pair[0], pair[1]);
+        }
+        this.waitForGames(0);
+    }
+
+    @Test
+    public void rejects_oversized_grids() throws Exception {
+        this.start(true);
+        Player first = this.connect();
+        Player second = this.connect();
+        first.expect(ProtocolAction.SelectDimensions);
+        first.send(ProtocolAction.AnswerDimensions, "2000", "3");
+        assertEquals("0", first.expect(ProtocolAction.Error).getParameters()[0]);
+        first.send(ProtocolAction.AnswerDimensions, "3", "2");
+        first.role = first.expect(ProtocolAction.StartGame).getParameters()[0];
+        second.role = second.expect(ProtocolAction.StartGame).getParameters()[0];
+        assertNotEquals(first.role, second.role);
+    }
+
+    @Test
+    public void tells_the_opponent_of_a_disconnection() throws Exception {
+        this.start(true);
+        Player[] xo = this.startGame(this.connect(), this.connect());
+        xo[0].socket.close();
+        assertEquals("0", xo[1].expect(ProtocolAction.OpponentDisconnected).getParameters()[0]);
+        xo[1].send(ProtocolAction.Quit, "0");
+        NetworkMessage message;
+        do {
+            message = xo[1].read();
+        } while (message.getProtocolAction() == ProtocolAction.OpponentDisconnected);
+        assertEquals(ProtocolAction.Quit, message.getProtocolAction());
+        this.waitForGames(0);
+    }
+}